@@ -0,0 +1,52 @@
+package com.jgcomptech.benchmarks.plugins;
+
+import com.jgcomptech.tools.pluginsystem.IPlugin;
+import com.jgcomptech.tools.pluginsystem.PluginInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * The plugin packaged into the synthetic jars. It lives outside of the plugin system packages so each jar defines
+ * its own copy of the class, and it takes its name from the plugin.properties of its jar.
+ */
+public class SyntheticJarPlugin implements IPlugin {
+    public static final String PROPERTIES_NAME = "plugin.properties";
+
+    private final PluginInfo info = new PluginInfo();
+
+    public SyntheticJarPlugin() {
+        final Properties properties = new Properties();
+        try(InputStream in = SyntheticJarPlugin.class.getClassLoader().getResourceAsStream(PROPERTIES_NAME)) {
+            if(in != null) properties.load(in);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        info.setName(properties.getProperty("name", ""));
+        info.setVersion("1.0");
+        info.setType("Synthetic");
+        info.setAuthor("Benchmark");
+        info.setCompany("Benchmark");
+        info.setLicense("MIT");
+    }
+
+    @Override public PluginInfo getPluginInfo() { return info; }
+
+    @Override public boolean unloadPlugin() { return true; }
+    @Override public boolean useUnload() { return false; }
+
+    @Override public boolean loadPreStage() { return true; }
+    @Override public boolean loadNormalStage() { return true; }
+    @Override public boolean loadPostStage() { return true; }
+
+    @Override public boolean hasError() { return false; }
+    @Override public String getErrorMessage() { return null; }
+
+    @Override public boolean isUpdateNeeded() { return false; }
+    @Override public String getDownloadURL() { return null; }
+
+    @Override public void setMainAppIconPath(String path) { }
+    @Override public String getMainAppIconPath() { return null; }
+}
@@ -0,0 +1,82 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the normal load stage of 64 plugins whose stage waits a few milliseconds, like a plugin reading its
+ * configuration. In the wide graph every plugin depends on one root, so the critical path is two stages long,
+ * in the deep graph each plugin depends on the one before it, so the critical path is the whole chain.
+ * The lifecycle executor should follow the critical path, serial loading always takes the sum of all stages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DependencyGraphBenchmark {
+    @Param({"wide", "deep"})
+    public String shape;
+
+    @Param({"64"})
+    public int pluginCount;
+
+    @Param({"2"})
+    public long stageMillis;
+
+    @Param({"8"})
+    public int parallelism;
+
+    private final List<PluginInstance> plugins = new ArrayList<>();
+    private PluginLifecycleExecutor executor;
+    private PluginDependencyGraph graph;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        for(int i = 0; i < pluginCount; i++) {
+            final PluginInstance plugin = new PluginInstance(new SyntheticPlugin("Graph" + i, "Graph") {
+                @Override
+                public boolean loadNormalStage() {
+                    try {
+                        Thread.sleep(stageMillis);
+                    } catch(InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                    return true;
+                }
+            });
+            if(!plugin.readPluginDetails()) throw new IllegalStateException("Invalid plugin!");
+            if(i > 0) plugin.addDependencies(Collections.singleton(shape.equals("wide") ? "Graph0" : "Graph" + (i - 1)));
+            plugins.add(plugin);
+        }
+        executor = new PluginLifecycleExecutor(parallelism);
+        graph = new PluginDependencyGraph(plugins);
+        if(graph.hasCycle() || !graph.getUnresolved().isEmpty()) throw new IllegalStateException("Invalid graph!");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() { executor.shutdown(); }
+
+    @Benchmark
+    public PluginLifecycleResult criticalPath() {
+        final PluginLifecycleResult result = executor.run(plugins, LoadStageType.NORMAL_LOAD);
+        if(!result.isSuccessful()) throw new IllegalStateException("Failed: " + result.getFailedPlugins());
+        return result;
+    }
+
+    @Benchmark
+    public int serial() {
+        int loaded = 0;
+        for(final PluginInstance plugin : graph.getLoadOrder()) {
+            if(!plugin.loadStage(LoadStageType.NORMAL_LOAD)) throw new IllegalStateException("Failed: " + plugin.getPluginName());
+            loaded++;
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,52 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup discovery over a generated directory of 300 plugin jars, each with 50 library classes.
+ * A parallelism of 1 is the sequential scan, the index variant measures warm restarts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DiscoveryBenchmark {
+    @Param({"300"})
+    public int jarCount;
+
+    @Param({"50"})
+    public int libraryClasses;
+
+    @Param({"1", "4", "8"})
+    public int parallelism;
+
+    @Param({"false", "true"})
+    public boolean useIndex;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = SyntheticJars.createDirectory(jarCount, libraryClasses);
+        PluginManager.PluginLoader.getInstance().setDiscoveryIndexUsed(useIndex);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException { SyntheticJars.delete(directory); }
+
+    @Benchmark
+    public PluginDiscoveryResult discover() {
+        final PluginDiscoveryResult result =
+                PluginManager.PluginLoader.getInstance().searchExternalPlugins(directory.toString(), parallelism);
+        if(result.hasErrors() || result.getPlugins().size() != jarCount) {
+            throw new IllegalStateException("Discovery failed: " + result.getErrors());
+        }
+        return result;
+    }
+}
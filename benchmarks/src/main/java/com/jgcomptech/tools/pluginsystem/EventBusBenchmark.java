@@ -0,0 +1,69 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import com.jgcomptech.tools.pluginsystem.events.OverflowPolicy;
+import com.jgcomptech.tools.pluginsystem.events.PluginEvent;
+import com.jgcomptech.tools.pluginsystem.events.PluginEventBus;
+import com.jgcomptech.tools.pluginsystem.events.PluginEventSubscription;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publish throughput of the event bus with 1 to 64 listeners and 1, 4 or 16 publishing threads.
+ * Asynchronous listeners block the publisher while their queue is full, so the score includes the delivery.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EventBusBenchmark {
+    @Param({"1", "4", "16", "64"})
+    public int listeners;
+
+    @Param({"false", "true"})
+    public boolean async;
+
+    private final List<PluginEventSubscription> subscriptions = new ArrayList<>();
+    private final LongAdder received = new LongAdder();
+
+    public static class BenchmarkEvent extends PluginEvent {
+        private static final long serialVersionUID = 1L;
+
+        public BenchmarkEvent(String pluginName) { super(EventBusBenchmark.class, pluginName); }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        for(int i = 0; i < listeners; i++) {
+            subscriptions.add(async
+                    ? PluginEventBus.getInstance().subscribeAsync(BenchmarkEvent.class, e -> received.increment(),
+                            PluginEventBus.DEFAULT_QUEUE_CAPACITY, OverflowPolicy.BLOCK)
+                    : PluginEventBus.getInstance().subscribe(BenchmarkEvent.class, e -> received.increment()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for(final PluginEventSubscription subscription : subscriptions) { subscription.cancel(); }
+        subscriptions.clear();
+    }
+
+    private void publish() { PluginEventBus.getInstance().publish(new BenchmarkEvent("Benchmark")); }
+
+    @Benchmark
+    @Threads(1)
+    public void publishers1() { publish(); }
+
+    @Benchmark
+    @Threads(4)
+    public void publishers4() { publish(); }
+
+    @Benchmark
+    @Threads(16)
+    public void publishers16() { publish(); }
+}
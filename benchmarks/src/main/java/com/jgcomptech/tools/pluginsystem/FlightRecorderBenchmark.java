@@ -0,0 +1,43 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import com.jgcomptech.tools.pluginsystem.jfr.PluginFlightRecorder;
+import jdk.jfr.Recording;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one load stage event with and without a flight recording. Run with {@code -prof gc}, without a recording
+ * begin should not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlightRecorderBenchmark {
+    @Param({"false", "true"})
+    public boolean recording;
+
+    private Recording running;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if(!recording) return;
+        running = new Recording();
+        running.enable("com.jgcomptech.tools.pluginsystem.LoadStage");
+        running.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if(running != null) running.close();
+    }
+
+    @Benchmark
+    public void loadStage() {
+        final Object started = PluginFlightRecorder.beginLoadStage();
+        PluginFlightRecorder.endLoadStage(started, "Measured", LoadStageType.NORMAL_LOAD, true);
+    }
+}
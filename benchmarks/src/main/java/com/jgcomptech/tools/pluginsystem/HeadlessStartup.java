@@ -0,0 +1,48 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Started by {@link HeadlessStartupBenchmark} in a JVM of its own. Loads the plugin jars of a directory through the
+ * core module, runs their load stages and prints the peak resident memory of the JVM.
+ */
+public final class HeadlessStartup {
+    private HeadlessStartup() { /*Exists only to defeat instantiation.*/ }
+
+    public static void main(String[] args) throws IOException, ReflectiveOperationException {
+        final Path directory = Paths.get(args[0]);
+        final ConcurrentLinkedQueue<PluginError> errors = new ConcurrentLinkedQueue<>();
+        final PluginManager manager = PluginManager.getInstance();
+        manager.setErrorReporter(errors::add);
+        manager.initializePluginDirectory(directory.getParent().toString(), directory.getFileName().toString());
+
+        final PluginErrorReporter batch = manager.beginErrorBatch();
+        try {
+            if(!PluginManager.PluginLoader.getInstance().loadExternalPlugins()) throw new IllegalStateException("Discovery failed!");
+            final PluginLifecycleExecutor executor = new PluginLifecycleExecutor();
+            try {
+                if(!executor.run().isSuccessful()) throw new IllegalStateException("Load stages failed!");
+            } finally {
+                executor.shutdown();
+            }
+        } finally {
+            batch.endBatch();
+        }
+        if(!errors.isEmpty()) throw new IllegalStateException("Errors: " + errors);
+        System.out.println("peakResidentKilobytes=" + getPeakResidentKilobytes());
+    }
+
+    //Only Linux reports the peak resident set size of a process to itself
+    private static long getPeakResidentKilobytes() throws IOException {
+        final Path status = Paths.get("/proc/self/status");
+        if(!Files.isReadable(status)) return 0;
+        for(final String line : Files.readAllLines(status)) {
+            if(line.startsWith("VmHWM:")) return Long.parseLong(line.replaceAll("[^0-9]", ""));
+        }
+        return 0;
+    }
+}
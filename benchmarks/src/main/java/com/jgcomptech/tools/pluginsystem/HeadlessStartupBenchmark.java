@@ -0,0 +1,61 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Starts a JVM that loads a directory of plugin jars through the core module alone, without JavaFX on the class
+ * path, and measures the time until it exited and the peak resident memory it reported. With no jars the numbers
+ * are those of the JVM and the plugin manager itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class HeadlessStartupBenchmark {
+    @Param({"0", "50"})
+    public int jarCount;
+
+    private Path directory;
+
+    /** Peak resident memory of the started JVM in kilobytes, JMH sums it over the 10 measured iterations. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long residentKilobytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException { directory = SyntheticJars.createDirectory(jarCount, 0); }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException { SyntheticJars.delete(directory); }
+
+    @Benchmark
+    public long start(Footprint footprint) throws IOException, InterruptedException {
+        //The class path of the benchmarks jar holds the core module but not JavaFX
+        final Process process = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Djava.awt.headless=true", "-cp", System.getProperty("java.class.path"),
+                HeadlessStartup.class.getName(), directory.toString()).redirectErrorStream(true).start();
+        final String output;
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            output = reader.lines().collect(Collectors.joining("\n"));
+        }
+        if(process.waitFor() != 0 || !output.contains("peakResidentKilobytes=")) {
+            throw new IllegalStateException("Startup failed: " + output);
+        }
+        final long result = Long.parseLong(output.substring(output.lastIndexOf('=') + 1).trim());
+        footprint.residentKilobytes += result;
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.stream.Stream;
+
+/**
+ * Reads every class of one generated plugin jar, like the discovery scan does, with {@link PluginJarFile}
+ * and with the streaming readers of the JDK. Run with {@code -prof gc} to compare the heap churn.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JarScanBenchmark {
+    @Param({"50", "500"})
+    public int libraryClasses;
+
+    private Path directory;
+    private File file;
+    private final byte[] buffer = new byte[8192];
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = SyntheticJars.createDirectory(1, libraryClasses);
+        try(Stream<Path> files = Files.list(directory)) {
+            file = files.findFirst().orElseThrow(() -> new IOException("No jar generated!")).toFile();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException { SyntheticJars.delete(directory); }
+
+    @Benchmark
+    public long pluginJarFile() throws IOException {
+        long total = 0;
+        try(PluginJarFile jar = PluginJarFile.open(file)) {
+            for(final String name : jar.getEntryNames()) {
+                if(name.endsWith(".class")) total += jar.getEntryBytes(name).length;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long jarFile() throws IOException {
+        long total = 0;
+        try(JarFile jar = new JarFile(file)) {
+            final Enumeration<JarEntry> entries = jar.entries();
+            while(entries.hasMoreElements()) {
+                final JarEntry entry = entries.nextElement();
+                if(entry.getName().endsWith(".class")) {
+                    try(InputStream in = jar.getInputStream(entry)) { total += drain(in); }
+                }
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long jarInputStream() throws IOException {
+        long total = 0;
+        try(JarInputStream in = new JarInputStream(Files.newInputStream(file.toPath()))) {
+            JarEntry entry;
+            while((entry = in.getNextJarEntry()) != null) {
+                if(entry.getName().endsWith(".class")) total += drain(in);
+            }
+        }
+        return total;
+    }
+
+    private long drain(InputStream in) throws IOException {
+        long total = 0;
+        int read;
+        while((read = in.read(buffer)) != -1) { total += read; }
+        return total;
+    }
+}
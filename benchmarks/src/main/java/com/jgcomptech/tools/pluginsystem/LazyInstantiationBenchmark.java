@@ -0,0 +1,101 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup discovery of 300 plugin jars with descriptors, eager against lazy instantiation.
+ * With the index a lazy start neither opens the jars nor loads a class, without it the plugin classes are still
+ * loaded to read their stages but not created. Next to the time the heap kept by the discovered plugins is measured
+ * after a full collection, outside of the measured time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseG1GC")
+public class LazyInstantiationBenchmark {
+    @Param({"300"})
+    public int jarCount;
+
+    @Param({"50"})
+    public int libraryClasses;
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    @Param({"false", "true"})
+    public boolean useIndex;
+
+    private Path directory;
+
+    /**
+     * Reported next to the time, the classes defined, plugins created, metaspace grown and heap kept per discovery.
+     * JMH sums them over the 10 measured iterations, each of them runs one discovery.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long classesLoaded;
+        public long instantiated;
+        public long metaspaceBytes;
+        public long heapBytes;
+        //Holds the plugins of the last discovery until the heap they keep is measured
+        private PluginDiscoveryResult discovered;
+        private long heapBefore;
+
+        @Setup(Level.Invocation)
+        public void collect() {
+            discovered = null;
+            heapBefore = getUsedHeap();
+        }
+
+        //The serial collector, picked on machines with a single CPU, does not always report the heap kept after
+        //System.gc(), so the fork runs with G1
+        @TearDown(Level.Invocation)
+        public void measureHeap() {
+            heapBytes += getUsedHeap() - heapBefore;
+            discovered = null;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = SyntheticJars.createDirectory(jarCount, libraryClasses);
+        PluginManager.PluginLoader.getInstance().setDiscoveryIndexUsed(useIndex);
+        PluginManager.PluginLoader.getInstance().setLazyInstantiationUsed(lazy);
+        //The index is written by the first discovery, every measured one is a warm start
+        if(useIndex) PluginManager.PluginLoader.getInstance().searchExternalPlugins(directory.toString(), 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        PluginManager.PluginLoader.getInstance().setLazyInstantiationUsed(false);
+        SyntheticJars.delete(directory);
+    }
+
+    //Heap still in use after a full collection
+    private static long getUsedHeap() {
+        System.gc();
+        final Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Benchmark
+    public PluginDiscoveryResult discover(Counters counters) {
+        final PluginDiscoveryResult result =
+                PluginManager.PluginLoader.getInstance().searchExternalPlugins(directory.toString(), 1);
+        if(result.hasErrors() || result.getPlugins().size() != jarCount) {
+            throw new IllegalStateException("Discovery failed: " + result.getErrors());
+        }
+        counters.classesLoaded += result.getClassesLoaded();
+        counters.instantiated += result.getPlugins().stream().filter(PluginInstance::isInstantiated).count();
+        counters.metaspaceBytes += result.getMetaspaceUsed();
+        counters.discovered = result;
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the version of 100k plugins through the captured metadata against asking the plugin for its info like
+ * before the metadata existed, and measures what capturing the metadata of all of them allocates and retains.
+ * Run with {@code -prof gc} to see that reading the metadata allocates nothing.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetadataBenchmark {
+    @Param({"100000"})
+    public int recordCount;
+
+    private PluginInstance[] plugins;
+    private PluginInfo[] infos;
+    //Holds the records of the last capture, dropped before the next one measures the heap
+    private PluginMetadata[] captured;
+
+    /** Reported next to the time of one capture of all records, in bytes per record. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long allocatedBytes;
+        public long retainedBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        plugins = new PluginInstance[recordCount];
+        infos = new PluginInfo[recordCount];
+        for(int i = 0; i < recordCount; i++) {
+            final SyntheticPlugin plugin = new SyntheticPlugin("Plugin" + i, "Type" + i % 10);
+            plugins[i] = new PluginInstance(plugin);
+            if(!plugins[i].readPluginDetails()) throw new IllegalStateException("Invalid plugin!");
+            infos[i] = plugin.getPluginInfo();
+        }
+    }
+
+    private PluginInstance randomPlugin() { return plugins[ThreadLocalRandom.current().nextInt(recordCount)]; }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public String metadataRead() { return randomPlugin().getPluginVersion(); }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public String infoRead() { return PluginInstance.isNullOrEmpty(randomPlugin().getPlugin().getPluginInfo().getVersion()); }
+
+    //The counters are summed over the measured iterations, so there is only one. The serial collector, picked on
+    //machines with a single CPU, does not always report the records kept after System.gc(), G1 does
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 1)
+    @Fork(value = 1, jvmArgsAppend = "-XX:+UseG1GC")
+    public int capture(Footprint footprint) {
+        captured = null;
+        final long heapBefore = getUsedHeap();
+        final long allocatedBefore = getAllocatedBytes();
+        final PluginMetadata[] result = new PluginMetadata[recordCount];
+        for(int i = 0; i < recordCount; i++) { result[i] = PluginMetadata.of(infos[i]); }
+        footprint.allocatedBytes = (getAllocatedBytes() - allocatedBefore) / recordCount;
+        captured = result;
+        footprint.retainedBytes = (getUsedHeap() - heapBefore) / recordCount;
+        return result.length;
+    }
+
+    //Heap still in use after a full collection
+    private static long getUsedHeap() {
+        System.gc();
+        final Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    //Bytes allocated by this thread so far, only HotSpot and its relatives count them
+    private static long getAllocatedBytes() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if(!(threads instanceof com.sun.management.ThreadMXBean)) return 0;
+        return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
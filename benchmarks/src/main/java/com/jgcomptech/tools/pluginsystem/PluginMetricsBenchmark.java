@@ -0,0 +1,39 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of timing one lifecycle phase, enabled and disabled. Run with {@code -prof gc} to check that recording
+ * into a plugin that was already seen does not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PluginMetricsBenchmark {
+    @Param({"true", "false"})
+    public boolean enabled;
+
+    private final PluginMetrics metrics = PluginMetrics.getInstance();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        metrics.setEnabled(enabled);
+        metrics.reset();
+        //Create the counters of the plugin so that the measurement only sees the steady state
+        metrics.record("Measured", PluginMetrics.Phase.NORMAL_LOAD, System.nanoTime(), true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        metrics.setEnabled(true);
+        metrics.reset();
+    }
+
+    @Benchmark
+    public void record() { metrics.record("Measured", PluginMetrics.Phase.NORMAL_LOAD, metrics.start(), true); }
+}
@@ -0,0 +1,58 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Compares the name index of the pool with the predicate scan it replaced, at 10, 1k and 100k plugins. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PluginPoolBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int pluginCount;
+
+    private final List<PluginInstance> plugins = new ArrayList<>();
+    private String[] names;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        names = new String[pluginCount];
+        for(int i = 0; i < pluginCount; i++) {
+            final PluginInstance plugin = new PluginInstance(new SyntheticPlugin("Plugin" + i, "Type" + i % 10));
+            plugin.loadPlugin();
+            plugins.add(plugin);
+            names[i] = plugin.getPluginName();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for(final PluginInstance plugin : plugins) { PluginManager.PluginPool.getInstance().removePlugin(plugin); }
+        plugins.clear();
+    }
+
+    //Cycles through all names so the lookups are not always answered from the same bucket
+    private String nextName() {
+        next = next + 1 == names.length ? 0 : next + 1;
+        return names[next];
+    }
+
+    @Benchmark
+    public PluginInstance indexedLookup() { return PluginManager.PluginPool.getInstance().getPlugin(nextName()); }
+
+    @Benchmark
+    public PluginInstance predicateScan() {
+        final String name = nextName();
+        return PluginManager.filterPluginsSingle(p -> p.getPluginName().equals(name));
+    }
+
+    @Benchmark
+    public boolean isPluginLoaded() { return PluginManager.getInstance().isPluginLoaded(nextName()); }
+}
@@ -0,0 +1,76 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Read throughput of the registry from four threads, with and without installs running in the background. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class RegistryReadBenchmark {
+    private static final int PLUGIN_COUNT = 1000;
+
+    @Param({"false", "true"})
+    public boolean installsRunning;
+
+    private final List<PluginInstance> plugins = new ArrayList<>();
+    private String[] names;
+    private volatile boolean isRunning;
+    private Thread installer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        PluginManager.getInstance().setErrorReporter(error -> { });
+        names = new String[PLUGIN_COUNT];
+        for(int i = 0; i < PLUGIN_COUNT; i++) {
+            final PluginInstance plugin = new PluginInstance(new SyntheticPlugin("Plugin" + i, "Type" + i % 10));
+            plugin.loadPlugin();
+            plugin.setPaneLoaded(true);
+            plugins.add(plugin);
+            names[i] = plugin.getPluginName();
+        }
+
+        if(!installsRunning) return;
+        isRunning = true;
+        installer = new Thread(() -> {
+            final PluginManager manager = PluginManager.getInstance();
+            for(int i = 0; isRunning; i = (i + 1) % PLUGIN_COUNT) {
+                try {
+                    manager.installPluginAsync(this, names[i]).get();
+                } catch(InterruptedException | ExecutionException e) {
+                    return;
+                }
+                manager.uninstallPlugin(this, names[i]);
+            }
+        }, "Installer");
+        installer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        isRunning = false;
+        if(installer != null) installer.join();
+        for(final PluginInstance plugin : plugins) { PluginManager.PluginPool.getInstance().removePlugin(plugin); }
+        plugins.clear();
+    }
+
+    private String randomName() { return names[ThreadLocalRandom.current().nextInt(PLUGIN_COUNT)]; }
+
+    @Benchmark
+    public PluginInstance getLoadedPlugin() { return PluginManager.getInstance().getLoadedPlugin(randomName()); }
+
+    @Benchmark
+    public boolean isPluginInstalled() { return PluginManager.getInstance().isPluginInstalled(randomName()); }
+
+    @Benchmark
+    public String getPluginVersion() { return PluginManager.getInstance().getPluginVersion(randomName()); }
+}
@@ -0,0 +1,96 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import com.jgcomptech.benchmarks.plugins.SyntheticJarPlugin;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.*;
+import java.util.stream.Stream;
+
+/**
+ * Generates directories of plugin jars. Every jar holds one {@link SyntheticJarPlugin} and a number of
+ * library classes taken from the JMH jar, like a plugin that ships a shaded library.
+ */
+final class SyntheticJars {
+    private SyntheticJars() { /*Exists only to defeat instantiation.*/ }
+
+    static Path createDirectory(int jarCount, int libraryClasses) throws IOException {
+        final Path directory = Files.createTempDirectory("plugins");
+        final List<String> libraryNames = new ArrayList<>();
+        final List<byte[]> library = readLibraryClasses(libraryClasses, libraryNames);
+        for(int i = 0; i < jarCount; i++) {
+            writeJar(directory.resolve(String.format("plugin%05d.jar", i)), "Synthetic" + i, libraryNames, library);
+        }
+        return directory;
+    }
+
+    static void delete(Path directory) throws IOException {
+        try(Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private static void writeJar(Path jar, String pluginName, List<String> libraryNames, List<byte[]> library)
+            throws IOException {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        try(JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            final String pluginEntry = SyntheticJarPlugin.class.getName().replace('.', '/') + ".class";
+            out.putNextEntry(new JarEntry(pluginEntry));
+            try(InputStream in = SyntheticJarPlugin.class.getClassLoader().getResourceAsStream(pluginEntry)) {
+                copy(in, out);
+            }
+            out.closeEntry();
+
+            final byte[] properties = ("name=" + pluginName + "\nversion=1.0\ntype=Synthetic\n").getBytes(StandardCharsets.ISO_8859_1);
+            out.putNextEntry(new JarEntry(SyntheticJarPlugin.PROPERTIES_NAME));
+            out.write(properties);
+            out.closeEntry();
+            //The descriptor lets lazy instantiation register the plugin without creating it
+            out.putNextEntry(new JarEntry(PluginDescriptor.getDescriptorName(SyntheticJarPlugin.class.getName())));
+            out.write(properties);
+            out.closeEntry();
+
+            for(int i = 0; i < library.size(); i++) {
+                out.putNextEntry(new JarEntry(libraryNames.get(i)));
+                out.write(library.get(i));
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static List<byte[]> readLibraryClasses(int count, List<String> names) throws IOException {
+        final List<byte[]> result = new ArrayList<>(count);
+        if(count == 0) return result;
+        final File source;
+        try {
+            source = new File(org.openjdk.jmh.Main.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch(Exception e) {
+            throw new IOException("JMH jar not found!", e);
+        }
+        try(JarFile jar = new JarFile(source)) {
+            final Enumeration<JarEntry> entries = jar.entries();
+            while(entries.hasMoreElements() && result.size() < count) {
+                final JarEntry entry = entries.nextElement();
+                if(!entry.getName().startsWith("org/openjdk/jmh/") || !entry.getName().endsWith(".class")) continue;
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try(InputStream in = jar.getInputStream(entry)) { copy(in, bytes); }
+                names.add(entry.getName());
+                result.add(bytes.toByteArray());
+            }
+        }
+        return result;
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        final byte[] buffer = new byte[8192];
+        int read;
+        while((read = in.read(buffer)) != -1) { out.write(buffer, 0, read); }
+    }
+}
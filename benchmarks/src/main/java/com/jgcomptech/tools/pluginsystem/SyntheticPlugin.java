@@ -0,0 +1,33 @@
+package com.jgcomptech.tools.pluginsystem;
+
+/** A plugin that does nothing, the benchmarks fill the pool with as many of them as they need. */
+public class SyntheticPlugin implements IPlugin {
+    private final PluginInfo info = new PluginInfo();
+
+    public SyntheticPlugin(String name, String type) {
+        info.setName(name);
+        info.setVersion("1.0");
+        info.setType(type);
+        info.setAuthor("Benchmark");
+        info.setCompany("Benchmark");
+        info.setLicense("MIT");
+    }
+
+    @Override public PluginInfo getPluginInfo() { return info; }
+
+    @Override public boolean unloadPlugin() { return true; }
+    @Override public boolean useUnload() { return false; }
+
+    @Override public boolean loadPreStage() { return true; }
+    @Override public boolean loadNormalStage() { return true; }
+    @Override public boolean loadPostStage() { return true; }
+
+    @Override public boolean hasError() { return false; }
+    @Override public String getErrorMessage() { return null; }
+
+    @Override public boolean isUpdateNeeded() { return false; }
+    @Override public String getDownloadURL() { return null; }
+
+    @Override public void setMainAppIconPath(String path) { }
+    @Override public String getMainAppIconPath() { return null; }
+}
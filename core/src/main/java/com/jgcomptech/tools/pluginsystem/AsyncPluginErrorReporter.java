@@ -0,0 +1,91 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Queues errors and hands them to the handler as one {@link PluginErrorReport} per load batch. Reporting never
+ * blocks, the handler runs on a single background thread so it may take its time, for example to show a dialog.
+ * The plugin manager wraps its load batches in {@link #beginBatch()} and {@link #endBatch()}, the errors are handed
+ * on when the outermost batch ended. Errors reported while no batch is running are handed on once the delay passed.
+ */
+public class AsyncPluginErrorReporter implements PluginErrorReporter {
+    private static final Logger LOGGER = Logger.getLogger(AsyncPluginErrorReporter.class.getName());
+
+    private final Consumer<PluginErrorReport> handler;
+    private final long delayMillis;
+    private final ConcurrentLinkedQueue<PluginError> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isScheduled = new AtomicBoolean();
+    private final AtomicInteger batchDepth = new AtomicInteger();
+    private final ScheduledThreadPoolExecutor executor;
+
+    public AsyncPluginErrorReporter(Consumer<PluginErrorReport> handler) { this(handler, 1, TimeUnit.SECONDS); }
+
+    public AsyncPluginErrorReporter(Consumer<PluginErrorReport> handler, long delay, TimeUnit unit) {
+        if(handler == null) throw new IllegalArgumentException("Handler must not be null!");
+        this.handler = handler;
+        this.delayMillis = unit.toMillis(delay);
+        executor = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "PluginErrorReporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        //The thread only lives while there are errors to report
+        executor.setKeepAliveTime(10, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public void report(PluginError error) {
+        pending.add(error);
+        //Within a batch the end of the batch delivers, the timer only catches errors outside of one
+        if(batchDepth.get() == 0 && isScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::deliverLater, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void flush() { if(!pending.isEmpty()) executor.execute(this::deliver); }
+
+    @Override
+    public void beginBatch() { batchDepth.incrementAndGet(); }
+
+    @Override
+    public void endBatch() { if(batchDepth.updateAndGet(depth -> depth > 0 ? depth - 1 : 0) == 0) flush(); }
+
+    /** Returns true while a load batch is running, its errors are held back until it ended. */
+    public boolean isInBatch() { return batchDepth.get() > 0; }
+
+    /** Returns the number of errors that were not handed to the handler yet. */
+    public int getPendingCount() { return pending.size(); }
+
+    //The timer fired, a batch that started since then delivers the errors when it ends
+    private void deliverLater() {
+        if(batchDepth.get() == 0) deliver();
+        else isScheduled.set(false);
+    }
+
+    //Only runs on the reporter thread, so reports reach the handler in order
+    private void deliver() {
+        isScheduled.set(false);
+        final List<PluginError> errors = new ArrayList<>();
+        PluginError error;
+        while((error = pending.poll()) != null) { errors.add(error); }
+        if(errors.isEmpty()) return;
+
+        final PluginErrorReport report = new PluginErrorReport(errors);
+        try {
+            handler.accept(report);
+        } catch(RuntimeException e) {
+            //A failing handler must not stop the reports that follow, nor lose the errors it was given
+            LOGGER.log(Level.SEVERE, "Plugin error handler failed, " + report, e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.lang.annotation.*;
+
+/** Names of the plugins that have to finish a load stage before this plugin starts the same stage. */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface DependsOn {
+    String[] value();
+}
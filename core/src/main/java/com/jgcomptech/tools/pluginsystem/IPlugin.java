@@ -1,7 +1,5 @@
 package com.jgcomptech.tools.pluginsystem;
 
-import javafx.fxml.FXMLLoader;
-
 public interface IPlugin {
     PluginInfo getPluginInfo();
 
@@ -12,9 +10,6 @@ public interface IPlugin {
     boolean loadNormalStage();
     boolean loadPostStage();
 
-    FXMLLoader getFXMLLoader();
-    String getFXMLPath();
-
     boolean hasError();
     String getErrorMessage();
 
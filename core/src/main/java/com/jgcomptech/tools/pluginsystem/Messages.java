@@ -4,11 +4,14 @@ public class Messages {
     enum ErrorType { MESSAGE, NO_MESSAGE, EXCEPTION, }
     enum ErrorStage { INSTALL, UNINSTALL, UNLOAD }
 
-    enum ErrorStatus {
+    public enum ErrorStatus {
         ALREADY_INSTALLED, NOT_INSTALLED,
         ALREADY_LOADED, NOT_LOADED,
         LOADING_ERROR, UNLOADING_ERROR,
         INVALID_STAGE,
+        OPERATION_IN_PROGRESS,
+        TIMED_OUT,
+        DEPENDENCY_ERROR,
         NO_ERROR
     }
 }
@@ -0,0 +1,220 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.security.cert.Certificate;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the classes and resources of one plugin jar straight from its {@link PluginJarFile},
+ * the same reader the discovery scan reads the class headers from.
+ * Resource URLs are served by that reader too and not by the cached JarFile of the JDK,
+ * so a jar that is replaced in place is never read through a stale view of the old file.
+ * The plugin system API is always loaded parent-first so plugins and the host share the same types,
+ * everything else is looked up in the jar first so each plugin can bring its own libraries.
+ * Once no plugin of the jar is referenced anymore the loader, and all classes it defined, can be garbage collected.
+ * A loader created for a jar that is known from the discovery index only opens the jar once a class is loaded.
+ */
+public class PluginClassLoader extends ClassLoader {
+    static { ClassLoader.registerAsParallelCapable(); }
+
+    private static final String[] PARENT_FIRST_PACKAGES = {
+            "java.", "com.jgcomptech.tools.pluginsystem.", "com.jgcomptech.tools.dialogs."
+    };
+
+    private final File file;
+    private volatile PluginJarFile jar;
+    private final ConcurrentHashMap<String, Class<?>> classes = new ConcurrentHashMap<>();
+    private final String jarURL;
+    private final URLStreamHandler resourceHandler = new ResourceHandler();
+    private final ProtectionDomain protectionDomain;
+    private final AtomicInteger definedClassCount = new AtomicInteger();
+
+    PluginClassLoader(PluginJarFile jar, ClassLoader parent) throws MalformedURLException {
+        this(jar.getFile(), jar, parent);
+    }
+
+    /** Creates a loader that opens the jar on first use if it is null. */
+    PluginClassLoader(File file, PluginJarFile jar, ClassLoader parent) throws MalformedURLException {
+        super(parent);
+        this.file = file;
+        this.jar = jar;
+        final URL location = file.toURI().toURL();
+        jarURL = "jar:" + location + "!/";
+        protectionDomain = new ProtectionDomain(new CodeSource(location, (Certificate[]) null), null, this, null);
+    }
+
+    PluginJarFile getJarFile() throws IOException {
+        PluginJarFile result = jar;
+        if(result == null) {
+            synchronized(this) {
+                result = jar;
+                if(result == null) {
+                    result = PluginJarFile.open(file);
+                    jar = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Returns true if the jar was opened, loaders of indexed jars only open it once a class is loaded. */
+    boolean isJarOpen() { return jar != null; }
+
+    /** Releases the file of the jar, it is opened again if a class or resource is loaded afterwards. */
+    void closeJar() {
+        final PluginJarFile result = jar;
+        if(result != null) {
+            try {
+                result.close();
+            } catch(IOException e) {
+                //Nothing was written, so there is nothing to lose
+            }
+        }
+    }
+
+    private boolean hasEntry(String name) {
+        try {
+            return getJarFile().hasEntry(name);
+        } catch(IOException e) {
+            return false;
+        }
+    }
+
+    /** Returns the number of classes this loader defined from the jar, classes of the parent are not counted. */
+    int getDefinedClassCount() { return definedClassCount.get(); }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        Class<?> result = classes.get(name);
+        if(result == null) {
+            synchronized(getClassLoadingLock(name)) {
+                result = findLoadedClass(name);
+                if(result == null) {
+                    if(!isParentFirst(name) && hasEntry(name.replace('.', '/') + ".class")) {
+                        result = findClass(name);
+                    } else result = getParent().loadClass(name);
+                }
+                classes.putIfAbsent(name, result);
+            }
+        }
+        if(resolve) resolveClass(result);
+        return result;
+    }
+
+    private static boolean isParentFirst(String name) {
+        for(final String prefix : PARENT_FIRST_PACKAGES) {
+            if(name.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    //getDefinedPackage replaces getPackage in Java 9, the plugin system still runs on Java 8
+    @SuppressWarnings("deprecation")
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        final byte[] bytes;
+        try {
+            bytes = getJarFile().getEntryBytes(name.replace('.', '/') + ".class");
+        } catch(IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+        if(bytes == null) throw new ClassNotFoundException(name);
+
+        final int index = name.lastIndexOf('.');
+        if(index > 0) {
+            final String packageName = name.substring(0, index);
+            if(getPackage(packageName) == null) {
+                try {
+                    definePackage(packageName, null, null, null, null, null, null, null);
+                } catch(IllegalArgumentException e) {
+                    //Another thread defined the package first
+                }
+            }
+        }
+        final Class<?> result = defineClass(name, bytes, 0, bytes.length, protectionDomain);
+        definedClassCount.incrementAndGet();
+        return result;
+    }
+
+    //Resources follow the same rule as classes, the jar is searched before the parent
+    @Override
+    public URL getResource(String name) {
+        final URL url = findResource(name);
+        return url != null ? url : getParent().getResource(name);
+    }
+
+    @Override
+    protected URL findResource(String name) {
+        if(!hasEntry(name)) return null;
+        try {
+            return new URL(null, jarURL + name, resourceHandler);
+        } catch(MalformedURLException e) {
+            return null;
+        }
+    }
+
+    @Override
+    protected Enumeration<URL> findResources(String name) {
+        final URL url = findResource(name);
+        return url == null ? Collections.emptyEnumeration() : Collections.enumeration(Collections.singletonList(url));
+    }
+
+    //Opens the resource URLs of this loader, the entry name follows the "!/" of the jar URL
+    private final class ResourceHandler extends URLStreamHandler {
+        @Override
+        protected URLConnection openConnection(URL url) {
+            final String file = url.getFile();
+            final String name = file.substring(file.indexOf("!/") + 2);
+            return new URLConnection(url) {
+                private byte[] bytes;
+
+                @Override
+                public void connect() throws IOException {
+                    if(bytes == null) {
+                        bytes = getJarFile().getEntryBytes(name);
+                        if(bytes == null) throw new FileNotFoundException(url.toString());
+                        connected = true;
+                    }
+                }
+
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    connect();
+                    return new ByteArrayInputStream(bytes);
+                }
+
+                @Override
+                public long getContentLengthLong() {
+                    try {
+                        connect();
+                        return bytes.length;
+                    } catch(IOException e) {
+                        return -1;
+                    }
+                }
+
+                @Override
+                public int getContentLength() { return (int) getContentLengthLong(); }
+
+                @Override
+                public long getLastModified() { return PluginClassLoader.this.file.lastModified(); }
+            };
+        }
+    }
+
+    @Override
+    public String toString() { return "PluginClassLoader[" + file + "]"; }
+}
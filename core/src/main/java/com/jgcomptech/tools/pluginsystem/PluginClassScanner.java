@@ -0,0 +1,150 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Finds IPlugin implementations by reading the constant pool and interface table of the class files,
+ * so classes that are not plugins are never loaded or initialized.
+ */
+final class PluginClassScanner {
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+
+    private final Map<String, ClassHeader> headers = new LinkedHashMap<>();
+    private final Map<String, Boolean> resolved = new HashMap<>();
+    private final ClassLoader parent;
+
+    PluginClassScanner(ClassLoader parent) { this.parent = parent; }
+
+    void addClass(byte[] bytes) throws IOException {
+        final ClassHeader header = readHeader(bytes);
+        headers.put(header.name, header);
+    }
+
+    int getClassCount() { return headers.size(); }
+
+    /** Returns the names of all concrete classes that implement IPlugin, in the order they were added. */
+    Set<String> findPluginClasses() {
+        final Set<String> result = new LinkedHashSet<>();
+        for(final ClassHeader header : headers.values()) {
+            if((header.access & (ACC_INTERFACE | ACC_ABSTRACT)) != 0) continue;
+            if(implementsPlugin(header.name)) result.add(header.name);
+        }
+        return result;
+    }
+
+    private boolean implementsPlugin(String className) {
+        if(className == null) return false;
+        if(className.equals(IPlugin.class.getName())) return true;
+
+        final Boolean cached = resolved.get(className);
+        if(cached != null) return cached;
+        //Guards against cyclic hierarchies in malformed jars
+        resolved.put(className, false);
+
+        final boolean result;
+        final ClassHeader header = headers.get(className);
+        if(header != null) {
+            boolean found = implementsPlugin(header.superName);
+            for(int i = 0; !found && i < header.interfaces.length; i++) {
+                found = implementsPlugin(header.interfaces[i]);
+            }
+            result = found;
+        } else result = isExternalPlugin(className);
+
+        resolved.put(className, result);
+        return result;
+    }
+
+    //Types outside the jar belong to the application or the JDK and are resolved without initializing them
+    private boolean isExternalPlugin(String className) {
+        if(className.startsWith("java.")) return false;
+        try {
+            return IPlugin.class.isAssignableFrom(Class.forName(className, false, parent));
+        } catch(ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    static ClassHeader readHeader(byte[] bytes) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if(in.readInt() != 0xCAFEBABE) throw new IOException("Not a class file!");
+        //Skip minor and major version
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+
+        final int count = in.readUnsignedShort();
+        final String[] utf8 = new String[count];
+        final int[] classNames = new int[count];
+        for(int i = 1; i < count; i++) {
+            final int tag = in.readUnsignedByte();
+            switch(tag) {
+                case 1: //Utf8
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7: //Class
+                    classNames[i] = in.readUnsignedShort();
+                    break;
+                case 8: //String
+                case 16: //MethodType
+                case 19: //Module
+                case 20: //Package
+                    in.skipBytes(2);
+                    break;
+                case 15: //MethodHandle
+                    in.skipBytes(3);
+                    break;
+                case 3: //Integer
+                case 4: //Float
+                case 9: //Fieldref
+                case 10: //Methodref
+                case 11: //InterfaceMethodref
+                case 12: //NameAndType
+                case 17: //Dynamic
+                case 18: //InvokeDynamic
+                    in.skipBytes(4);
+                    break;
+                case 5: //Long
+                case 6: //Double
+                    in.skipBytes(8);
+                    //Eight byte constants take up two entries in the pool
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag + "!");
+            }
+        }
+
+        final int access = in.readUnsignedShort();
+        final String name = className(utf8, classNames, in.readUnsignedShort());
+        final String superName = className(utf8, classNames, in.readUnsignedShort());
+        final String[] interfaces = new String[in.readUnsignedShort()];
+        for(int i = 0; i < interfaces.length; i++) {
+            interfaces[i] = className(utf8, classNames, in.readUnsignedShort());
+        }
+
+        return new ClassHeader(name, superName, interfaces, access);
+    }
+
+    private static String className(String[] utf8, int[] classNames, int index) {
+        //Index zero is only used as the super class of java.lang.Object
+        return index == 0 ? null : utf8[classNames[index]].replace('/', '.');
+    }
+
+    static final class ClassHeader {
+        final String name;
+        final String superName;
+        final String[] interfaces;
+        final int access;
+
+        ClassHeader(String name, String superName, String[] interfaces, int access) {
+            this.name = name;
+            this.superName = superName;
+            this.interfaces = interfaces;
+            this.access = access;
+        }
+    }
+}
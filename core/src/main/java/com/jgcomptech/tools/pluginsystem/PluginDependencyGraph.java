@@ -0,0 +1,77 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.util.*;
+
+/**
+ * Directed graph of the plugins and the plugins they depend on, see {@link DependsOn}.
+ * Plugins that depend on a missing plugin, on a cycle or on another unresolved plugin are not part of the
+ * load order and are reported by {@link #getUnresolved()} instead.
+ */
+public class PluginDependencyGraph {
+    private final Map<PluginInstance, List<PluginInstance>> dependencies = new HashMap<>();
+    private final List<PluginInstance> loadOrder = new ArrayList<>();
+    private final Map<String, String> unresolved = new LinkedHashMap<>();
+    private final Set<String> cyclic = new LinkedHashSet<>();
+
+    public PluginDependencyGraph(Collection<PluginInstance> plugins) {
+        final Map<String, PluginInstance> byName = new LinkedHashMap<>();
+        for(final PluginInstance plugin : plugins) { byName.put(plugin.getPluginName(), plugin); }
+
+        final Map<PluginInstance, List<PluginInstance>> dependents = new HashMap<>();
+        final Map<PluginInstance, Integer> remaining = new LinkedHashMap<>();
+        for(final PluginInstance plugin : byName.values()) {
+            final List<PluginInstance> pluginDependencies = new ArrayList<>();
+            for(final String name : plugin.getDependencies()) {
+                final PluginInstance dependency = byName.get(name);
+                if(dependency == null) {
+                    unresolved.putIfAbsent(plugin.getPluginName(), "Missing dependency " + PluginManager.quoteString(name) + "!");
+                } else {
+                    pluginDependencies.add(dependency);
+                    dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(plugin);
+                }
+            }
+            dependencies.put(plugin, pluginDependencies);
+            remaining.put(plugin, pluginDependencies.size());
+        }
+
+        //Kahn's algorithm, a plugin is ready once all of its dependencies are in the order
+        final Deque<PluginInstance> ready = new ArrayDeque<>();
+        for(final Map.Entry<PluginInstance, Integer> entry : remaining.entrySet()) {
+            if(entry.getValue() == 0) ready.add(entry.getKey());
+        }
+        while(!ready.isEmpty()) {
+            final PluginInstance plugin = ready.poll();
+            remaining.remove(plugin);
+            if(!unresolved.containsKey(plugin.getPluginName())) loadOrder.add(plugin);
+
+            for(final PluginInstance dependent : dependents.getOrDefault(plugin, Collections.emptyList())) {
+                if(unresolved.containsKey(plugin.getPluginName())) {
+                    unresolved.putIfAbsent(dependent.getPluginName(), "Dependency "
+                            + PluginManager.quoteString(plugin.getPluginName()) + " can not be loaded!");
+                }
+                if(remaining.merge(dependent, -1, Integer::sum) == 0) ready.add(dependent);
+            }
+        }
+
+        //Whatever is left is either part of a cycle or depends on one
+        for(final PluginInstance plugin : remaining.keySet()) { cyclic.add(plugin.getPluginName()); }
+        for(final PluginInstance plugin : remaining.keySet()) {
+            unresolved.putIfAbsent(plugin.getPluginName(), "Dependency cycle between " + String.join(", ", cyclic) + "!");
+        }
+    }
+
+    /** Returns all resolvable plugins, every plugin comes after the plugins it depends on. */
+    public List<PluginInstance> getLoadOrder() { return Collections.unmodifiableList(loadOrder); }
+
+    public List<PluginInstance> getDependencies(PluginInstance plugin) {
+        return Collections.unmodifiableList(dependencies.getOrDefault(plugin, Collections.emptyList()));
+    }
+
+    /** Returns the names of the plugins that can not be loaded and the reason why. */
+    public Map<String, String> getUnresolved() { return Collections.unmodifiableMap(unresolved); }
+
+    public boolean hasCycle() { return !cyclic.isEmpty(); }
+
+    /** Returns the names of the plugins that are part of a cycle or depend on one. */
+    public Set<String> getCyclicPlugins() { return Collections.unmodifiableSet(cyclic); }
+}
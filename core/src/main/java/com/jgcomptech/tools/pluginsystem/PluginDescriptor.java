@@ -0,0 +1,64 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Reads plugin metadata without creating the plugin, either from a descriptor at
+ * {@code META-INF/plugins/<class name>.properties} or from {@code Plugin-*} manifest attributes.
+ */
+final class PluginDescriptor {
+    static final String DESCRIPTOR_PATH = "META-INF/plugins/";
+
+    private PluginDescriptor() { /*Exists only to defeat instantiation.*/ }
+
+    static String getDescriptorName(String className) { return DESCRIPTOR_PATH + className + ".properties"; }
+
+    /** Returns the values of the descriptor of the plugin class or null if the jar does not contain one. */
+    static Map<String, String> readValues(PluginJarFile jar, String className) throws IOException {
+        final byte[] bytes = jar.getEntryBytes(getDescriptorName(className));
+        return bytes == null ? null : readValues(new ByteArrayInputStream(bytes));
+    }
+
+    static PluginInfo read(InputStream in) throws IOException { return fromValues(readValues(in)); }
+
+    private static Map<String, String> readValues(InputStream in) throws IOException {
+        final Properties properties = new Properties();
+        try(InputStream stream = in) {
+            properties.load(stream);
+        }
+        final Map<String, String> result = new LinkedHashMap<>();
+        for(final String key : properties.stringPropertyNames()) { result.put(key, properties.getProperty(key)); }
+        return result;
+    }
+
+    static PluginInfo fromValues(Map<String, String> values) {
+        return create(values.get("name"), values.get("version"), values.get("type"),
+                values.get("author"), values.get("company"), values.get("license"));
+    }
+
+    /** The manifest only describes a jar, so it is only used if the jar contains a single plugin. */
+    static PluginInfo fromManifest(Map<String, String> manifest) {
+        return create(manifest.get("Plugin-Name"), manifest.get("Plugin-Version"), manifest.get("Plugin-Type"),
+                manifest.get("Plugin-Author"), manifest.get("Plugin-Company"), manifest.get("Plugin-License"));
+    }
+
+    private static PluginInfo create(String name, String version, String type, String author,
+                                     String company, String license) {
+        //Without a name the plugin can not be registered, so the plugin has to be created to ask for it
+        if(name == null || name.isEmpty()) return null;
+
+        final PluginInfo info = new PluginInfo();
+        info.setName(name);
+        if(version != null) info.setVersion(version);
+        if(type != null) info.setType(type);
+        if(author != null) info.setAuthor(author);
+        if(company != null) info.setCompany(company);
+        if(license != null) info.setLicense(license);
+        return info;
+    }
+}
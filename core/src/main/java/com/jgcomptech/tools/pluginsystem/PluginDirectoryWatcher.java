@@ -0,0 +1,141 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the plugins directory and keeps the pool in sync with the jars in it. New jars are loaded, changed jars
+ * are reloaded through a fresh class loader and the plugins of removed jars are unloaded. Only the plugins of the
+ * affected jar are touched. Changes are debounced so a jar that is still being copied is only loaded once.
+ * Jars written by {@link PluginManager#updatePluginAsync(String)} are not reloaded a second time.
+ * A jar that fails to reload is reported to the error reporter of the {@link PluginManager} and the watcher keeps running.
+ */
+public class PluginDirectoryWatcher implements Closeable {
+    private final Path directory;
+    private final long debounceNanos;
+    //Pending jars and the time of their last change, only accessed by the watcher thread
+    private final Map<Path, Long> pending = new LinkedHashMap<>();
+    private volatile BiConsumer<File, PluginDiscoveryResult> reloadListener;
+    private volatile WatchService watchService;
+    private volatile Thread thread;
+
+    public PluginDirectoryWatcher(String directory) { this(directory, 500, TimeUnit.MILLISECONDS); }
+
+    public PluginDirectoryWatcher(String directory, long debounce, TimeUnit unit) {
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.debounceNanos = unit.toNanos(debounce);
+    }
+
+    public Path getDirectory() { return directory; }
+
+    /**
+     * Called on the watcher thread with the jar and the outcome every time a jar was reloaded or unloaded,
+     * the errors of the outcome are then left to the listener.
+     */
+    public void setReloadListener(BiConsumer<File, PluginDiscoveryResult> listener) { reloadListener = listener; }
+
+    public synchronized void start() throws IOException {
+        if(thread != null) throw new IllegalStateException("Watcher already started!");
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+
+        thread = new Thread(this::run, "PluginDirectoryWatcher");
+        thread.setDaemon(true);
+        PluginManager.getInstance().addWatcher(this);
+        thread.start();
+    }
+
+    public boolean isRunning() { return thread != null && thread.isAlive(); }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if(thread == null) return;
+        thread.interrupt();
+        watchService.close();
+        thread = null;
+        PluginManager.getInstance().removeWatcher(this);
+    }
+
+    private void run() {
+        try {
+            while(!Thread.currentThread().isInterrupted()) {
+                final WatchKey key = pending.isEmpty() ? watchService.take()
+                        : watchService.poll(nextDeadline() - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if(key != null) {
+                    for(final WatchEvent<?> event : key.pollEvents()) {
+                        if(event.kind() == OVERFLOW) markAll();
+                        else {
+                            final Path file = directory.resolve((Path) event.context());
+                            if(file.getFileName().toString().endsWith(".jar")) pending.put(file, System.nanoTime());
+                        }
+                    }
+                    //The directory itself is gone, nothing more will be reported
+                    if(!key.reset()) return;
+                }
+                reloadSettled();
+            }
+        } catch(InterruptedException | ClosedWatchServiceException e) {
+            //Closed, stop watching
+        }
+    }
+
+    private long nextDeadline() {
+        long result = Long.MAX_VALUE;
+        for(final long changed : pending.values()) { result = Math.min(result, changed + debounceNanos); }
+        return result;
+    }
+
+    private void reloadSettled() {
+        final long now = System.nanoTime();
+        final Iterator<Map.Entry<Path, Long>> iterator = pending.entrySet().iterator();
+        while(iterator.hasNext()) {
+            final Map.Entry<Path, Long> entry = iterator.next();
+            if(now - entry.getValue() < debounceNanos) continue;
+            iterator.remove();
+            //The update already reloaded the jar it downloaded
+            if(PluginManager.getInstance().isOwnUpdate(entry.getKey())) continue;
+
+            final File jar = entry.getKey().toFile();
+            final PluginErrorReporter errors = PluginManager.getInstance().beginErrorBatch();
+            //A failing reload or listener must not stop the watcher, the next change of the jar is tried again
+            try {
+                final PluginDiscoveryResult result = PluginManager.PluginLoader.getInstance().reloadExternalPlugins(jar);
+                final BiConsumer<File, PluginDiscoveryResult> listener = reloadListener;
+                if(listener != null) listener.accept(jar, result);
+                else {
+                    for(final Throwable error : result.getErrors().values()) { reportError(jar, error); }
+                }
+            } catch(RuntimeException | LinkageError e) {
+                reportError(jar, e);
+            } finally {
+                errors.endBatch();
+            }
+        }
+    }
+
+    private static void reportError(File jar, Throwable error) {
+        final PluginManager manager = PluginManager.getInstance();
+        manager.reportError(null, manager.getErrorTitle(),
+                PluginManager.quoteString(jar.getName()) + " could not be reloaded!", PluginManager.generateErrorString(error));
+    }
+
+    //Events were lost, so every jar on disk and every jar a plugin was loaded from has to be checked
+    private void markAll() {
+        final long now = System.nanoTime();
+        final File[] files = directory.toFile().listFiles((dir, name) -> name.endsWith(".jar"));
+        if(files != null) {
+            for(final File file : files) { pending.put(file.toPath().toAbsolutePath(), now); }
+        }
+        for(final PluginInstance plugin : PluginManager.PluginPool.getInstance().getPlugins()) {
+            final File source = plugin.getSourceFile();
+            if(source != null && directory.equals(source.toPath().getParent())) pending.put(source.toPath(), now);
+        }
+    }
+}
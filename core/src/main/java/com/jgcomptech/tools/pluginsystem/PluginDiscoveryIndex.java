@@ -0,0 +1,253 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.io.*;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+
+/**
+ * On-disk cache of what was discovered in each plugin jar, so unchanged jars do not have to be scanned again.
+ * The index is rewritten through a temporary file and an atomic rename, a crash mid-write leaves the old file intact.
+ */
+final class PluginDiscoveryIndex {
+    static final String INDEX_FILE_NAME = "plugin-index.properties";
+    private static final String INDEX_VERSION = "3";
+
+    private final Path indexFile;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean isModified = false;
+
+    private PluginDiscoveryIndex(Path indexFile) { this.indexFile = indexFile; }
+
+    /** Loads the index of the directory, a missing or unreadable index file results in an empty index. */
+    static PluginDiscoveryIndex load(String directory) {
+        final PluginDiscoveryIndex index = new PluginDiscoveryIndex(Paths.get(directory, INDEX_FILE_NAME));
+        if(!Files.isRegularFile(index.indexFile)) return index;
+
+        final Properties properties = new Properties();
+        try(InputStream in = Files.newInputStream(index.indexFile)) {
+            properties.load(in);
+        } catch(IOException | IllegalArgumentException e) {
+            return index;
+        }
+        if(!INDEX_VERSION.equals(properties.getProperty("version"))) return index;
+
+        try {
+            final int count = Integer.parseInt(properties.getProperty("jar.count", "0"));
+            //Groups the keys by entry in one pass, so loading stays linear in the number of jars
+            final Map<Integer, Map<String, String>> grouped = new HashMap<>();
+            for(final String key : properties.stringPropertyNames()) {
+                final int end = key.indexOf('.', 4);
+                if(!key.startsWith("jar.") || end < 0) continue;
+                grouped.computeIfAbsent(Integer.parseInt(key.substring(4, end)), k -> new HashMap<>())
+                        .put(key.substring(end + 1), properties.getProperty(key));
+            }
+            for(int i = 0; i < count; i++) {
+                final Map<String, String> values = grouped.get(i);
+                final Entry entry = values == null ? null : Entry.read(values);
+                if(entry != null) index.entries.put(entry.path, entry);
+            }
+        } catch(IllegalArgumentException e) {
+            //Also covers malformed numbers and unknown stage names, the jars are simply scanned again
+            index.entries.clear();
+        }
+        return index;
+    }
+
+    /**
+     * Returns the cached entry of the jar if its size and modification time did not change since it was indexed,
+     * the jar itself is not read.
+     */
+    Entry getUnchanged(File file) {
+        final Entry entry = entries.get(file.getAbsolutePath());
+        return entry != null && entry.size == file.length() && entry.modified == file.lastModified() ? entry : null;
+    }
+
+    /** Returns the cached entry of a jar that was touched or copied without changing its contents, if any. */
+    Entry getTouched(PluginJarFile jar) throws IOException {
+        final File file = jar.getFile();
+        final Entry entry = entries.get(file.getAbsolutePath());
+        if(entry == null || entry.size != file.length()) return null;
+
+        //Keep the entry but remember the new time, the next start does not have to hash the jar again
+        if(entry.sha256.equals(hash(jar))) {
+            final Entry touched = new Entry(entry.path, entry.size, file.lastModified(), entry.sha256,
+                    entry.classNames, entry.stages, entry.dependencies, entry.manifest, entry.descriptors);
+            put(touched);
+            return touched;
+        }
+        return null;
+    }
+
+    void put(Entry entry) {
+        entries.put(entry.path, entry);
+        isModified = true;
+    }
+
+    boolean isModified() { return isModified; }
+
+    /** Drops the entries of all jars that are not in the specified list anymore. */
+    void retain(File[] jars) {
+        final Set<String> paths = new HashSet<>(jars.length);
+        for(final File jar : jars) { paths.add(jar.getAbsolutePath()); }
+        if(entries.keySet().retainAll(paths)) isModified = true;
+    }
+
+    void save() throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty("version", INDEX_VERSION);
+        final List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort(Comparator.comparing(e -> e.path));
+        properties.setProperty("jar.count", String.valueOf(sorted.size()));
+        for(int i = 0; i < sorted.size(); i++) { sorted.get(i).write(properties, "jar." + i + "."); }
+
+        final Path tempFile = Files.createTempFile(indexFile.getParent(), INDEX_FILE_NAME, ".tmp");
+        try {
+            try(FileOutputStream out = new FileOutputStream(tempFile.toFile())) {
+                properties.store(out, "Plugin discovery index");
+                //Make sure the data is on disk before the rename makes it visible
+                out.getFD().sync();
+            }
+            try {
+                Files.move(tempFile, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch(AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            isModified = false;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    static String hash(PluginJarFile jar) throws IOException {
+        final MessageDigest digest = newDigest();
+        jar.updateDigest(digest);
+        return toHex(digest.digest());
+    }
+
+    static String toHex(byte[] bytes) {
+        final StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for(final byte b : bytes) { builder.append(String.format("%02x", b)); }
+        return builder.toString();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch(NoSuchAlgorithmException e) {
+            //Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static final class Entry {
+        final String path;
+        final long size;
+        final long modified;
+        final String sha256;
+        final List<String> classNames;
+        final Map<String, EnumSet<LoadStageType>> stages;
+        final Map<String, Set<String>> dependencies;
+        final Map<String, String> manifest;
+        //The plugin descriptors of the jar by plugin class name, so lazy plugins are found without opening the jar
+        final Map<String, Map<String, String>> descriptors;
+
+        Entry(String path, long size, long modified, String sha256, List<String> classNames,
+              Map<String, EnumSet<LoadStageType>> stages, Map<String, Set<String>> dependencies,
+              Map<String, String> manifest, Map<String, Map<String, String>> descriptors) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+            this.sha256 = sha256;
+            this.classNames = Collections.unmodifiableList(new ArrayList<>(classNames));
+            this.stages = Collections.unmodifiableMap(new LinkedHashMap<>(stages));
+            this.dependencies = Collections.unmodifiableMap(new LinkedHashMap<>(dependencies));
+            this.manifest = Collections.unmodifiableMap(new LinkedHashMap<>(manifest));
+            this.descriptors = Collections.unmodifiableMap(new LinkedHashMap<>(descriptors));
+        }
+
+        static Map<String, String> readManifest(Manifest manifest) {
+            final Map<String, String> result = new LinkedHashMap<>();
+            if(manifest != null) {
+                for(final Map.Entry<Object, Object> attribute : manifest.getMainAttributes().entrySet()) {
+                    result.put(((Attributes.Name) attribute.getKey()).toString(), (String) attribute.getValue());
+                }
+            }
+            return result;
+        }
+
+        private void write(Properties properties, String prefix) {
+            properties.setProperty(prefix + "path", path);
+            properties.setProperty(prefix + "size", String.valueOf(size));
+            properties.setProperty(prefix + "modified", String.valueOf(modified));
+            properties.setProperty(prefix + "sha256", sha256);
+            properties.setProperty(prefix + "classes", String.join(",", classNames));
+            for(final Map.Entry<String, EnumSet<LoadStageType>> stage : stages.entrySet()) {
+                final StringJoiner joiner = new StringJoiner(",");
+                for(final LoadStageType type : stage.getValue()) { joiner.add(type.name()); }
+                properties.setProperty(prefix + "stages." + stage.getKey(), joiner.toString());
+            }
+            for(final Map.Entry<String, Set<String>> dependency : dependencies.entrySet()) {
+                properties.setProperty(prefix + "dependencies." + dependency.getKey(),
+                        String.join(",", dependency.getValue()));
+            }
+            for(final Map.Entry<String, String> attribute : manifest.entrySet()) {
+                properties.setProperty(prefix + "manifest." + attribute.getKey(), attribute.getValue());
+            }
+            for(final Map.Entry<String, Map<String, String>> descriptor : descriptors.entrySet()) {
+                for(final Map.Entry<String, String> value : descriptor.getValue().entrySet()) {
+                    properties.setProperty(prefix + "descriptor." + descriptor.getKey() + "." + value.getKey(),
+                            value.getValue());
+                }
+            }
+        }
+
+        /** Reads an entry from its values, keyed without the prefix of the entry. */
+        private static Entry read(Map<String, String> values) {
+            final String path = values.get("path");
+            final String sha256 = values.get("sha256");
+            if(path == null || sha256 == null) return null;
+
+            final String classes = values.getOrDefault("classes", "");
+            final List<String> classNames = classes.isEmpty()
+                    ? Collections.emptyList() : Arrays.asList(classes.split(","));
+
+            final Map<String, EnumSet<LoadStageType>> stages = new LinkedHashMap<>();
+            final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+            final Map<String, String> manifest = new LinkedHashMap<>();
+            final Map<String, Map<String, String>> descriptors = new LinkedHashMap<>();
+            for(final Map.Entry<String, String> value : values.entrySet()) {
+                final String key = value.getKey();
+                if(key.startsWith("stages.")) {
+                    final EnumSet<LoadStageType> types = EnumSet.noneOf(LoadStageType.class);
+                    for(final String type : value.getValue().split(",")) {
+                        if(!type.isEmpty()) types.add(LoadStageType.valueOf(type));
+                    }
+                    stages.put(key.substring(7), types);
+                } else if(key.startsWith("dependencies.")) {
+                    dependencies.put(key.substring(13), PluginInstance.splitDependencies(value.getValue()));
+                } else if(key.startsWith("manifest.")) {
+                    manifest.put(key.substring(9), value.getValue());
+                } else if(key.startsWith("descriptor.")) {
+                    //Class names contain dots, descriptor keys do not
+                    final String name = key.substring(11);
+                    final int index = name.lastIndexOf('.');
+                    descriptors.computeIfAbsent(name.substring(0, index), k -> new LinkedHashMap<>())
+                            .put(name.substring(index + 1), value.getValue());
+                }
+            }
+
+            try {
+                return new Entry(path, Long.parseLong(values.get("size")),
+                        Long.parseLong(values.get("modified")), sha256,
+                        classNames, stages, dependencies, manifest, descriptors);
+            } catch(NumberFormatException | NullPointerException e) {
+                return null;
+            }
+        }
+    }
+}
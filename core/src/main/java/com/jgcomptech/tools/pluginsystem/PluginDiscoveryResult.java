@@ -0,0 +1,45 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.util.*;
+
+public class PluginDiscoveryResult {
+    private final List<PluginInstance> plugins = new ArrayList<>();
+    private final Map<String, Throwable> errors = new LinkedHashMap<>();
+    private int classesScanned = 0;
+    private int classesLoaded = 0;
+    private long metaspaceUsed = 0;
+
+    PluginDiscoveryResult() { /*Exists only to defeat instantiation.*/ }
+
+    void addPlugins(Collection<PluginInstance> value, int scanned, int loaded) {
+        plugins.addAll(value);
+        classesScanned += scanned;
+        classesLoaded += loaded;
+    }
+    void addError(String jarPath, Throwable error) { errors.put(jarPath, error); }
+
+    /** Returns a copy with the same numbers and errors that does not hold on to the plugins. */
+    PluginDiscoveryResult withoutPlugins() {
+        final PluginDiscoveryResult result = new PluginDiscoveryResult();
+        result.errors.putAll(errors);
+        result.classesScanned = classesScanned;
+        result.classesLoaded = classesLoaded;
+        result.metaspaceUsed = metaspaceUsed;
+        return result;
+    }
+
+    public List<PluginInstance> getPlugins() { return Collections.unmodifiableList(plugins); }
+    public Map<String, Throwable> getErrors() { return Collections.unmodifiableMap(errors); }
+    public boolean hasErrors() { return !errors.isEmpty(); }
+
+    /** Number of class files whose headers were read while scanning. */
+    public int getClassesScanned() { return classesScanned; }
+    /**
+     * Number of classes the plugin class loaders defined while scanning, the plugin classes and whatever they
+     * needed to be created. Plugins taken from the index without being created load none.
+     */
+    public int getClassesLoaded() { return classesLoaded; }
+    /** Growth of the metaspace pool in bytes while scanning, zero if the JVM has no metaspace pool. */
+    public long getMetaspaceUsed() { return metaspaceUsed; }
+    void setMetaspaceUsed(long value) { metaspaceUsed = value; }
+}
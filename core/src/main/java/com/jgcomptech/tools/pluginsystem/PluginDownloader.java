@@ -0,0 +1,148 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Downloads plugin jars through a fixed size buffer into a {@code .part} file next to the target.
+ * An interrupted download is resumed with a range request, a range that does not continue the {@code .part} file
+ * starts the download over. The file is checked against the SHA-256 published in a {@code .sha256} file next to
+ * the jar and only then renamed to the target.
+ */
+final class PluginDownloader {
+    static final String PART_SUFFIX = ".part";
+    static final String CHECKSUM_SUFFIX = ".sha256";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int TIMEOUT_MILLIS = 30000;
+
+    private PluginDownloader() { /*Exists only to defeat instantiation.*/ }
+
+    static void download(URL url, Path target) throws IOException {
+        final String expected = readChecksum(new URL(url.toString() + CHECKSUM_SUFFIX));
+        final Path partFile = target.resolveSibling(target.getFileName() + PART_SUFFIX);
+        final MessageDigest digest = newDigest();
+
+        final long offset = Files.isRegularFile(partFile) ? Files.size(partFile) : 0;
+        //A range that does not continue the part file can not be appended, the whole jar is fetched again
+        if(!transfer(url, partFile, offset, digest)) transfer(url, partFile, 0, digest);
+
+        final String actual = PluginDiscoveryIndex.toHex(digest.digest());
+        if(!actual.equalsIgnoreCase(expected)) {
+            //A corrupt part file must not be resumed
+            Files.deleteIfExists(partFile);
+            throw new IOException("Checksum mismatch for " + url + ", expected " + expected + " but was " + actual + "!");
+        }
+
+        try {
+            Files.move(partFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch(AtomicMoveNotSupportedException e) {
+            Files.move(partFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes the jar to the part file, continuing at the offset if the server sends that range.
+     * Returns false without writing anything if the server sent a range that starts somewhere else.
+     */
+    private static boolean transfer(URL url, Path partFile, long offset, MessageDigest digest) throws IOException {
+        final URLConnection connection = open(url);
+        if(offset > 0 && connection instanceof HttpURLConnection) {
+            connection.setRequestProperty("Range", "bytes=" + offset + "-");
+        }
+
+        try {
+            final int status = connection instanceof HttpURLConnection
+                    ? ((HttpURLConnection) connection).getResponseCode() : HttpURLConnection.HTTP_OK;
+            if(status == 416) {
+                //The part file already holds the whole jar, or more than the server has, start over next time
+                Files.deleteIfExists(partFile);
+                throw new IOException("Invalid partial download of " + url + "!");
+            }
+            if(status != HttpURLConnection.HTTP_OK && status != HttpURLConnection.HTTP_PARTIAL) {
+                throw new IOException("Download of " + url + " failed with HTTP status " + status + "!");
+            }
+
+            //Servers that ignore the range send the whole file again
+            final boolean resume = offset > 0 && status == HttpURLConnection.HTTP_PARTIAL;
+            if(resume) {
+                if(getRangeStart(connection.getHeaderField("Content-Range")) != offset) {
+                    Files.deleteIfExists(partFile);
+                    return false;
+                }
+                try(InputStream in = Files.newInputStream(partFile)) { update(digest, in); }
+            }
+
+            try(InputStream in = new DigestInputStream(connection.getInputStream(), digest);
+                OutputStream out = resume
+                        ? Files.newOutputStream(partFile, StandardOpenOption.APPEND)
+                        : Files.newOutputStream(partFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while((read = in.read(buffer)) != -1) { out.write(buffer, 0, read); }
+            }
+            return true;
+        } finally {
+            if(connection instanceof HttpURLConnection) ((HttpURLConnection) connection).disconnect();
+        }
+    }
+
+    /** Returns the first byte of a {@code Content-Range} header like {@code bytes 100-199/200}, or -1 if it is missing or invalid. */
+    static long getRangeStart(String contentRange) {
+        if(contentRange == null) return -1;
+        final String range = contentRange.trim();
+        if(!range.startsWith("bytes ")) return -1;
+        final int dash = range.indexOf('-');
+        if(dash < 0) return -1;
+        try {
+            return Long.parseLong(range.substring("bytes ".length(), dash).trim());
+        } catch(NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /** Reads the first token of the checksum file, the format written by sha256sum. */
+    private static String readChecksum(URL url) throws IOException {
+        final URLConnection connection = open(url);
+        try(BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII))) {
+            final String line = reader.readLine();
+            final String checksum = line == null ? "" : line.trim().split("\\s+")[0];
+            if(!checksum.matches("[0-9a-fA-F]{64}")) throw new IOException("Invalid checksum file " + url + "!");
+            return checksum;
+        } catch(FileNotFoundException e) {
+            throw new IOException("Checksum file " + url + " not found!", e);
+        } finally {
+            if(connection instanceof HttpURLConnection) ((HttpURLConnection) connection).disconnect();
+        }
+    }
+
+    private static URLConnection open(URL url) throws IOException {
+        final URLConnection connection = url.openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        connection.setUseCaches(false);
+        return connection;
+    }
+
+    private static void update(MessageDigest digest, InputStream in) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while((read = in.read(buffer)) != -1) { digest.update(buffer, 0, read); }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch(NoSuchAlgorithmException e) {
+            //Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.jgcomptech.tools.pluginsystem;
+
+/** An error the plugin system ran into, handed to the {@link PluginErrorReporter} of the {@link PluginManager}. */
+public class PluginError {
+    private final String pluginName;
+    private final String title;
+    private final String headerText;
+    private final String message;
+
+    public PluginError(String pluginName, String title, String headerText, String message) {
+        this.pluginName = pluginName;
+        this.title = title;
+        this.headerText = headerText;
+        this.message = message;
+    }
+
+    /** Returns the name of the plugin the error belongs to or null if it is not known. */
+    public String getPluginName() { return pluginName; }
+    public String getTitle() { return title; }
+    /** Returns the short summary of the error or null if there is none. */
+    public String getHeaderText() { return headerText; }
+    public String getMessage() { return message; }
+
+    @Override
+    public String toString() {
+        final StringBuilder result = new StringBuilder();
+        if(title != null && !title.isEmpty()) result.append(title).append(": ");
+        if(headerText != null) result.append(headerText).append(' ');
+        return result.append(message).toString();
+    }
+}
@@ -0,0 +1,15 @@
+package com.jgcomptech.tools.pluginsystem;
+
+/** Thrown by {@link PluginErrorReporter#throwing()} in place of reporting the error. */
+public class PluginErrorException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient PluginError error;
+
+    public PluginErrorException(PluginError error) {
+        super(error.toString());
+        this.error = error;
+    }
+
+    public PluginError getError() { return error; }
+}
@@ -0,0 +1,35 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.util.*;
+
+/** The errors of one load batch, gathered by the {@link AsyncPluginErrorReporter}. */
+public class PluginErrorReport {
+    private final List<PluginError> errors;
+    private final long createTimeMillis = System.currentTimeMillis();
+
+    PluginErrorReport(List<PluginError> errors) { this.errors = Collections.unmodifiableList(new ArrayList<>(errors)); }
+
+    public List<PluginError> getErrors() { return errors; }
+    public int getErrorCount() { return errors.size(); }
+
+    /** Returns the names of the plugins with errors, errors without a plugin name are left out. */
+    public Set<String> getPluginNames() {
+        final Set<String> result = new TreeSet<>();
+        for(final PluginError error : errors) {
+            if(error.getPluginName() != null) result.add(error.getPluginName());
+        }
+        return result;
+    }
+
+    /** Wall clock time the report was put together in milliseconds since the epoch. */
+    public long getCreateTime() { return createTimeMillis; }
+
+    @Override
+    public String toString() {
+        final String separator = System.getProperty("line.separator");
+        final StringBuilder result = new StringBuilder();
+        result.append(errors.size()).append(errors.size() == 1 ? " plugin error" : " plugin errors");
+        for(final PluginError error : errors) { result.append(separator).append("  ").append(error); }
+        return result.toString();
+    }
+}
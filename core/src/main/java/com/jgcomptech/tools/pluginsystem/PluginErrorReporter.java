@@ -0,0 +1,38 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Receives the errors of the plugin system, set it with {@link PluginManager#setErrorReporter}.
+ * Reporters are called from lifecycle code and must not wait for anything, least of all a user.
+ */
+@FunctionalInterface
+public interface PluginErrorReporter {
+    /** Called on the thread that ran into the error. */
+    void report(PluginError error);
+
+    /** Hands on the errors gathered so far, reporters that do not gather errors have nothing to do. */
+    default void flush() { }
+
+    /** Called before a load batch starts, batches may nest and run on several threads at once. */
+    default void beginBatch() { }
+
+    /** Called when a load batch finished, reporters that gather errors hand them on now. */
+    default void endBatch() { flush(); }
+
+    /** Gathers the errors of each load batch and hands them to the handler on a background thread, the default. */
+    static PluginErrorReporter async(Consumer<PluginErrorReport> handler) { return new AsyncPluginErrorReporter(handler); }
+
+    /** Prints every error to the standard error stream right away. */
+    static PluginErrorReporter standardError() { return error -> System.err.println(error); }
+
+    /** Logs every error with the severe level. */
+    static PluginErrorReporter logging(Logger logger) { return error -> logger.log(Level.SEVERE, error.toString()); }
+
+    /** Throws every error as a {@link PluginErrorException}, for headless runs and tests that have to fail fast. */
+    static PluginErrorReporter throwing() {
+        return error -> { throw new PluginErrorException(error); };
+    }
+}
@@ -0,0 +1,35 @@
+package com.jgcomptech.tools.pluginsystem;
+
+/**
+ * Metadata a plugin reports about itself. The plugin manager keeps a {@link PluginMetadata} copy of it,
+ * changes only become visible after {@link PluginManager#refreshPluginInfo(String)}.
+ */
+public class PluginInfo {
+    private volatile String name = "";
+    private volatile String version = "";
+    private volatile String type = "";
+    private volatile String author = "";
+    private volatile String company = "";
+    private volatile String license = "";
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getVersion() { return version; }
+    public void setVersion(String version) { this.version = version; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+
+    public String getCompany() { return company; }
+    public void setCompany(String company) { this.company = company; }
+
+    public String getLicense() { return license; }
+    public void setLicense(String license) { this.license = license; }
+
+    @Override
+    public String toString() { return (name + " " + version + ", by " + company); }
+}
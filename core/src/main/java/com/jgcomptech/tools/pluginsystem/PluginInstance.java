@@ -0,0 +1,300 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import com.jgcomptech.tools.pluginsystem.jfr.PluginFlightRecorder;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+public class PluginInstance {
+    private volatile IPlugin plugin;
+    //Only set for lazy instances, the plugin is created from the factory on first use
+    private final Callable<IPlugin> pluginFactory;
+    private final ClassLoader pluginClassLoader;
+    private final PluginInfo pluginInfo;
+    private volatile PluginMetadata metadata;
+    private final HashSet<LoadStageType> stages = new HashSet<>();
+    private final Set<String> dependencies = new LinkedHashSet<>();
+    private volatile File sourceFile;
+    private volatile boolean isPaneLoaded = false;
+    private final AtomicReference<PluginState> state = new AtomicReference<>(PluginState.LOADED);
+    //Number of running calls, bit 30 is set once the instance was replaced, bit 31 is the sign bit and stays clear
+    private final AtomicInteger inFlightCalls = new AtomicInteger();
+    private static final int RETIRED = 1 << 30;
+    //Set once the instance was replaced, completes when the last in-flight call returned
+    private volatile CompletableFuture<Void> drained;
+
+    private PluginInstance() { this(null, null, null, null, null, null); }
+
+    public PluginInstance(IPlugin plugin) { this(plugin, null, null, null, null, null); }
+
+    /**
+     * Creates a lazy instance that only knows the metadata and the stages of the plugin,
+     * the plugin itself is not created until a stage is loaded or it is called.
+     */
+    PluginInstance(Callable<IPlugin> pluginFactory, ClassLoader pluginClassLoader, PluginInfo pluginInfo,
+                   Collection<LoadStageType> stages, Collection<String> dependencies) {
+        this(null, pluginFactory, pluginClassLoader, pluginInfo, stages, dependencies);
+    }
+
+    private PluginInstance(IPlugin plugin, Callable<IPlugin> pluginFactory, ClassLoader pluginClassLoader,
+                           PluginInfo pluginInfo, Collection<LoadStageType> stages, Collection<String> dependencies) {
+        this.plugin = plugin;
+        this.pluginFactory = pluginFactory;
+        this.pluginClassLoader = pluginClassLoader;
+        this.pluginInfo = pluginInfo;
+        if(stages != null) this.stages.addAll(stages);
+        if(dependencies != null) this.dependencies.addAll(dependencies);
+    }
+
+    void setPlugin(IPlugin plugin) { this.plugin = plugin; }
+
+    IPlugin getPlugin() {
+        IPlugin result = plugin;
+        if(result == null) {
+            synchronized(this) {
+                result = plugin;
+                if(result == null) {
+                    final long start = PluginMetrics.getInstance().start();
+                    try {
+                        result = pluginFactory.call();
+                    } catch(Exception e) {
+                        PluginMetrics.getInstance().record(getPluginName(), PluginMetrics.Phase.INSTANTIATION, start, false);
+                        throw new IllegalStateException("Plugin " + quoteName() + " could not be created!", e);
+                    }
+                    PluginMetrics.getInstance().record(getPluginName(), PluginMetrics.Phase.INSTANTIATION, start, true);
+                    plugin = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Returns true if the plugin object exists, lazy instances only create it on first use. */
+    public boolean isInstantiated() { return plugin != null; }
+    public boolean isLazy() { return pluginFactory != null; }
+
+    private String quoteName() { return PluginManager.quoteString(pluginInfo == null ? "" : pluginInfo.getName()); }
+
+    public PluginInfo getPluginInfo() { return pluginInfo != null ? pluginInfo : getPlugin().getPluginInfo(); }
+
+    /** Returns the metadata captured when the plugin was loaded, see {@link #refreshMetadata()}. */
+    public PluginMetadata getMetadata() {
+        final PluginMetadata result = metadata;
+        //Captured on first use for instances that are asked before they are loaded, racing captures are equal
+        return result != null ? result : refreshMetadata();
+    }
+
+    /** Captures the info of the plugin again, see {@link PluginManager#refreshPluginInfo(String)} for pooled plugins. */
+    PluginMetadata refreshMetadata() {
+        final PluginMetadata result = PluginMetadata.of(getPluginInfo());
+        metadata = result;
+        return result;
+    }
+    void setMetadata(PluginMetadata value) { metadata = value; }
+
+    public String getPluginName() { return getMetadata().getName(); }
+    public String getPluginVersion() { return getMetadata().getVersion(); }
+    public String getPluginType() { return getMetadata().getType(); }
+    public String getPluginAuthor() { return getMetadata().getAuthor(); }
+    public String getPluginCompany() { return getMetadata().getCompany(); }
+    public String getPluginLicense() { return getMetadata().getLicense(); }
+
+    /** Returns the class loader of the jar the plugin was loaded from or null if it is not an external plugin. */
+    public PluginClassLoader getPluginClassLoader() {
+        final ClassLoader loader = isLazy() ? pluginClassLoader : plugin.getClass().getClassLoader();
+        return loader instanceof PluginClassLoader ? (PluginClassLoader) loader : null;
+    }
+
+    /** Returns the jar the plugin was loaded from or null if it is not an external plugin. */
+    public File getSourceFile() { return sourceFile; }
+    void setSourceFile(File value) { sourceFile = value; }
+
+    public HashSet<LoadStageType> getStages() { return stages; }
+    public boolean doesContainStage(LoadStageType type) { return stages.contains(type); }
+
+    /** Returns the names of the plugins this plugin depends on. */
+    public Set<String> getDependencies() { return Collections.unmodifiableSet(dependencies); }
+    void addDependencies(Collection<String> value) { dependencies.addAll(value); }
+
+    public boolean loadStage(LoadStageType type) {
+        final long start = PluginMetrics.getInstance().start();
+        final Object flightEvent = PluginFlightRecorder.beginLoadStage();
+        boolean result = false;
+        try {
+            result = runStage(type);
+            return result;
+        } finally {
+            PluginMetrics.getInstance().record(getPluginName(), PluginMetrics.Phase.of(type), start, result);
+            PluginFlightRecorder.endLoadStage(flightEvent, getPluginName(), type, result);
+        }
+    }
+
+    private boolean runStage(LoadStageType type) {
+        return call(p -> {
+            switch(type) {
+                case PRE_LOAD:
+                    return p.loadPreStage();
+                case NORMAL_LOAD:
+                    return p.loadNormalStage();
+                case POST_LOAD:
+                    return p.loadPostStage();
+                //This should never happen
+                default: throw new IllegalStateException("Unknown Stage Type!");
+            }
+        });
+    }
+    public String getErrorMessage() {
+        //A replaced instance reports its own error, for example when its unload failed
+        return isRetired() ? getPlugin().getErrorMessage() : call(IPlugin::getErrorMessage);
+    }
+    boolean useUnload() { return !isInstantiated() || plugin.useUnload(); }
+    void loadPlugin() {
+        final Object flightEvent = PluginFlightRecorder.beginLoad();
+        boolean result = false;
+        try {
+            result = readPluginDetails();
+            if(result) PluginManager.PluginPool.getInstance().addPlugin(this);
+        } finally {
+            PluginFlightRecorder.endLoad(flightEvent, getPluginName(), result);
+        }
+    }
+
+    /** Reads the stages and dependencies of the plugin and checks its info, returns false if it can not be loaded. */
+    boolean readPluginDetails() {
+        //Lazy instances already got their stages when they were discovered
+        if(!isLazy()) {
+            for(final LoadStageType stage : readStages(plugin.getClass())) {
+                if(!stages.contains(stage)) stages.add(stage);
+            }
+            dependencies.addAll(readDependencies(plugin.getClass()));
+        }
+
+        if(refreshMetadata().isDefined()) {
+            final String name = getPluginInfo().getName();
+            if(name != null && !name.isEmpty()) return true;
+            reportLoadError("Plugin name not defined!");
+        } else {
+            reportLoadError("Plugin info not defined!");
+        }
+        return false;
+    }
+    private static void reportLoadError(String message) {
+        final PluginManager manager = PluginManager.getInstance();
+        manager.reportError(null, manager.getErrorTitle(), "Plugin failed to load!", message);
+    }
+    boolean unloadPlugin() {
+        final long start = PluginMetrics.getInstance().start();
+        final Object flightEvent = PluginFlightRecorder.beginUnload();
+        //A lazy plugin that was never created has nothing to unload
+        boolean result = false;
+        try {
+            result = !isInstantiated() || plugin.unloadPlugin();
+        } finally {
+            PluginMetrics.getInstance().record(getPluginName(), PluginMetrics.Phase.UNLOAD, start, result);
+            PluginFlightRecorder.endUnload(flightEvent, getPluginName(), result);
+        }
+        if(result) PluginManager.PluginPool.getInstance().removePlugin(this);
+        return result;
+    }
+
+    public boolean isPaneLoaded() { return isPaneLoaded; }
+    void setPaneLoaded(boolean value) { isPaneLoaded = value; }
+    public boolean isInstalled() { return state.get() == PluginState.INSTALLED; }
+    void setInstalled(boolean value) {
+        state.set(value ? PluginState.INSTALLED : PluginState.LOADED);
+        PluginManager.PluginPool.getInstance().updateInstalled(this);
+    }
+    public PluginState getState() { return state.get(); }
+    boolean transitionState(PluginState expected, PluginState value) { return state.compareAndSet(expected, value); }
+    public boolean isUpdateNeeded() { return call(IPlugin::isUpdateNeeded); }
+    public String getDownloadURL() { return call(IPlugin::getDownloadURL); }
+
+    /**
+     * Calls the plugin, creating it first if it is lazy. The call counts as in-flight so a replaced instance
+     * is not unloaded while it runs, extensions such as the JavaFX module reach their plugin interfaces this way.
+     * A call on an instance that was already replaced is forwarded to the instance that replaced it.
+     */
+    public <T> T call(Function<IPlugin, T> method) {
+        //The count and the retired flag change together, so a call can not slip in after the drain was seen
+        int calls;
+        do {
+            calls = inFlightCalls.get();
+            if((calls & RETIRED) != 0) return callReplacement(method);
+        } while(!inFlightCalls.compareAndSet(calls, calls + 1));
+
+        try {
+            return method.apply(getPlugin());
+        } finally {
+            if(inFlightCalls.decrementAndGet() == RETIRED) drained.complete(null);
+        }
+    }
+
+    private <T> T callReplacement(Function<IPlugin, T> method) {
+        final PluginInstance replacement = PluginManager.PluginPool.getInstance().findPlugin(getPluginName());
+        if(replacement == null || replacement == this) {
+            throw new IllegalStateException("Plugin " + PluginManager.quoteString(getPluginName()) + " was replaced!");
+        }
+        return replacement.call(method);
+    }
+
+    public int getInFlightCalls() { return inFlightCalls.get() & ~RETIRED; }
+    public boolean isRetired() { return (inFlightCalls.get() & RETIRED) != 0; }
+
+    /**
+     * Marks the instance as replaced, the returned future completes once no call is in-flight anymore.
+     * Calls made from now on go to the replacement.
+     */
+    CompletableFuture<Void> retire() {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        //Published before the flag, a call that sees the flag also sees the future
+        drained = result;
+        if(inFlightCalls.getAndUpdate(calls -> calls | RETIRED) == 0) result.complete(null);
+        return result;
+    }
+
+    static EnumSet<LoadStageType> readStages(Class<?> pluginClass) {
+        final EnumSet<LoadStageType> result = EnumSet.noneOf(LoadStageType.class);
+
+        //Annotation only exists if LoadStage is declared one time
+        if(pluginClass.isAnnotationPresent(LoadStage.class)) {
+            result.add(pluginClass.getAnnotation(LoadStage.class).stage());
+        }
+        //Annotation only exists if LoadStage is declared more than one time
+        else if(pluginClass.isAnnotationPresent(LoadStages.class)) {
+            for(final LoadStage stage : pluginClass.getAnnotation(LoadStages.class).value()) {
+                if(stage.active()) result.add(stage.stage());
+            }
+        }
+        //If annotation is not declared just set to Normal Load
+        else result.add(LoadStageType.NORMAL_LOAD);
+
+        return result;
+    }
+
+    static Set<String> readDependencies(Class<?> pluginClass) {
+        final DependsOn dependsOn = pluginClass.getAnnotation(DependsOn.class);
+        return dependsOn == null ? Collections.emptySet() : new LinkedHashSet<>(Arrays.asList(dependsOn.value()));
+    }
+
+    /** Splits a comma separated list of plugin names, as used by the Plugin-Dependencies manifest attribute. */
+    static Set<String> splitDependencies(String value) {
+        final Set<String> result = new LinkedHashSet<>();
+        if(value != null) {
+            for(final String name : value.split(",")) {
+                if(!name.trim().isEmpty()) result.add(name.trim());
+            }
+        }
+        return result;
+    }
+
+    public enum PluginState { LOADED, INSTALLING, INSTALLED, UNINSTALLING }
+
+    public static String isNullOrEmpty(String input) {
+        return input == null || input.isEmpty() ? "NOT_DEFINED" : input;
+    }
+}
@@ -0,0 +1,233 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only view of a plugin jar. The central directory is read once so every entry can be read by random access,
+ * an entry is read with a positional read of exactly its bytes. Nothing of the file is mapped, a jar that is
+ * replaced or overwritten while in use makes reads fail with an exception instead of crashing the JVM,
+ * and closing releases the file right away. Reads after closing open the file again.
+ */
+final class PluginJarFile implements Closeable {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_HEADER_SIGNATURE = 0x06054b50;
+    private static final int END_HEADER_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final long size;
+    private final long modified;
+    private final Map<String, Entry> entries;
+    private FileChannel channel;
+
+    private PluginJarFile(File file, long size, long modified, FileChannel channel, Map<String, Entry> entries) {
+        this.file = file;
+        this.size = size;
+        this.modified = modified;
+        this.channel = channel;
+        this.entries = entries;
+    }
+
+    static PluginJarFile open(File file) throws IOException {
+        final long modified = file.lastModified();
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            final long size = channel.size();
+            if(size > Integer.MAX_VALUE) throw new IOException(file + " is too large!");
+            return new PluginJarFile(file, size, modified, channel, readCentralDirectory(file, channel, size));
+        } catch(IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    File getFile() { return file; }
+
+    Set<String> getEntryNames() { return Collections.unmodifiableSet(entries.keySet()); }
+
+    boolean hasEntry(String name) { return entries.containsKey(name); }
+
+    /** Returns the uncompressed contents of the entry or null if the jar does not contain it. */
+    byte[] getEntryBytes(String name) throws IOException {
+        final Entry entry = entries.get(name);
+        if(entry == null) return null;
+
+        final ByteBuffer header = read(entry.localHeaderOffset, LOCAL_HEADER_SIZE);
+        if(header.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("Invalid local header for " + name + " in " + file + "!");
+        }
+        //The local header has its own name and extra field lengths, they may differ from the central directory
+        final long dataOffset = (long) entry.localHeaderOffset + LOCAL_HEADER_SIZE
+                + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+        final byte[] data = read(dataOffset, entry.compressedSize).array();
+
+        switch(entry.method) {
+            case STORED:
+                if(data.length != entry.size) throw new IOException("Invalid stored entry " + name + " in " + file + "!");
+                return data;
+            case DEFLATED:
+                final byte[] result = new byte[entry.size];
+                final Inflater inflater = new Inflater(true);
+                try {
+                    inflater.setInput(data);
+                    int count = 0;
+                    while(count < result.length && !inflater.finished()) {
+                        final int read = inflater.inflate(result, count, result.length - count);
+                        if(read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                        count += read;
+                    }
+                    if(count != result.length) throw new IOException("Truncated entry " + name + " in " + file + "!");
+                    return result;
+                } catch(DataFormatException e) {
+                    throw new IOException("Corrupt entry " + name + " in " + file + "!", e);
+                } finally {
+                    inflater.end();
+                }
+            default:
+                throw new IOException("Unsupported compression method " + entry.method + " for " + name + "!");
+        }
+    }
+
+    Manifest getManifest() throws IOException {
+        final byte[] bytes = getEntryBytes(JarFile.MANIFEST_NAME);
+        return bytes == null ? null : new Manifest(new ByteArrayInputStream(bytes));
+    }
+
+    /** Hashes the whole file. */
+    void updateDigest(MessageDigest digest) throws IOException {
+        for(long position = 0; position < size; position += DIGEST_BUFFER_SIZE) {
+            digest.update(read(position, (int) Math.min(DIGEST_BUFFER_SIZE, size - position)));
+        }
+    }
+
+    /** Releases the file, the jar is opened again if it is read afterwards. */
+    @Override
+    public synchronized void close() throws IOException {
+        if(channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private synchronized FileChannel getChannel() throws IOException {
+        if(channel == null || !channel.isOpen()) {
+            //Offsets from the central directory are only valid for the file that was opened first
+            if(file.length() != size || file.lastModified() != modified) {
+                throw new IOException(file + " changed since it was opened!");
+            }
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        }
+        return channel;
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        try {
+            return read(getChannel(), file, position, length);
+        } catch(ClosedByInterruptException e) {
+            throw e;
+        } catch(ClosedChannelException e) {
+            //Closed by another thread while reading, the file is simply opened again
+            return read(getChannel(), file, position, length);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, File file, long position, int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while(buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position + buffer.position());
+            if(read < 0) throw new EOFException("Unexpected end of " + file + "!");
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static Map<String, Entry> readCentralDirectory(File file, FileChannel channel, long size) throws IOException {
+        //The end record is followed by a comment of up to 65535 bytes, so search backwards for its signature
+        final int tailSize = (int) Math.min(size, END_HEADER_SIZE + MAX_COMMENT_SIZE);
+        if(tailSize < END_HEADER_SIZE) throw new IOException(file + " is not a valid jar file!");
+        final ByteBuffer tail = read(channel, file, size - tailSize, tailSize);
+        int end = -1;
+        for(int i = tailSize - END_HEADER_SIZE; i >= 0; i--) {
+            if(tail.getInt(i) == END_HEADER_SIGNATURE) {
+                end = i;
+                break;
+            }
+        }
+        if(end < 0) throw new IOException(file + " is not a valid jar file!");
+
+        final int count = tail.getShort(end + 10) & 0xFFFF;
+        final long directorySize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+        final long offset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+        if(count == 0xFFFF || offset == 0xFFFFFFFFL) throw new IOException(file + " uses unsupported Zip64 format!");
+        if(offset + directorySize > size) throw new IOException("Invalid central directory in " + file + "!");
+
+        //Only the central directory is copied, entries are read when they are needed
+        final ByteBuffer buffer = read(channel, file, offset, (int) directorySize);
+        final Map<String, Entry> result = new LinkedHashMap<>(count * 2);
+        int position = 0;
+        for(int i = 0; i < count; i++) {
+            if(position + 46 > buffer.limit() || buffer.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                throw new IOException("Invalid central directory in " + file + "!");
+            }
+            final int method = buffer.getShort(position + 10) & 0xFFFF;
+            final long compressedSize = buffer.getInt(position + 20) & 0xFFFFFFFFL;
+            final long entrySize = buffer.getInt(position + 24) & 0xFFFFFFFFL;
+            final int nameLength = buffer.getShort(position + 28) & 0xFFFF;
+            final int extraLength = buffer.getShort(position + 30) & 0xFFFF;
+            final int commentLength = buffer.getShort(position + 32) & 0xFFFF;
+            final long localHeaderOffset = buffer.getInt(position + 42) & 0xFFFFFFFFL;
+            if(compressedSize > Integer.MAX_VALUE || entrySize > Integer.MAX_VALUE || localHeaderOffset > Integer.MAX_VALUE) {
+                throw new IOException(file + " uses unsupported Zip64 format!");
+            }
+
+            final byte[] name = new byte[nameLength];
+            final ByteBuffer nameBuffer = buffer.duplicate();
+            nameBuffer.position(position + 46);
+            nameBuffer.get(name);
+            //Bit 11 marks UTF-8 names, jar tools always write them that way
+            final String entryName = new String(name, StandardCharsets.UTF_8);
+
+            if(!entryName.endsWith("/")) {
+                result.put(entryName, new Entry(method, (int) compressedSize, (int) entrySize, (int) localHeaderOffset));
+            }
+            position += 46 + nameLength + extraLength + commentLength;
+        }
+        return result;
+    }
+
+    private static final class Entry {
+        private final int method;
+        private final int compressedSize;
+        private final int size;
+        private final int localHeaderOffset;
+
+        private Entry(int method, int compressedSize, int size, int localHeaderOffset) {
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+    }
+}
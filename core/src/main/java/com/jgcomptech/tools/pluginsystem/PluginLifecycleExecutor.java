@@ -0,0 +1,181 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the load stages of many plugins as a pipeline. All plugins run a stage in parallel on the pool
+ * and the next stage only starts once every plugin finished or timed out on the current one.
+ * Within a stage a plugin starts as soon as the plugins it depends on finished that stage,
+ * so independent branches of the {@link PluginDependencyGraph} run at the same time.
+ * A plugin that fails a stage is skipped in all later stages, together with the plugins that depend on it.
+ * A stage that times out is interrupted and every failure is handed to the error reporter of the {@link PluginManager}.
+ */
+public class PluginLifecycleExecutor {
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final EnumMap<LoadStageType, Long> stageTimeouts = new EnumMap<>(LoadStageType.class);
+
+    public PluginLifecycleExecutor() { this(Runtime.getRuntime().availableProcessors()); }
+
+    public PluginLifecycleExecutor(int parallelism) {
+        this(Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            final Thread thread = new Thread(r, "PluginLifecycle-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }), true);
+    }
+
+    /** Uses the specified pool, it is not shut down by {@link #shutdown()}. */
+    public PluginLifecycleExecutor(ExecutorService executor) { this(executor, false); }
+
+    private PluginLifecycleExecutor(ExecutorService executor, boolean ownsExecutor) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        for(final LoadStageType stage : LoadStageType.values()) { stageTimeouts.put(stage, TimeUnit.SECONDS.toMillis(60)); }
+    }
+
+    public synchronized long getStageTimeout(LoadStageType stage, TimeUnit unit) {
+        return unit.convert(stageTimeouts.get(stage), TimeUnit.MILLISECONDS);
+    }
+    public synchronized void setStageTimeout(LoadStageType stage, long timeout, TimeUnit unit) {
+        stageTimeouts.put(stage, unit.toMillis(timeout));
+    }
+
+    /** Runs all stages for every plugin in the pool. */
+    public PluginLifecycleResult run() { return run(PluginManager.PluginPool.getInstance().getPlugins()); }
+
+    public PluginLifecycleResult run(Collection<PluginInstance> plugins) { return run(plugins, LoadStageType.values()); }
+
+    /** Runs the specified stages in the order they are given for every plugin that declares them. */
+    public PluginLifecycleResult run(Collection<PluginInstance> plugins, LoadStageType... stages) {
+        final PluginErrorReporter errors = PluginManager.getInstance().beginErrorBatch();
+        try {
+            return runStages(plugins, stages);
+        } finally {
+            errors.endBatch();
+        }
+    }
+
+    private PluginLifecycleResult runStages(Collection<PluginInstance> plugins, LoadStageType... stages) {
+        final PluginLifecycleResult result = new PluginLifecycleResult();
+        final PluginDependencyGraph graph = new PluginDependencyGraph(plugins);
+        final Set<PluginInstance> failed = new HashSet<>();
+
+        //Plugins with missing or cyclic dependencies fail the first stage they declare
+        for(final PluginInstance plugin : plugins) {
+            final String reason = graph.getUnresolved().get(plugin.getPluginName());
+            if(reason == null) continue;
+            for(final LoadStageType stage : stages) {
+                if(plugin.doesContainStage(stage)) {
+                    result.setStatus(plugin.getPluginName(), stage, Messages.ErrorStatus.DEPENDENCY_ERROR);
+                    result.setErrorMessage(plugin.getPluginName(), reason);
+                    reportError(plugin, stage, Messages.ErrorStatus.DEPENDENCY_ERROR, reason);
+                    break;
+                }
+            }
+        }
+
+        for(final LoadStageType stage : stages) {
+            final List<PluginInstance> stagePlugins = new ArrayList<>();
+            final Map<PluginInstance, CompletableFuture<Messages.ErrorStatus>> futures = new HashMap<>();
+            //The load order makes sure the futures of the dependencies already exist
+            for(final PluginInstance plugin : graph.getLoadOrder()) {
+                if(!plugin.doesContainStage(stage) || failed.contains(plugin)) continue;
+                stagePlugins.add(plugin);
+                futures.put(plugin, schedule(plugin, stage, graph.getDependencies(plugin), futures, failed));
+            }
+            if(stagePlugins.isEmpty()) continue;
+
+            //Barrier, every plugin has to finish the stage before the next one starts
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(getStageTimeout(stage, TimeUnit.MILLISECONDS));
+            for(final PluginInstance plugin : stagePlugins) {
+                final Messages.ErrorStatus status = await(futures.get(plugin), deadline, plugin, result);
+                result.setStatus(plugin.getPluginName(), stage, status);
+                if(status != Messages.ErrorStatus.NO_ERROR) {
+                    failed.add(plugin);
+                    reportError(plugin, stage, status, result.getErrorMessage(plugin.getPluginName()));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static void reportError(PluginInstance plugin, LoadStageType stage, Messages.ErrorStatus status,
+                                    String message) {
+        final PluginManager manager = PluginManager.getInstance();
+        manager.reportError(plugin.getPluginName(), manager.getErrorTitle(),
+                "Plugin " + PluginManager.quoteString(plugin.getPluginName()) + " failed the " + stage + " stage with "
+                        + status + "!", message);
+    }
+
+    private CompletableFuture<Messages.ErrorStatus> schedule(PluginInstance plugin, LoadStageType stage,
+                                                             List<PluginInstance> dependencies,
+                                                             Map<PluginInstance, CompletableFuture<Messages.ErrorStatus>> futures,
+                                                             Set<PluginInstance> failed) {
+        final List<CompletableFuture<Messages.ErrorStatus>> waitFor = new ArrayList<>();
+        for(final PluginInstance dependency : dependencies) {
+            if(failed.contains(dependency)) return CompletableFuture.completedFuture(Messages.ErrorStatus.DEPENDENCY_ERROR);
+            //Dependencies that do not declare the stage are ready right away
+            final CompletableFuture<Messages.ErrorStatus> future = futures.get(dependency);
+            if(future != null) waitFor.add(future);
+        }
+
+        final CompletableFuture<Messages.ErrorStatus> result = new CompletableFuture<>();
+        CompletableFuture.allOf(waitFor.toArray(new CompletableFuture<?>[0])).whenComplete((v, e) -> {
+            for(final CompletableFuture<Messages.ErrorStatus> future : waitFor) {
+                if(future.isCompletedExceptionally() || future.join() != Messages.ErrorStatus.NO_ERROR) {
+                    result.complete(Messages.ErrorStatus.DEPENDENCY_ERROR);
+                    return;
+                }
+            }
+            //Submitted instead of chained so the worker that runs the stage can be interrupted
+            final Future<?> task;
+            try {
+                task = executor.submit(() -> {
+                    try {
+                        result.complete(plugin.loadStage(stage) ? Messages.ErrorStatus.NO_ERROR : Messages.ErrorStatus.LOADING_ERROR);
+                    } catch(Throwable t) {
+                        result.completeExceptionally(t);
+                    }
+                });
+            } catch(RejectedExecutionException ex) {
+                result.completeExceptionally(ex);
+                return;
+            }
+            result.whenComplete((status, error) -> { if(result.isCancelled()) task.cancel(true); });
+        });
+        return result;
+    }
+
+    private static Messages.ErrorStatus await(Future<Messages.ErrorStatus> future, long deadline, PluginInstance plugin,
+                                              PluginLifecycleResult result) {
+        try {
+            final Messages.ErrorStatus status = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if(status == Messages.ErrorStatus.LOADING_ERROR) {
+                result.setErrorMessage(plugin.getPluginName(), plugin.getErrorMessage());
+            } else if(status == Messages.ErrorStatus.DEPENDENCY_ERROR) {
+                result.setErrorMessage(plugin.getPluginName(), "A dependency failed to load!");
+            }
+            return status;
+        } catch(TimeoutException e) {
+            //Interrupts the worker running the stage, its dependents see the cancellation as a failed dependency
+            future.cancel(true);
+            result.setErrorMessage(plugin.getPluginName(), "The stage did not finish within the timeout!");
+            return Messages.ErrorStatus.TIMED_OUT;
+        } catch(ExecutionException e) {
+            result.setErrorMessage(plugin.getPluginName(), PluginManager.generateErrorString(e.getCause()));
+            return Messages.ErrorStatus.LOADING_ERROR;
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return Messages.ErrorStatus.LOADING_ERROR;
+        }
+    }
+
+    public void shutdown() { if(ownsExecutor) executor.shutdown(); }
+}
@@ -0,0 +1,42 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.util.*;
+
+public class PluginLifecycleResult {
+    private final Map<String, EnumMap<LoadStageType, Messages.ErrorStatus>> statuses = new LinkedHashMap<>();
+    private final Map<String, String> errorMessages = new LinkedHashMap<>();
+
+    PluginLifecycleResult() { /*Exists only to defeat instantiation.*/ }
+
+    void setStatus(String pluginName, LoadStageType stage, Messages.ErrorStatus status) {
+        statuses.computeIfAbsent(pluginName, k -> new EnumMap<>(LoadStageType.class)).put(stage, status);
+    }
+    void setErrorMessage(String pluginName, String message) { errorMessages.put(pluginName, message); }
+
+    /** Returns the status of the stage or null if the stage did not run for the plugin. */
+    public Messages.ErrorStatus getStatus(String pluginName, LoadStageType stage) {
+        final EnumMap<LoadStageType, Messages.ErrorStatus> pluginStatuses = statuses.get(pluginName);
+        return pluginStatuses == null ? null : pluginStatuses.get(stage);
+    }
+
+    public Map<LoadStageType, Messages.ErrorStatus> getStatuses(String pluginName) {
+        final EnumMap<LoadStageType, Messages.ErrorStatus> pluginStatuses = statuses.get(pluginName);
+        return pluginStatuses == null ? Collections.emptyMap() : Collections.unmodifiableMap(pluginStatuses);
+    }
+
+    public Set<String> getPluginNames() { return Collections.unmodifiableSet(statuses.keySet()); }
+
+    public Set<String> getFailedPlugins() {
+        final Set<String> result = new LinkedHashSet<>();
+        for(final Map.Entry<String, EnumMap<LoadStageType, Messages.ErrorStatus>> entry : statuses.entrySet()) {
+            for(final Messages.ErrorStatus status : entry.getValue().values()) {
+                if(status != Messages.ErrorStatus.NO_ERROR) result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    public String getErrorMessage(String pluginName) { return errorMessages.get(pluginName); }
+
+    public boolean isSuccessful() { return getFailedPlugins().isEmpty(); }
+}
@@ -0,0 +1,1248 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import com.jgcomptech.tools.pluginsystem.events.PluginEventGenerator;
+import com.jgcomptech.tools.pluginsystem.events.UpdateLoadedEvent;
+import com.jgcomptech.tools.pluginsystem.events.UpdateLoadedListener;
+import com.jgcomptech.tools.pluginsystem.jfr.PluginFlightRecorder;
+import org.openide.util.Lookup;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.jar.Manifest;
+
+public class PluginManager implements UpdateLoadedListener {
+    private volatile String errorTitle  = "";
+    private volatile PluginErrorReporter errorReporter = PluginErrorReporter.async(System.err::println);
+    private volatile String pluginsDirectory = null;
+    private volatile long installTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+    private volatile long swapDrainTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> paneLoadedFutures = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<String>> updateFutures = new ConcurrentHashMap<>();
+    private volatile int maxConcurrentDownloads = 4;
+    private volatile long updateCheckTtlMillis = TimeUnit.MINUTES.toMillis(5);
+    private volatile long updateCheckTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+    private volatile PluginUpdateSnapshot updateSnapshot;
+    private final AtomicReference<CompletableFuture<PluginUpdateSnapshot>> runningUpdateCheck = new AtomicReference<>();
+    private final ReducibleSemaphore downloadSlots = new ReducibleSemaphore(4);
+    //Jars written by an update and the state they were left in, so the directory watcher does not reload them again.
+    //Only jars in a watched directory are recorded, the watcher removes them when it sees the change or is closed
+    private final Map<Path, List<Object>> updatedJars = new ConcurrentHashMap<>();
+    private final Set<PluginDirectoryWatcher> watchers = ConcurrentHashMap.newKeySet();
+    private PluginManager() { /*Exists only to defeat instantiation.*/ }
+
+    //Lazily initialized on first access by the class loader, so no lock is needed to read the instance
+    private static final class InstanceHolder {
+        private static final PluginManager INSTANCE = new PluginManager();
+        static { PluginEventGenerator.getInstance().addUpdateLoadedListener(INSTANCE); }
+    }
+
+    public static PluginManager getInstance() { return InstanceHolder.INSTANCE; }
+
+    public HashSet<PluginInstance> getInstalledPlugins() { return PluginPool.getInstance().getInstalledPlugins(); }
+    public HashSet<PluginInstance> getLoadedPlugins() { return PluginPool.getInstance().getPlugins(); }
+
+    public String getErrorTitle() { return errorTitle; }
+    public void setErrorTitle(String errorTitle) { this.errorTitle = errorTitle; }
+
+    public PluginErrorReporter getErrorReporter() { return errorReporter; }
+
+    /**
+     * Sets the reporter that receives all plugin errors. The default gathers the errors of each load batch
+     * and prints them to the standard error stream on a background thread.
+     */
+    public void setErrorReporter(PluginErrorReporter reporter) {
+        if(reporter == null) throw new IllegalArgumentException("Error reporter must not be null!");
+        errorReporter = reporter;
+    }
+
+    void reportError(String pluginName, String title, String headerText, String message) {
+        errorReporter.report(new PluginError(pluginName, title, headerText, message));
+    }
+
+    /** Starts a load batch, end it on the returned reporter so the errors are handed on by the one that got them. */
+    PluginErrorReporter beginErrorBatch() {
+        final PluginErrorReporter result = errorReporter;
+        result.beginBatch();
+        return result;
+    }
+
+    public void initializePluginDirectory(String path, String folderName) throws IOException {
+        pluginsDirectory = path + System.getProperty("file.separator") + folderName;
+        Files.createDirectories(Paths.get(pluginsDirectory));
+    }
+
+    public String getPluginsDirectory() { return pluginsDirectory; }
+
+    public boolean isPluginInstalled(String pluginName) {
+        final PluginInstance plugin = PluginPool.getInstance().findPlugin(pluginName);
+        return plugin != null && plugin.isPaneLoaded() && plugin.isInstalled();
+    }
+    public boolean isPluginLoaded(String pluginName) {
+        final PluginInstance plugin = PluginPool.getInstance().findPlugin(pluginName);
+        return plugin != null && plugin.isPaneLoaded();
+    }
+
+    /** Returns "Needs Update", "Current" or "Unknown" if the plugin did not answer the batch check in time. */
+    public String getPluginUpdateStatus(String pluginName) { return getUpdateStatus(getLoadedPlugin(pluginName)); }
+
+    //Answers from the last batch check while it is fresh, otherwise from a new one that is shared with other callers
+    private String getUpdateStatus(PluginInstance plugin) {
+        final String pluginName = plugin.getPluginName();
+        PluginUpdateSnapshot snapshot = checkForUpdates();
+        //The plugin was loaded after the check
+        if(snapshot != null && snapshot.isUpdateNeeded(pluginName) == null
+                && !snapshot.getUncheckedPlugins().contains(pluginName)) {
+            snapshot = awaitUpdateCheck(snapshot);
+        }
+        return snapshot == null ? "Unknown" : snapshot.getUpdateStatus(pluginName);
+    }
+
+    public long getUpdateCheckTtl(TimeUnit unit) { return unit.convert(updateCheckTtlMillis, TimeUnit.MILLISECONDS); }
+    public void setUpdateCheckTtl(long ttl, TimeUnit unit) { updateCheckTtlMillis = unit.toMillis(ttl); }
+    public long getUpdateCheckTimeout(TimeUnit unit) { return unit.convert(updateCheckTimeoutMillis, TimeUnit.MILLISECONDS); }
+    public void setUpdateCheckTimeout(long timeout, TimeUnit unit) { updateCheckTimeoutMillis = unit.toMillis(timeout); }
+
+    /**
+     * Returns the result of the last batch update check if it is younger than the TTL,
+     * otherwise checks all loaded plugins again and blocks until that check finished.
+     */
+    public PluginUpdateSnapshot checkForUpdates() {
+        final PluginUpdateSnapshot snapshot = updateSnapshot;
+        if(snapshot != null && !snapshot.isOlderThan(updateCheckTtlMillis)) return snapshot;
+        return awaitUpdateCheck(snapshot);
+    }
+
+    //Starts or joins a batch check, the given snapshot is returned if it fails
+    private PluginUpdateSnapshot awaitUpdateCheck(PluginUpdateSnapshot snapshot) {
+        try {
+            return checkForUpdatesAsync(updateCheckTimeoutMillis, TimeUnit.MILLISECONDS).get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return snapshot;
+        } catch(ExecutionException e) {
+            return snapshot;
+        }
+    }
+
+    /** Returns the result of the last batch update check without checking or null if there was none yet. */
+    public PluginUpdateSnapshot getUpdateSnapshot() { return updateSnapshot; }
+
+    /**
+     * Asks all loaded plugins concurrently if they need an update. The future completes once all of them answered
+     * or the timeout elapsed, plugins that did not answer by then are reported as unchecked.
+     * A check that is already running is shared instead of starting another one.
+     */
+    public CompletableFuture<PluginUpdateSnapshot> checkForUpdatesAsync(long timeout, TimeUnit unit) {
+        final CompletableFuture<PluginUpdateSnapshot> result = new CompletableFuture<>();
+        final CompletableFuture<PluginUpdateSnapshot> running =
+                runningUpdateCheck.updateAndGet(current -> current != null ? current : result);
+        if(running != result) return running;
+
+        final Map<String, CompletableFuture<Boolean>> checks = new HashMap<>();
+        for(final PluginInstance plugin : PluginPool.getInstance().getPlugins()) {
+            checks.put(plugin.getPluginName(), CompletableFuture.supplyAsync(plugin::isUpdateNeeded, getUpdateExecutor()));
+        }
+
+        final AtomicBoolean completed = new AtomicBoolean();
+        final Runnable complete = () -> {
+            //Runs on timeout and when all answered, only the first one publishes
+            if(!completed.compareAndSet(false, true)) return;
+            final Map<String, Boolean> updateNeeded = new HashMap<>();
+            final Set<String> unchecked = new HashSet<>();
+            for(final Map.Entry<String, CompletableFuture<Boolean>> check : checks.entrySet()) {
+                final CompletableFuture<Boolean> future = check.getValue();
+                if(future.isDone() && !future.isCompletedExceptionally()) updateNeeded.put(check.getKey(), future.join());
+                else unchecked.add(check.getKey());
+            }
+            final PluginUpdateSnapshot snapshot = new PluginUpdateSnapshot(updateNeeded, unchecked);
+            //Published before the waiting callers wake up, so they do not join this check again
+            updateSnapshot = snapshot;
+            runningUpdateCheck.compareAndSet(result, null);
+            result.complete(snapshot);
+        };
+        final ScheduledFuture<?> timeoutTask = getTimeoutScheduler().schedule(complete, timeout, unit);
+        CompletableFuture.allOf(checks.values().toArray(new CompletableFuture<?>[0])).whenComplete((v, e) -> {
+            timeoutTask.cancel(false);
+            complete.run();
+        });
+        return result;
+    }
+    public boolean isPluginUpdated(String pluginName) { return getLoadedPlugin(pluginName).isUpdateNeeded(); }
+
+    /** Downloads and swaps in the new version of the plugin and blocks until done, see {@link #updatePluginAsync}. */
+    public String updatePlugin(String pluginName) {
+        try {
+            return updatePluginAsync(pluginName).get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Update Failed";
+        } catch(ExecutionException | CancellationException e) {
+            return "Update Failed";
+        }
+    }
+
+    /**
+     * Downloads the jar from the download URL of the plugin into the plugins directory and swaps the plugin
+     * with the new version, see {@link PluginDownloader} and {@link #swapPlugin(Object, PluginInstance)}.
+     * At most {@link #getMaxConcurrentDownloads()} downloads run at the same time, the others wait for a slot.
+     * Updating a plugin that is already being updated returns the future of the running update.
+     */
+    public CompletableFuture<String> updatePluginAsync(String pluginName) {
+        final PluginInstance plugin = getLoadedPlugin(pluginName);
+        if(!plugin.isUpdateNeeded()) return CompletableFuture.completedFuture("Update Not Needed");
+
+        final String downloadURL = plugin.getDownloadURL();
+        final URL url;
+        try {
+            url = new URL(downloadURL);
+        } catch(MalformedURLException | NullPointerException e) {
+            return CompletableFuture.completedFuture("Update Failed - Invalid URL");
+        }
+
+        final CompletableFuture<String> update = new CompletableFuture<>();
+        final CompletableFuture<String> running = updateFutures.putIfAbsent(pluginName, update);
+        if(running != null) return running;
+
+        getUpdateExecutor().execute(() -> {
+            String result = "Update Failed";
+            try {
+                downloadSlots.acquire();
+                try {
+                    final Path target = getUpdateTarget(plugin, url);
+                    PluginDownloader.download(url, target);
+                    if(isWatched(target)) updatedJars.put(target.toAbsolutePath().normalize(), getFileState(target));
+                    final PluginDiscoveryResult reload = PluginLoader.getInstance().reloadExternalPlugins(target.toFile());
+                    if(!reload.hasErrors()) result = "Update Succeeded";
+                    //The cached answer belongs to the old version
+                    updateSnapshot = null;
+                } finally {
+                    downloadSlots.release();
+                }
+            } catch(IOException | RuntimeException e) {
+                result = "Update Failed - " + e.getMessage();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                updateFutures.remove(pluginName, update);
+                update.complete(result);
+            }
+        });
+        return update;
+    }
+
+    void addWatcher(PluginDirectoryWatcher watcher) { watchers.add(watcher); }
+
+    void removeWatcher(PluginDirectoryWatcher watcher) {
+        watchers.remove(watcher);
+        updatedJars.keySet().removeIf(jar -> !isWatched(jar));
+    }
+
+    private boolean isWatched(Path jar) {
+        final Path directory = jar.toAbsolutePath().normalize().getParent();
+        for(final PluginDirectoryWatcher watcher : watchers) {
+            if(watcher.getDirectory().normalize().equals(directory)) return true;
+        }
+        return false;
+    }
+
+    int getUpdatedJarCount() { return updatedJars.size(); }
+
+    /** Returns true once if the jar is still the one an update wrote and reloaded, the watcher then skips it. */
+    boolean isOwnUpdate(Path jar) {
+        final List<Object> state = updatedJars.remove(jar.toAbsolutePath().normalize());
+        try {
+            return state != null && state.equals(getFileState(jar));
+        } catch(IOException e) {
+            return false;
+        }
+    }
+
+    //A jar copied over the update afterwards differs in at least one of these
+    private static List<Object> getFileState(Path jar) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+        return Arrays.asList(attributes.fileKey(), attributes.lastModifiedTime(), attributes.size());
+    }
+
+    //The new version replaces the jar the plugin was loaded from, otherwise it is named after the url
+    private Path getUpdateTarget(PluginInstance plugin, URL url) throws IOException {
+        if(plugin.getSourceFile() != null) return plugin.getSourceFile().toPath();
+        if(pluginsDirectory == null) throw new IOException("Plugins directory not initialized!");
+        final String path = url.getPath();
+        final String fileName = path.substring(path.lastIndexOf('/') + 1);
+        if(!fileName.endsWith(".jar")) throw new IOException("Download URL " + url + " does not point to a jar file!");
+        return Paths.get(pluginsDirectory, fileName);
+    }
+
+    public int getMaxConcurrentDownloads() { return maxConcurrentDownloads; }
+
+    /** Changes the number of downloads that may run at the same time, downloads that already run are not affected. */
+    public synchronized void setMaxConcurrentDownloads(int value) {
+        if(value <= 0) throw new IllegalArgumentException("At least one download must be allowed!");
+        if(value > maxConcurrentDownloads) downloadSlots.release(value - maxConcurrentDownloads);
+        else downloadSlots.reducePermits(maxConcurrentDownloads - value);
+        maxConcurrentDownloads = value;
+    }
+
+    private Executor getUpdateExecutor() { return UpdateExecutorHolder.INSTANCE; }
+
+    //Exposes reducePermits so the download limit can shrink
+    private static final class ReducibleSemaphore extends Semaphore {
+        private static final long serialVersionUID = 1L;
+
+        private ReducibleSemaphore(int permits) { super(permits); }
+        @Override protected void reducePermits(int reduction) { super.reducePermits(reduction); }
+    }
+
+    private static final class UpdateExecutorHolder {
+        //Threads mostly wait for a download slot or the network, the slots limit the actual downloads
+        private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(r -> {
+            final Thread thread = new Thread(r, "PluginManager-Update");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean doesPluginContainStage(String pluginName, LoadStageType stage) {
+        final PluginInstance plugin = PluginPool.getInstance().findPlugin(pluginName);
+        return plugin != null && plugin.getStages().contains(stage);
+    }
+    public HashSet<LoadStageType> getPluginLoadStages(String pluginName) { return getLoadedPlugin(pluginName).getStages(); }
+
+    public PluginInstance getLoadedPlugin(String pluginName) { return PluginPool.getInstance().getPlugin(pluginName); }
+
+    public PluginInstance getInstalledPlugin(String pluginName) {
+        final PluginInstance plugin = getLoadedPlugin(pluginName);
+        if(plugin.isInstalled()) return plugin;
+        else throw new IllegalArgumentException("Plugin Not Installed!");
+    }
+
+    public PluginInfo getPluginInfo(String pluginName) { return getLoadedPlugin(pluginName).getPluginInfo(); }
+    public PluginMetadata getPluginMetadata(String pluginName) { return getLoadedPlugin(pluginName).getMetadata(); }
+
+    /**
+     * Captures the info of the plugin again, plugins call this after changing their {@link PluginInfo}.
+     * Returns the new metadata, the plugin is found under its new name afterwards if the name changed.
+     */
+    public PluginMetadata refreshPluginInfo(String pluginName) {
+        return PluginPool.getInstance().refreshMetadata(getLoadedPlugin(pluginName));
+    }
+
+    public String getPluginInfoString(String pluginName) {
+        final PluginInstance plugin = getLoadedPlugin(pluginName);
+        if(plugin.getMetadata().isDefined()) {
+            final String updateStatus = getUpdateStatus(plugin);
+            return plugin.getPluginType() + " " + plugin.getPluginName() + " " + plugin.getPluginVersion() + " by "
+                    + plugin.getPluginCompany() + "(" + plugin.getPluginAuthor() + ")" + " - " + updateStatus;
+        } else throw new IllegalArgumentException("Plugin Info Not defined!");
+    }
+    public String getPluginVersion(String pluginName) { return getLoadedPlugin(pluginName).getPluginVersion(); }
+    public String getPluginType(String pluginName) { return getLoadedPlugin(pluginName).getPluginType(); }
+    public String getPluginAuthor(String pluginName) { return getLoadedPlugin(pluginName).getPluginAuthor(); }
+    public String getPluginCompany(String pluginName) { return getLoadedPlugin(pluginName).getPluginCompany(); }
+    public String getPluginLicense(String pluginName) { return getLoadedPlugin(pluginName).getPluginLicense(); }
+
+    public long getInstallTimeout(TimeUnit unit) { return unit.convert(installTimeoutMillis, TimeUnit.MILLISECONDS); }
+    public void setInstallTimeout(long timeout, TimeUnit unit) { installTimeoutMillis = unit.toMillis(timeout); }
+    public long getSwapDrainTimeout(TimeUnit unit) { return unit.convert(swapDrainTimeoutMillis, TimeUnit.MILLISECONDS); }
+    public void setSwapDrainTimeout(long timeout, TimeUnit unit) { swapDrainTimeoutMillis = unit.toMillis(timeout); }
+
+    /** Installs the plugin and blocks until the install finished, see {@link #installPluginAsync(Object, String)}. */
+    public Messages.ErrorStatus installPlugin(Object source, String pluginName) {
+        try {
+            return installPluginAsync(source, pluginName).get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Messages.ErrorStatus.LOADING_ERROR;
+        } catch(ExecutionException | CancellationException e) {
+            return Messages.ErrorStatus.LOADING_ERROR;
+        }
+    }
+
+    public CompletableFuture<Messages.ErrorStatus> installPluginAsync(Object source, String pluginName) {
+        return installPluginAsync(source, pluginName, installTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Fires the install event and completes once the pane of the plugin reported that it is loaded
+     * and the normal load stage ran on the install pool, nothing blocks while waiting for the pane.
+     * If the pane is not loaded within the timeout the future completes with LOADING_ERROR,
+     * cancelling the future before the normal load stage started puts the plugin back into the loaded state.
+     */
+    public CompletableFuture<Messages.ErrorStatus> installPluginAsync(Object source, String pluginName,
+                                                                      long timeout, TimeUnit unit) {
+        final PluginInstance plugin = PluginPool.getInstance().findPlugin(pluginName);
+        if(plugin == null) return CompletableFuture.completedFuture(Messages.ErrorStatus.NOT_LOADED);
+        if(!plugin.doesContainStage(LoadStageType.NORMAL_LOAD)) {
+            reportError(pluginName, "Plugin Manager - Error", null,
+                    "Plugin " + quoteString(pluginName) + " cannot be installed in Normal load stage!");
+            return CompletableFuture.completedFuture(Messages.ErrorStatus.INVALID_STAGE);
+        }
+        //Only one thread may move a plugin out of the loaded state, everyone else fails fast
+        if(!plugin.transitionState(PluginInstance.PluginState.LOADED, PluginInstance.PluginState.INSTALLING)) {
+            if(plugin.isInstalled()) {
+                reportError(pluginName, "Plugin Manager - Error", null,
+                        "Plugin " + quoteString(pluginName) + " Already Installed!");
+                return CompletableFuture.completedFuture(Messages.ErrorStatus.ALREADY_INSTALLED);
+            }
+            return CompletableFuture.completedFuture(Messages.ErrorStatus.OPERATION_IN_PROGRESS);
+        }
+
+        final CompletableFuture<Void> paneLoaded = new CompletableFuture<>();
+        final long paneStart = PluginMetrics.getInstance().start();
+        paneLoadedFutures.put(pluginName, paneLoaded);
+        final ScheduledFuture<?> timeoutTask = getTimeoutScheduler().schedule(
+                () -> paneLoaded.completeExceptionally(new TimeoutException()), timeout, unit);
+
+        //Runs in every case, a returned future that was cancelled is not completed by the install anymore
+        final CompletableFuture<Messages.ErrorStatus> result = new CompletableFuture<>();
+        paneLoaded.whenComplete((v, error) -> {
+            timeoutTask.cancel(false);
+            paneLoadedFutures.remove(pluginName, paneLoaded);
+            PluginMetrics.getInstance().record(pluginName, PluginMetrics.Phase.PANE_LOAD, paneStart, error == null);
+            if(error != null) {
+                plugin.setInstalled(false);
+                result.complete(Messages.ErrorStatus.LOADING_ERROR);
+                return;
+            }
+            //The normal load stage may take long, so neither the event publisher that reported the pane nor the caller runs it
+            getInstallExecutor().execute(() -> {
+                if(result.isCancelled()) plugin.setInstalled(false);
+                else result.complete(finishInstall(plugin, pluginName));
+            });
+        });
+        result.whenComplete((status, error) -> { if(result.isCancelled()) paneLoaded.cancel(false); });
+
+        try {
+            PluginEventGenerator.getInstance().installPlugin(this, pluginName);
+        } catch(RuntimeException e) {
+            paneLoaded.completeExceptionally(e);
+        }
+        if(plugin.isPaneLoaded()) paneLoaded.complete(null);
+
+        return result;
+    }
+
+    private Messages.ErrorStatus finishInstall(PluginInstance plugin, String pluginName) {
+        boolean installed = false;
+        try {
+            //Check if Plugin stage loaded successfully
+            if(plugin.loadStage(LoadStageType.NORMAL_LOAD)) installed = true;
+            else {
+                //Since error message was returned, show message box.
+                if(plugin.getErrorMessage() != null) {
+                    showErrorMessage(pluginName, plugin.getErrorMessage(),
+                            Messages.ErrorStage.INSTALL, Messages.ErrorType.MESSAGE);
+                } else {
+                    showErrorMessage(pluginName,"",
+                            Messages.ErrorStage.INSTALL, Messages.ErrorType.NO_MESSAGE);
+                }
+
+                //Since error occurred, attempt to unloadPlugin Plugin
+                unloadPlugin(plugin, false);
+            }
+        } catch(Exception e) {
+            //Catches uncaught exceptions when Plugin stage is loaded.
+            showErrorMessage(pluginName, generateErrorString(e),
+                    Messages.ErrorStage.INSTALL, Messages.ErrorType.EXCEPTION);
+
+            //Since exception occurred, attempt to unloadPlugin Plugin
+            unloadPlugin(plugin, false);
+        } finally {
+            plugin.setInstalled(installed);
+        }
+        return installed ? Messages.ErrorStatus.NO_ERROR : Messages.ErrorStatus.LOADING_ERROR;
+    }
+
+    private Executor getInstallExecutor() { return InstallExecutorHolder.INSTANCE; }
+
+    private static final class InstallExecutorHolder {
+        private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(r -> {
+            final Thread thread = new Thread(r, "PluginManager-Install");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private ScheduledExecutorService getTimeoutScheduler() { return TimeoutSchedulerHolder.INSTANCE; }
+
+    private static final class TimeoutSchedulerHolder {
+        private static final ScheduledThreadPoolExecutor INSTANCE = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "PluginManager-Timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        static { INSTANCE.setRemoveOnCancelPolicy(true); }
+    }
+
+    public Messages.ErrorStatus uninstallPlugin(Object source, String pluginName) {
+        final PluginInstance plugin = getInstalledPlugin(pluginName);
+        if(isPluginLoaded(pluginName)) {
+            if(plugin.transitionState(PluginInstance.PluginState.INSTALLED, PluginInstance.PluginState.UNINSTALLING)) {
+                Messages.ErrorStatus result = Messages.ErrorStatus.UNLOADING_ERROR;
+                try {
+                    result = unloadPlugin(plugin,true);
+                } finally {
+                    plugin.setInstalled(result != Messages.ErrorStatus.NO_ERROR);
+                }
+                if(result == Messages.ErrorStatus.NO_ERROR) {
+                    //External plugins leave the pool so their class loader can be garbage collected
+                    if(plugin.getPluginClassLoader() != null) PluginPool.getInstance().removePlugin(plugin);
+                    PluginEventGenerator.getInstance().uninstallPlugin(this, pluginName);
+                }
+                return result;
+            } else if(plugin.isInstalled() || plugin.getState() == PluginInstance.PluginState.INSTALLING) {
+                return Messages.ErrorStatus.OPERATION_IN_PROGRESS;
+            } else {return Messages.ErrorStatus.NOT_INSTALLED;}
+        } else return Messages.ErrorStatus.NOT_LOADED;
+    }
+
+    /**
+     * Replaces the loaded plugin with the same name by the new instance, lookups return the new instance right away
+     * so the plugin is never missing. The replaced instance is unloaded once its in-flight calls returned and the
+     * future completes with the status of that unload. If the calls do not return within the drain timeout the
+     * future completes with TIMED_OUT and the old instance is left to the garbage collector without being unloaded.
+     * An installed plugin is installed again on the new instance.
+     */
+    public CompletableFuture<Messages.ErrorStatus> swapPlugin(Object source, PluginInstance replacement) {
+        if(!replacement.readPluginDetails()) return CompletableFuture.completedFuture(Messages.ErrorStatus.LOADING_ERROR);
+        final String pluginName = replacement.getPluginName();
+        final PluginInstance previous = PluginPool.getInstance().replacePlugin(replacement);
+        if(previous == null || previous == replacement) return CompletableFuture.completedFuture(Messages.ErrorStatus.NO_ERROR);
+
+        final boolean wasInstalled = previous.isInstalled();
+        final CompletableFuture<Void> drained = previous.retire();
+        final ScheduledFuture<?> timeoutTask = getTimeoutScheduler().schedule(
+                () -> drained.completeExceptionally(new TimeoutException()), swapDrainTimeoutMillis, TimeUnit.MILLISECONDS);
+        //Runs on the thread that finished the last in-flight call
+        final CompletableFuture<Messages.ErrorStatus> result = drained.handle((v, error) -> {
+            timeoutTask.cancel(false);
+            final Messages.ErrorStatus status = error != null ? Messages.ErrorStatus.TIMED_OUT : unloadPlugin(previous, wasInstalled);
+            if(previous.getPluginClassLoader() != null) previous.getPluginClassLoader().closeJar();
+            return status;
+        });
+
+        if(wasInstalled) {
+            //The pane of the old instance goes away and the new instance gets one of its own
+            PluginEventGenerator.getInstance().uninstallPlugin(this, pluginName);
+            installPluginAsync(source, pluginName);
+        }
+        return result;
+    }
+
+    /**
+     * Takes an external plugin out of service, it is uninstalled first if needed and leaves the pool on success
+     * even if it does not use unloading.
+     */
+    Messages.ErrorStatus unloadExternalPlugin(PluginInstance plugin) {
+        final Messages.ErrorStatus result = plugin.isInstalled() && isPluginLoaded(plugin.getPluginName())
+                ? uninstallPlugin(this, plugin.getPluginName())
+                : unloadPlugin(plugin, false);
+        if(result == Messages.ErrorStatus.NO_ERROR) PluginPool.getInstance().removePlugin(plugin);
+        return result;
+    }
+
+    Messages.ErrorStatus unloadPlugin(PluginInstance plugin, boolean isUninstalling) {
+        final String pluginName = plugin.getPluginName();
+        final Messages.ErrorStage errorStage =
+                isUninstalling ? Messages.ErrorStage.UNINSTALL : Messages.ErrorStage.UNLOAD;
+        try {
+            if(plugin.useUnload()) {
+                //Check if Plugin unloaded successfully
+                if(plugin.unloadPlugin()) return Messages.ErrorStatus.NO_ERROR;
+                else {
+                    //Since error message was returned, show message box.
+                    if(plugin.getErrorMessage() != null) {
+                        showErrorMessage(pluginName, plugin.getErrorMessage(), errorStage, Messages.ErrorType.MESSAGE);
+                    } else {
+                        showErrorMessage(pluginName,"", errorStage, Messages.ErrorType.NO_MESSAGE);
+                    }
+
+                    return Messages.ErrorStatus.UNLOADING_ERROR;
+                }
+            } return Messages.ErrorStatus.NO_ERROR;
+
+        } catch(Exception e) {
+            //Catches uncaught exceptions when Plugin is unloaded.
+            showErrorMessage(pluginName, generateErrorString(e), errorStage, Messages.ErrorType.EXCEPTION);
+
+            return Messages.ErrorStatus.UNLOADING_ERROR;
+        }
+    }
+
+    static String generateErrorString(Throwable e) {
+        return "[ " + e.getClass().getCanonicalName() + " ]" + System.getProperty("line.separator") + e.getMessage();
+    }
+
+    private void showErrorMessage(String pluginName, String message, Messages.ErrorStage stage, Messages.ErrorType type){
+        String text = "";
+        String stageName = "";
+        boolean showUnhandled = false;
+
+        switch(stage) {
+            case INSTALL:
+                stageName = "install";
+                break;
+            case UNINSTALL:
+                stageName = "uninstall";
+                break;
+            case UNLOAD:
+                stageName = "unloadPlugin";
+                break;
+        }
+
+        switch(type) {
+
+            case MESSAGE:
+                text = message;
+                break;
+            case NO_MESSAGE:
+                text = "Could not retrieve error message!";
+                break;
+            case EXCEPTION:
+                text = message;
+                showUnhandled = true;
+                break;
+        }
+
+        final String headerText = quoteString(pluginName) +
+                " Plugin failed to " + stageName + (showUnhandled ? "!" : "! Uncaught Exception!");
+
+        reportError(pluginName, errorTitle, headerText, text);
+    }
+
+    public static HashSet<PluginInstance> filterPlugins(Predicate<PluginInstance> p) {
+        return PluginPool.getInstance().filterPlugins(p);
+    }
+
+    public static PluginInstance filterPluginsSingle(Predicate<PluginInstance> p) {
+        return PluginPool.getInstance().filterPluginsSingle(p);
+    }
+
+    @Override
+    public void UpdateLoadedReceived(UpdateLoadedEvent e) {
+        getLoadedPlugin(e.getPluginName()).setPaneLoaded(true);
+        //Wakes up an install that is waiting for this pane
+        final CompletableFuture<Void> paneLoaded = paneLoadedFutures.get(e.getPluginName());
+        if(paneLoaded != null) paneLoaded.complete(null);
+    }
+
+    public static String quoteString(String str) {
+        return "\"" + str + "\"";
+    }
+
+    public static class PluginPool {
+        private final ConcurrentHashMap<String, PluginInstance> plugins = new ConcurrentHashMap<>();
+        private final EnumMap<LoadStageType, Set<PluginInstance>> pluginsByStage = new EnumMap<>(LoadStageType.class);
+        private final ConcurrentHashMap<String, Set<PluginInstance>> pluginsByType = new ConcurrentHashMap<>();
+        private final Set<PluginInstance> installedPlugins = ConcurrentHashMap.newKeySet();
+        //The UI objects of the plugins, for example the panes the JavaFX module creates from their FXML
+        private final ConcurrentHashMap<String, Object> pluginObjects = new ConcurrentHashMap<>();
+
+        private PluginPool() {
+            for(final LoadStageType stage : LoadStageType.values()) {
+                pluginsByStage.put(stage, ConcurrentHashMap.newKeySet());
+            }
+        }
+
+        private static final class InstanceHolder { private static final PluginPool INSTANCE = new PluginPool(); }
+
+        public static PluginPool getInstance() { return InstanceHolder.INSTANCE; }
+
+        /**
+         * Returns a copy of the plugins in the pool, changing it does not change the pool.
+         * Before the pool was indexed this returned the live set, use {@link #addPlugin} and {@link #removePlugin} instead.
+         */
+        public HashSet<PluginInstance> getPlugins() { return new HashSet<>(plugins.values()); }
+        public int getPluginCount() { return plugins.size(); }
+
+        public void addPlugin(PluginInstance plugin) {
+            //Only the first plugin registered under a name is kept, see replacePlugin to register a new version
+            if(plugins.putIfAbsent(plugin.getPluginName(), plugin) == null) index(plugin);
+        }
+
+        /**
+         * Registers the plugin in place of the plugin with the same name, lookups by name switch to it atomically.
+         * Returns the replaced plugin or null if no plugin had the name.
+         */
+        public PluginInstance replacePlugin(PluginInstance plugin) {
+            final PluginInstance previous = plugins.put(plugin.getPluginName(), plugin);
+            if(previous != null && previous != plugin) unindex(previous);
+            index(plugin);
+            return previous;
+        }
+
+        /** Captures the info of the plugin again and moves it in the name and type indexes if they changed. */
+        public PluginMetadata refreshMetadata(PluginInstance plugin) {
+            final PluginMetadata previous = plugin.getMetadata();
+            final PluginMetadata current = PluginMetadata.of(plugin.getPluginInfo());
+            final boolean isPooled = plugins.get(previous.getName()) == plugin;
+            if(isPooled && !previous.getName().equals(current.getName())) {
+                if(plugins.putIfAbsent(current.getName(), plugin) != null) {
+                    throw new IllegalStateException("Plugin " + quoteString(current.getName()) + " already exists!");
+                }
+                plugins.remove(previous.getName(), plugin);
+            }
+            plugin.setMetadata(current);
+
+            if(isPooled && !previous.getType().equals(current.getType())) {
+                final Set<PluginInstance> typePlugins = pluginsByType.get(previous.getType());
+                if(typePlugins != null) typePlugins.remove(plugin);
+                pluginsByType.computeIfAbsent(current.getType(), k -> ConcurrentHashMap.newKeySet()).add(plugin);
+            }
+            return current;
+        }
+
+        public void addPluginObjects(String pluginNavString, Object pluginObject) {
+            pluginObjects.putIfAbsent(pluginNavString, pluginObject);
+        }
+
+        public void removePlugin(PluginInstance plugin) {
+            if(plugins.remove(plugin.getPluginName(), plugin)) {
+                removePluginObjects(plugin);
+                unindex(plugin);
+                if(plugin.getPluginClassLoader() != null) plugin.getPluginClassLoader().closeJar();
+            }
+        }
+
+        private void index(PluginInstance plugin) {
+            for(final LoadStageType stage : plugin.getStages()) { pluginsByStage.get(stage).add(plugin); }
+            pluginsByType.computeIfAbsent(plugin.getPluginType(), k -> ConcurrentHashMap.newKeySet()).add(plugin);
+            if(plugin.isInstalled()) installedPlugins.add(plugin);
+        }
+
+        private void unindex(PluginInstance plugin) {
+            for(final Set<PluginInstance> stagePlugins : pluginsByStage.values()) { stagePlugins.remove(plugin); }
+            final Set<PluginInstance> typePlugins = pluginsByType.get(plugin.getPluginType());
+            if(typePlugins != null) typePlugins.remove(plugin);
+            installedPlugins.remove(plugin);
+        }
+
+        public void removePluginObjects(PluginInstance plugin) { pluginObjects.remove(plugin.getPluginName()); }
+
+        /** Keeps the installed index in sync, called whenever the installed state of a plugin changes. */
+        void updateInstalled(PluginInstance plugin) {
+            if(plugins.get(plugin.getPluginName()) != plugin) return;
+            if(plugin.isInstalled()) installedPlugins.add(plugin);
+            else installedPlugins.remove(plugin);
+        }
+
+        public String getPluginNavString(String pluginName) {
+            if(pluginObjects.containsKey(pluginName)) return pluginName;
+            throw new IllegalArgumentException("Plugin Not Found!");
+        }
+
+        public Object getPluginObject(String pluginName) {
+            final Object pluginObject = pluginObjects.get(pluginName);
+            if(pluginObject != null) return pluginObject;
+            throw new IllegalArgumentException("Plugin Not Found!");
+        }
+
+        public <T> T getPluginObject(String pluginName, Class<T> type) {
+            final Object pluginObject = getPluginObject(pluginName);
+            if(type.isInstance(pluginObject)) return type.cast(pluginObject);
+            throw new IllegalArgumentException("Plugin object is not a " + type.getSimpleName() + "!");
+        }
+
+        public boolean pluginExists(String pluginName) { return plugins.containsKey(pluginName); }
+
+        public PluginInstance getPlugin(String pluginName) {
+            final PluginInstance plugin = plugins.get(pluginName);
+            if(plugin != null) return plugin;
+            throw new IllegalArgumentException("Plugin Not Found!");
+        }
+
+        /** Returns the plugin with the specified name or null if it does not exist. */
+        public PluginInstance findPlugin(String pluginName) { return plugins.get(pluginName); }
+
+        public HashSet<PluginInstance> getPluginsByStage(LoadStageType stage) {
+            return new HashSet<>(pluginsByStage.get(stage));
+        }
+
+        public HashSet<PluginInstance> getPluginsByType(String pluginType) {
+            final Set<PluginInstance> typePlugins = pluginsByType.get(pluginType);
+            return typePlugins == null ? new HashSet<>() : new HashSet<>(typePlugins);
+        }
+
+        public HashSet<PluginInstance> getInstalledPlugins() { return new HashSet<>(installedPlugins); }
+
+        public PluginInstance filterPluginsSingle(Predicate<PluginInstance> p) {
+            for (final PluginInstance plugin : plugins.values()) {
+                if (p.test(plugin)) {
+                    return plugin;
+                }
+            }
+            throw new IllegalArgumentException("Plugin Not Found!");
+        }
+
+        public HashSet<PluginInstance> filterPlugins(Predicate<PluginInstance> p) {
+            final HashSet<PluginInstance> result = new HashSet<>();
+            for (final PluginInstance plugin : plugins.values()) {
+                if (p.test(plugin)) {
+                    result.add(plugin);
+                }
+            }
+            return result;
+        }
+    }
+
+    public static class PluginLoader {
+        private volatile boolean useDiscoveryIndex = true;
+        private volatile boolean useLazyInstantiation = false;
+        private volatile PluginDiscoveryResult lastDiscoveryResult;
+
+        private PluginLoader() { /*Exists only to defeat instantiation.*/ }
+
+        private static final class InstanceHolder { private static final PluginLoader INSTANCE = new PluginLoader(); }
+
+        public static PluginLoader getInstance() { return InstanceHolder.INSTANCE; }
+
+        public boolean isDiscoveryIndexUsed() { return useDiscoveryIndex; }
+        public void setDiscoveryIndexUsed(boolean value) { useDiscoveryIndex = value; }
+
+        /**
+         * If enabled, plugins that declare their metadata in a descriptor or the manifest are not created
+         * until one of their stages is loaded or they are called.
+         */
+        public boolean isLazyInstantiationUsed() { return useLazyInstantiation; }
+        public void setLazyInstantiationUsed(boolean value) { useLazyInstantiation = value; }
+
+        public synchronized boolean loadInternalPlugins() {
+            final PluginErrorReporter errors = PluginManager.getInstance().beginErrorBatch();
+            try {
+                if(!useLazyInstantiation) {
+                    final Collection<? extends IPlugin> plugins = Lookup.getDefault().lookupAll(IPlugin.class);
+                    for(final IPlugin plugin : plugins) { loadPlugin(new PluginInstance(plugin)); }
+                    return true;
+                }
+
+                //Lookup items only create the plugin when the instance is requested
+                for(final Lookup.Item<IPlugin> item : Lookup.getDefault().lookupResult(IPlugin.class).allItems()) {
+                    final Class<? extends IPlugin> pluginClass = item.getType();
+                    PluginInfo info = null;
+                    final InputStream descriptor = pluginClass.getClassLoader() == null ? null :
+                            pluginClass.getClassLoader().getResourceAsStream(
+                                    PluginDescriptor.getDescriptorName(pluginClass.getName()));
+                    if(descriptor != null) {
+                        try {
+                            info = PluginDescriptor.read(descriptor);
+                        } catch(IOException e) {
+                            //Fall back to creating the plugin to get its info
+                        }
+                    }
+                    if(info != null) {
+                        loadPlugin(new PluginInstance(item::getInstance, pluginClass.getClassLoader(), info,
+                                PluginInstance.readStages(pluginClass), PluginInstance.readDependencies(pluginClass)));
+                    } else loadPlugin(new PluginInstance(item.getInstance()));
+                }
+                return true;
+            } finally {
+                errors.endBatch();
+            }
+        }
+
+        public synchronized boolean loadExternalPlugins()
+                throws ClassNotFoundException, InstantiationException, IllegalAccessException, IOException {
+            final PluginErrorReporter errors = PluginManager.getInstance().beginErrorBatch();
+            try {
+                final HashSet<PluginInstance> plugins = searchExternalPlugins(PluginManager.getInstance().getPluginsDirectory());
+                for(final PluginInstance plugin : plugins) { loadPlugin(plugin); }
+                return true;
+            } finally {
+                errors.endBatch();
+            }
+        }
+
+        public synchronized PluginDiscoveryResult loadExternalPlugins(int parallelism) {
+            final PluginErrorReporter errors = PluginManager.getInstance().beginErrorBatch();
+            try {
+                final PluginDiscoveryResult result =
+                        searchExternalPlugins(PluginManager.getInstance().getPluginsDirectory(), parallelism);
+                for(final PluginInstance plugin : result.getPlugins()) { loadPlugin(plugin); }
+                return result;
+            } finally {
+                errors.endBatch();
+            }
+        }
+
+        /** Builds the dependency graph of all plugins in the pool, see {@link PluginLifecycleExecutor}. */
+        public PluginDependencyGraph getDependencyGraph() {
+            return new PluginDependencyGraph(PluginPool.getInstance().getPlugins());
+        }
+
+        /**
+         * Loads the plugins of a single jar again through a fresh class loader. Plugins that are still in the jar
+         * are swapped with {@link PluginManager#swapPlugin(Object, PluginInstance)}, so they stay available the
+         * whole time, plugins that are gone are unloaded. If the jar does not exist anymore or can not be read,
+         * its plugins are unloaded or kept respectively.
+         */
+        public synchronized PluginDiscoveryResult reloadExternalPlugins(File jar) {
+            final PluginErrorReporter errors = PluginManager.getInstance().beginErrorBatch();
+            try {
+                return reloadJar(jar);
+            } finally {
+                errors.endBatch();
+            }
+        }
+
+        private PluginDiscoveryResult reloadJar(File jar) {
+            final File file = jar.getAbsoluteFile();
+            final PluginDiscoveryResult result = new PluginDiscoveryResult();
+            final Map<String, PluginInstance> previous = new HashMap<>();
+            for(final PluginInstance plugin : getPluginsFromJar(file)) { previous.put(plugin.getPluginName(), plugin); }
+
+            //Only jars of the plugins directory are in its index
+            final String directory = PluginManager.getInstance().getPluginsDirectory();
+            final PluginDiscoveryIndex index = useDiscoveryIndex && directory != null
+                    && new File(directory).getAbsoluteFile().equals(file.getParentFile())
+                    ? PluginDiscoveryIndex.load(directory) : null;
+
+            if(file.isFile()) {
+                final JarScan scan;
+                try {
+                    scan = scanJar(file, index, useLazyInstantiation);
+                } catch(Exception | LinkageError e) {
+                    //The old version stays in service
+                    result.addError(file.getPath(), e);
+                    return result;
+                }
+                for(final PluginInstance plugin : scan.plugins) {
+                    //A plugin that is loaded from somewhere else is replaced as well, that is how updates arrive
+                    if(previous.remove(plugin.getPluginName()) != null || PluginPool.getInstance().pluginExists(plugin.getPluginName())) {
+                        PluginManager.getInstance().swapPlugin(this, plugin);
+                    } else loadPlugin(plugin);
+                }
+                result.addPlugins(scan.plugins, scan.classesScanned, scan.classesLoaded);
+            }
+
+            for(final PluginInstance plugin : previous.values()) {
+                if(PluginManager.getInstance().unloadExternalPlugin(plugin) != Messages.ErrorStatus.NO_ERROR) {
+                    result.addError(file.getPath(), new IllegalStateException(
+                            "Plugin " + quoteString(plugin.getPluginName()) + " could not be unloaded!"));
+                }
+            }
+            //The entry of a removed jar is dropped, the entry of a changed jar was replaced by the scan
+            if(index != null) saveIndex(index, listPluginJars(directory));
+            return result;
+        }
+
+        /** Returns the plugins in the pool that were loaded from the jar. */
+        public HashSet<PluginInstance> getPluginsFromJar(File jar) {
+            final File file = jar.getAbsoluteFile();
+            return PluginPool.getInstance().filterPlugins(p -> file.equals(p.getSourceFile()));
+        }
+
+        /** Starts watching the plugins directory, see {@link PluginDirectoryWatcher}. */
+        public PluginDirectoryWatcher watchExternalPlugins() throws IOException {
+            final PluginDirectoryWatcher watcher = new PluginDirectoryWatcher(PluginManager.getInstance().getPluginsDirectory());
+            watcher.start();
+            return watcher;
+        }
+
+        public HashSet<PluginInstance> getLoadedPluginsByStage(LoadStageType stage) {
+            return PluginPool.getInstance().getPluginsByStage(stage);
+        }
+        public HashSet<PluginInstance> getLoadedPluginsByType(String pluginType) {
+            return PluginPool.getInstance().getPluginsByType(pluginType);
+        }
+
+        private HashSet<PluginInstance> searchExternalPlugins(String directory)
+                throws IOException, ClassNotFoundException, InstantiationException, IllegalAccessException {
+            final PluginDiscoveryResult result = searchExternalPlugins(directory, 1);
+            //Like the parallel discovery a broken jar does not stop the others from loading
+            for(final Map.Entry<String, Throwable> error : result.getErrors().entrySet()) {
+                final PluginManager manager = PluginManager.getInstance();
+                manager.reportError(null, manager.getErrorTitle(),
+                        quoteString(new File(error.getKey()).getName()) + " could not be loaded!",
+                        generateErrorString(error.getValue()));
+            }
+            return new HashSet<>(result.getPlugins());
+        }
+
+        /**
+         * Returns the numbers and errors of the last discovery of the plugins directory, sequential or parallel,
+         * or null. The plugins are left out so the class loaders of unloaded plugins can be garbage collected.
+         */
+        public PluginDiscoveryResult getLastDiscoveryResult() { return lastDiscoveryResult; }
+
+        /**
+         * Scans all jar files in the directory on a pool of the specified size, a parallelism of one scans them
+         * one after the other on the calling thread.
+         * Plugins are returned in jar file name order and a failing jar does not stop the others from loading.
+         */
+        public PluginDiscoveryResult searchExternalPlugins(String directory, int parallelism) {
+            final File[] files = listPluginJars(directory);
+            final PluginDiscoveryResult result = new PluginDiscoveryResult();
+            if(files.length == 0) {
+                lastDiscoveryResult = result;
+                return result;
+            }
+
+            final PluginDiscoveryIndex index = useDiscoveryIndex ? PluginDiscoveryIndex.load(directory) : null;
+            final long metaspaceUsed = getMetaspaceUsed();
+            if(parallelism <= 1 || files.length == 1) {
+                for(final File file : files) {
+                    try {
+                        final JarScan scan = scanJar(file, index, useLazyInstantiation);
+                        result.addPlugins(scan.plugins, scan.classesScanned, scan.classesLoaded);
+                    } catch(Exception | LinkageError e) {
+                        result.addError(file.getAbsolutePath(), e);
+                    }
+                }
+            } else {
+                final ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, files.length));
+                try {
+                    final List<ForkJoinTask<JarScan>> tasks = new ArrayList<>(files.length);
+                    for(final File file : files) { tasks.add(pool.submit(() -> scanJar(file, index, useLazyInstantiation))); }
+
+                    //Merge in submission order so the result does not depend on which jar finished first
+                    for(int i = 0; i < files.length; i++) {
+                        try {
+                            final JarScan scan = tasks.get(i).get();
+                            result.addPlugins(scan.plugins, scan.classesScanned, scan.classesLoaded);
+                        } catch(ExecutionException e) {
+                            result.addError(files[i].getAbsolutePath(), e.getCause());
+                        } catch(InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            result.addError(files[i].getAbsolutePath(), e);
+                        }
+                    }
+                } finally {
+                    pool.shutdown();
+                }
+            }
+
+            result.setMetaspaceUsed(getMetaspaceUsed() - metaspaceUsed);
+            lastDiscoveryResult = result.withoutPlugins();
+            saveIndex(index, files);
+            return result;
+        }
+
+        private static void saveIndex(PluginDiscoveryIndex index, File[] files) {
+            if(index == null) return;
+            index.retain(files);
+            if(!index.isModified()) return;
+            try {
+                index.save();
+            } catch(IOException e) {
+                //The index is only a cache, the next start simply scans the jars again
+                final PluginManager manager = PluginManager.getInstance();
+                manager.reportError(null, manager.getErrorTitle(), "Plugin index could not be saved!",
+                        generateErrorString(e));
+            }
+        }
+
+        private static File[] listPluginJars(String directory) {
+            final File dir = new File(directory);
+            //If specified path is a file, throw exception
+            if(dir.isFile()) {
+                throw new IllegalArgumentException(quoteString(directory) + " must be a directory, not a file.");
+            }
+            //Get a list of all jar files in directory
+            final File[] files = dir.listFiles((dir1, name) -> (name.endsWith(".jar")));
+
+            //Returns an empty list if directory is empty
+            if(files == null) { return new File[0]; }
+
+            Arrays.sort(files, Comparator.comparing(File::getName));
+            return files;
+        }
+
+        private static JarScan scanJar(File file, PluginDiscoveryIndex index, boolean lazy)
+                throws IOException, ReflectiveOperationException {
+            final Object flightEvent = PluginFlightRecorder.beginJarScan();
+            JarScan result = null;
+            try {
+                result = readJar(file, index, lazy);
+                return result;
+            } finally {
+                if(flightEvent != null) {
+                    final StringJoiner names = new StringJoiner(", ");
+                    if(result != null) {
+                        for(final PluginInstance plugin : result.plugins) { names.add(plugin.getPluginName()); }
+                    }
+                    PluginFlightRecorder.endJarScan(flightEvent, file.getAbsolutePath(), names.toString(),
+                            result == null ? 0 : result.plugins.size(), result == null ? 0 : result.classesScanned,
+                            result != null);
+                }
+            }
+        }
+
+        private static JarScan readJar(File file, PluginDiscoveryIndex index, boolean lazy)
+                throws IOException, ReflectiveOperationException {
+            final List<PluginInstance> IPluginCollection = new ArrayList<>(1);
+            final long start = PluginMetrics.getInstance().start();
+
+            //Get name of jar file
+            final String jarPath = file.getAbsolutePath();
+
+            //Unchanged jars are not even opened, the plugin classes are taken from the index
+            final long size = file.length();
+            final long modified = file.lastModified();
+            PluginDiscoveryIndex.Entry cached = index == null ? null : index.getUnchanged(file);
+
+            //Otherwise the jar is opened once, the scan and the plugin class loader both read through that reader
+            final PluginJarFile jar = cached == null ? PluginJarFile.open(file) : null;
+            if(jar != null && index != null) cached = index.getTouched(jar);
+            final PluginClassLoader classLoader = new PluginClassLoader(file, jar, PluginManager.class.getClassLoader());
+
+            try {
+                final Collection<String> pluginClassNames;
+                final Map<String, Map<String, String>> descriptors;
+                int classesScanned = 0;
+                Manifest manifest = null;
+                String sha256 = null;
+
+                if(cached != null) {
+                    pluginClassNames = cached.classNames;
+                    descriptors = cached.descriptors;
+                } else {
+                    //Read the class headers only, nothing is loaded until it is known to be a plugin
+                    final PluginClassScanner scanner = new PluginClassScanner(PluginManager.class.getClassLoader());
+
+                    for(final String entryName : jar.getEntryNames()) {
+                        //Versioned and module entries are never plugins
+                        if(entryName.endsWith(".class") && !entryName.startsWith("META-INF/")
+                                && !entryName.endsWith("module-info.class")) {
+                            final Object flightEvent = PluginFlightRecorder.beginClassScan();
+                            int classSize = 0;
+                            boolean scanned = false;
+                            try {
+                                final byte[] bytes = jar.getEntryBytes(entryName);
+                                classSize = bytes.length;
+                                scanner.addClass(bytes);
+                                scanned = true;
+                            } finally {
+                                //A class that can not be read fails the scan of the jar, it is recorded as the cause
+                                PluginFlightRecorder.endClassScan(flightEvent, jarPath, entryName, classSize, scanned);
+                            }
+                        }
+                    }
+
+                    manifest = jar.getManifest();
+                    pluginClassNames = scanner.findPluginClasses();
+                    classesScanned = scanner.getClassCount();
+                    sha256 = PluginDiscoveryIndex.hash(jar);
+                    descriptors = new LinkedHashMap<>();
+                    for(final String name : pluginClassNames) {
+                        final Map<String, String> values = PluginDescriptor.readValues(jar, name);
+                        if(values != null) descriptors.put(name, values);
+                    }
+                }
+
+                final Map<String, String> manifestEntries =
+                        cached != null ? cached.manifest : PluginDiscoveryIndex.Entry.readManifest(manifest);
+                final Map<String, EnumSet<LoadStageType>> stages = new LinkedHashMap<>();
+                final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+                //Like the Plugin-* metadata attributes the manifest dependencies only describe a single plugin jar
+                final Set<String> manifestDependencies = pluginClassNames.size() == 1
+                        ? PluginInstance.splitDependencies(manifestEntries.get("Plugin-Dependencies"))
+                        : Collections.emptySet();
+                for(final String name : pluginClassNames) {
+                    PluginInfo info = null;
+                    if(lazy) {
+                        final Map<String, String> descriptor = descriptors.get(name);
+                        if(descriptor != null) info = PluginDescriptor.fromValues(descriptor);
+                        if(info == null && pluginClassNames.size() == 1) info = PluginDescriptor.fromManifest(manifestEntries);
+                    }
+
+                    EnumSet<LoadStageType> pluginStages = cached == null ? null : cached.stages.get(name);
+                    Set<String> pluginDependencies = cached == null ? null : cached.dependencies.get(name);
+                    if(info != null && pluginStages != null && pluginDependencies != null) {
+                        //Everything is known from the index, so not even the class has to be loaded yet
+                        stages.put(name, pluginStages);
+                        dependencies.put(name, pluginDependencies);
+                        IPluginCollection.add(new PluginInstance(() -> newPlugin(classLoader.loadClass(name)),
+                                classLoader, info, pluginStages, union(pluginDependencies, manifestDependencies)));
+                        continue;
+                    }
+
+                    final Class<?> classObject = classLoader.loadClass(name);
+                    if(pluginStages == null) pluginStages = PluginInstance.readStages(classObject);
+                    if(pluginDependencies == null) pluginDependencies = PluginInstance.readDependencies(classObject);
+                    stages.put(name, pluginStages);
+                    dependencies.put(name, pluginDependencies);
+                    if(info != null) {
+                        IPluginCollection.add(new PluginInstance(() -> newPlugin(classObject),
+                                classLoader, info, pluginStages, union(pluginDependencies, manifestDependencies)));
+                    } else {
+                        //If class implements IPlugin, add class to list
+                        final long instantiationStart = PluginMetrics.getInstance().start();
+                        final PluginInstance instance = new PluginInstance(newPlugin(classObject));
+                        PluginMetrics.getInstance().record(instance.getPluginName(), PluginMetrics.Phase.INSTANTIATION,
+                                instantiationStart, true);
+                        instance.addDependencies(manifestDependencies);
+                        IPluginCollection.add(instance);
+                    }
+                }
+
+                for(final PluginInstance plugin : IPluginCollection) {
+                    plugin.setSourceFile(file.getAbsoluteFile());
+                    PluginMetrics.getInstance().record(plugin.getPluginName(), PluginMetrics.Phase.DISCOVERY, start, true);
+                }
+
+                if(index != null && cached == null) {
+                    index.put(new PluginDiscoveryIndex.Entry(jarPath, size, modified, sha256,
+                            new ArrayList<>(pluginClassNames), stages, dependencies, manifestEntries, descriptors));
+                }
+
+                return new JarScan(IPluginCollection, classesScanned, classLoader.getDefinedClassCount());
+            } finally {
+                //The file is not held open between scans, classes that are loaded later open it again
+                classLoader.closeJar();
+            }
+        }
+
+        //Unlike the deprecated Class.newInstance the constructor wraps what the plugin threw, so it is unwrapped again
+        private static IPlugin newPlugin(Class<?> pluginClass) throws ReflectiveOperationException {
+            try {
+                return (IPlugin) pluginClass.getDeclaredConstructor().newInstance();
+            } catch(InvocationTargetException e) {
+                final Throwable cause = e.getCause();
+                if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if(cause instanceof Error) throw (Error) cause;
+                throw e;
+            }
+        }
+
+        private static Set<String> union(Set<String> first, Set<String> second) {
+            if(second.isEmpty()) return first;
+            final Set<String> result = new LinkedHashSet<>(first);
+            result.addAll(second);
+            return result;
+        }
+
+        private static long getMetaspaceUsed() {
+            for(final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if(pool.getName().equals("Metaspace")) return pool.getUsage().getUsed();
+            }
+            return 0;
+        }
+
+        private static final class JarScan {
+            private final List<PluginInstance> plugins;
+            private final int classesScanned;
+            private final int classesLoaded;
+
+            private JarScan(List<PluginInstance> plugins, int classesScanned, int classesLoaded) {
+                this.plugins = plugins;
+                this.classesScanned = classesScanned;
+                this.classesLoaded = classesLoaded;
+            }
+        }
+
+        private void loadPlugin(PluginInstance plugin) { plugin.loadPlugin(); }
+    }
+}
@@ -0,0 +1,47 @@
+package com.jgcomptech.tools.pluginsystem;
+
+/**
+ * Immutable copy of the {@link PluginInfo} of a plugin, taken when the plugin is loaded so reading the metadata
+ * neither calls into the plugin nor allocates. Values that are not defined read as {@code NOT_DEFINED}.
+ */
+public final class PluginMetadata {
+    static final PluginMetadata UNDEFINED = new PluginMetadata();
+
+    private final String name;
+    private final String version;
+    private final String type;
+    private final String author;
+    private final String company;
+    private final String license;
+    private final boolean isDefined;
+
+    //Used if the plugin has no info at all
+    private PluginMetadata() {
+        name = version = type = author = company = license = "INFO_NOT_DEFINED";
+        isDefined = false;
+    }
+
+    private PluginMetadata(PluginInfo info) {
+        name = PluginInstance.isNullOrEmpty(info.getName());
+        version = PluginInstance.isNullOrEmpty(info.getVersion());
+        type = PluginInstance.isNullOrEmpty(info.getType());
+        author = PluginInstance.isNullOrEmpty(info.getAuthor());
+        company = PluginInstance.isNullOrEmpty(info.getCompany());
+        license = PluginInstance.isNullOrEmpty(info.getLicense());
+        isDefined = true;
+    }
+
+    static PluginMetadata of(PluginInfo info) { return info == null ? UNDEFINED : new PluginMetadata(info); }
+
+    public String getName() { return name; }
+    public String getVersion() { return version; }
+    public String getType() { return type; }
+    public String getAuthor() { return author; }
+    public String getCompany() { return company; }
+    public String getLicense() { return license; }
+    /** Returns false if the plugin did not provide any info. */
+    public boolean isDefined() { return isDefined; }
+
+    @Override
+    public String toString() { return name + " " + version + ", by " + company; }
+}
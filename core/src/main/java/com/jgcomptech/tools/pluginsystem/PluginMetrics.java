@@ -0,0 +1,176 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts and times every lifecycle phase of every plugin. Recording only adds to counters that already exist,
+ * so the lifecycle does not allocate for it once a plugin was seen. Latencies are kept in power of two buckets,
+ * percentiles are accurate to a factor of two. Read the values with {@link #getSnapshot()} or through JMX
+ * after {@link #registerMBean()}.
+ */
+public final class PluginMetrics implements PluginMetricsMXBean {
+    public static final String OBJECT_NAME = "com.jgcomptech.tools.pluginsystem:type=PluginMetrics";
+    /**
+     * The start returned while recording is disabled. System.nanoTime() may return zero or a negative value,
+     * so zero can not mark a disabled start.
+     */
+    public static final long DISABLED = Long.MIN_VALUE;
+
+    /** The timed parts of the life of a plugin. */
+    public enum Phase {
+        /** Scanning the jar the plugin was found in. */
+        DISCOVERY,
+        /** Creating the plugin object. */
+        INSTANTIATION,
+        PRE_LOAD,
+        NORMAL_LOAD,
+        POST_LOAD,
+        /** From firing the install event until the pane reported that it is loaded. */
+        PANE_LOAD,
+        UNLOAD;
+
+        public static Phase of(LoadStageType stage) {
+            switch(stage) {
+                case PRE_LOAD:
+                    return PRE_LOAD;
+                case NORMAL_LOAD:
+                    return NORMAL_LOAD;
+                case POST_LOAD:
+                    return POST_LOAD;
+                //This should never happen
+                default: throw new IllegalStateException("Unknown Stage Type!");
+            }
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    static final int BUCKET_COUNT = 64;
+
+    private final ConcurrentHashMap<String, Timer[]> timers = new ConcurrentHashMap<>();
+    private volatile boolean isEnabled = true;
+
+    private PluginMetrics() { /*Exists only to defeat instantiation.*/ }
+
+    private static final class InstanceHolder { private static final PluginMetrics INSTANCE = new PluginMetrics(); }
+
+    public static PluginMetrics getInstance() { return InstanceHolder.INSTANCE; }
+
+    /** The latencies of one phase of one plugin. */
+    static final class Timer {
+        final LongAdder count = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        //Bucket i counts the durations from 2^i to 2^(i+1) - 1 nanoseconds
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+        void record(long nanos, boolean success) {
+            count.increment();
+            if(!success) failures.increment();
+            totalNanos.add(nanos);
+            buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(Math.max(1, nanos)));
+            long max;
+            while(nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) { /*Retry*/ }
+        }
+    }
+
+    @Override
+    public boolean isEnabled() { return isEnabled; }
+    @Override
+    public void setEnabled(boolean value) { isEnabled = value; }
+
+    /** Returns the start time to pass to {@link #record}, {@link #DISABLED} if recording is disabled. */
+    public long start() { return isEnabled ? System.nanoTime() : DISABLED; }
+
+    /** Records the time since the start as one run of the phase, a {@link #DISABLED} start is ignored. */
+    public void record(String pluginName, Phase phase, long start, boolean success) {
+        if(start == DISABLED || pluginName == null) return;
+        final long nanos = System.nanoTime() - start;
+        Timer[] pluginTimers = timers.get(pluginName);
+        if(pluginTimers == null) pluginTimers = timers.computeIfAbsent(pluginName, k -> newTimers());
+        pluginTimers[phase.ordinal()].record(nanos, success);
+    }
+
+    private static Timer[] newTimers() {
+        final Timer[] result = new Timer[PHASES.length];
+        for(int i = 0; i < result.length; i++) { result[i] = new Timer(); }
+        return result;
+    }
+
+    public PluginMetricsSnapshot getSnapshot() {
+        final Map<String, Map<Phase, PluginMetricsSnapshot.Latency>> result = new TreeMap<>();
+        for(final Map.Entry<String, Timer[]> entry : timers.entrySet()) {
+            final Map<Phase, PluginMetricsSnapshot.Latency> phases = new EnumMap<>(Phase.class);
+            for(final Phase phase : PHASES) {
+                final Timer timer = entry.getValue()[phase.ordinal()];
+                if(timer.count.sum() > 0) phases.put(phase, new PluginMetricsSnapshot.Latency(timer));
+            }
+            result.put(entry.getKey(), phases);
+        }
+        return new PluginMetricsSnapshot(result);
+    }
+
+    @Override
+    public void reset() { timers.clear(); }
+
+    /** Forgets the values of a plugin, for example after it was removed for good. */
+    public void reset(String pluginName) { timers.remove(pluginName); }
+
+    /** Registers the metrics with the platform MBean server, does nothing if they are already registered. */
+    public ObjectName registerMBean() throws JMException {
+        final ObjectName name = new ObjectName(OBJECT_NAME);
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if(!server.isRegistered(name)) server.registerMBean(this, name);
+        return name;
+    }
+
+    public void unregisterMBean() throws JMException {
+        final ObjectName name = new ObjectName(OBJECT_NAME);
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if(server.isRegistered(name)) server.unregisterMBean(name);
+    }
+
+    @Override
+    public String[] getPluginNames() { return new TreeSet<>(timers.keySet()).toArray(new String[0]); }
+
+    @Override
+    public String[] getPhases() {
+        final String[] result = new String[PHASES.length];
+        for(int i = 0; i < result.length; i++) { result[i] = PHASES[i].name(); }
+        return result;
+    }
+
+    @Override
+    public long getCount(String pluginName, String phase) { return getLatency(pluginName, phase).getCount(); }
+    @Override
+    public long getFailureCount(String pluginName, String phase) { return getLatency(pluginName, phase).getFailureCount(); }
+    @Override
+    public double getMeanMillis(String pluginName, String phase) { return toMillis(getLatency(pluginName, phase).getMeanNanos()); }
+    @Override
+    public double getMaxMillis(String pluginName, String phase) { return toMillis(getLatency(pluginName, phase).getMaxNanos()); }
+    @Override
+    public double getPercentileMillis(String pluginName, String phase, double percentile) {
+        return toMillis(getLatency(pluginName, phase).getPercentileNanos(percentile));
+    }
+
+    @Override
+    public String getSlowestPlugin(String phase) { return getSnapshot().getSlowestPlugin(Phase.valueOf(phase)); }
+
+    @Override
+    public String getSummary() { return getSnapshot().toString(); }
+
+    private PluginMetricsSnapshot.Latency getLatency(String pluginName, String phase) {
+        final Timer[] pluginTimers = timers.get(pluginName);
+        if(pluginTimers == null) throw new IllegalArgumentException("Plugin Not Found!");
+        return new PluginMetricsSnapshot.Latency(pluginTimers[Phase.valueOf(phase).ordinal()]);
+    }
+
+    private static double toMillis(double nanos) { return nanos / TimeUnit.MILLISECONDS.toNanos(1); }
+}
@@ -0,0 +1,24 @@
+package com.jgcomptech.tools.pluginsystem;
+
+/** The JMX view of the {@link PluginMetrics}, phases are given by their {@link PluginMetrics.Phase} name. */
+public interface PluginMetricsMXBean {
+    boolean isEnabled();
+    void setEnabled(boolean value);
+
+    String[] getPluginNames();
+    String[] getPhases();
+
+    long getCount(String pluginName, String phase);
+    long getFailureCount(String pluginName, String phase);
+    double getMeanMillis(String pluginName, String phase);
+    double getMaxMillis(String pluginName, String phase);
+    /** Returns the upper bound of the latency below which the percentile of runs fall, the percentile is 0 to 100. */
+    double getPercentileMillis(String pluginName, String phase, double percentile);
+
+    /** Returns the plugin with the longest total time in the phase or null if no plugin ran it. */
+    String getSlowestPlugin(String phase);
+    /** Returns a table of all plugins and phases. */
+    String getSummary();
+
+    void reset();
+}
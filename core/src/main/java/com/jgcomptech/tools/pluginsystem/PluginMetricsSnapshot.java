@@ -0,0 +1,98 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** The values of the {@link PluginMetrics} at one point in time. */
+public class PluginMetricsSnapshot {
+    private final Map<String, Map<PluginMetrics.Phase, Latency>> latencies;
+    private final long snapshotTimeMillis = System.currentTimeMillis();
+
+    PluginMetricsSnapshot(Map<String, Map<PluginMetrics.Phase, Latency>> latencies) {
+        this.latencies = Collections.unmodifiableMap(latencies);
+    }
+
+    /** The latencies of one phase of one plugin. */
+    public static class Latency {
+        private final long count;
+        private final long failureCount;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] buckets = new long[PluginMetrics.BUCKET_COUNT];
+
+        Latency(PluginMetrics.Timer timer) {
+            count = timer.count.sum();
+            failureCount = timer.failures.sum();
+            totalNanos = timer.totalNanos.sum();
+            maxNanos = timer.maxNanos.get();
+            for(int i = 0; i < buckets.length; i++) { buckets[i] = timer.buckets.get(i); }
+        }
+
+        public long getCount() { return count; }
+        public long getFailureCount() { return failureCount; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getMaxNanos() { return maxNanos; }
+        public double getMeanNanos() { return count == 0 ? 0 : (double) totalNanos / count; }
+
+        /** Returns the upper bound of the bucket the percentile falls in, never more than the maximum. */
+        public long getPercentileNanos(double percentile) {
+            if(percentile < 0 || percentile > 100) throw new IllegalArgumentException("Percentile must be 0 to 100!");
+            long total = 0;
+            for(final long bucket : buckets) { total += bucket; }
+            if(total == 0) return 0;
+
+            final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+            long seen = 0;
+            for(int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if(seen >= rank) return Math.min(maxNanos, i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1);
+            }
+            return maxNanos;
+        }
+    }
+
+    public Map<String, Map<PluginMetrics.Phase, Latency>> getLatencies() { return latencies; }
+
+    /** Returns the latencies of the phase of the plugin or null if the plugin never ran it. */
+    public Latency getLatency(String pluginName, PluginMetrics.Phase phase) {
+        final Map<PluginMetrics.Phase, Latency> phases = latencies.get(pluginName);
+        return phases == null ? null : phases.get(phase);
+    }
+
+    /** Returns the plugin with the longest total time in the phase or null if no plugin ran it. */
+    public String getSlowestPlugin(PluginMetrics.Phase phase) {
+        String result = null;
+        long slowest = -1;
+        for(final Map.Entry<String, Map<PluginMetrics.Phase, Latency>> entry : latencies.entrySet()) {
+            final Latency latency = entry.getValue().get(phase);
+            if(latency != null && latency.getTotalNanos() > slowest) {
+                slowest = latency.getTotalNanos();
+                result = entry.getKey();
+            }
+        }
+        return result;
+    }
+
+    /** Wall clock time of the snapshot in milliseconds since the epoch. */
+    public long getSnapshotTime() { return snapshotTimeMillis; }
+
+    @Override
+    public String toString() {
+        final String separator = System.getProperty("line.separator");
+        final StringBuilder result = new StringBuilder(String.format("%-24s %-14s %8s %8s %10s %10s %10s",
+                "Plugin", "Phase", "Count", "Failed", "Mean ms", "P99 ms", "Max ms"));
+        for(final Map.Entry<String, Map<PluginMetrics.Phase, Latency>> entry : latencies.entrySet()) {
+            for(final Map.Entry<PluginMetrics.Phase, Latency> phase : entry.getValue().entrySet()) {
+                final Latency latency = phase.getValue();
+                result.append(separator).append(String.format("%-24s %-14s %8d %8d %10.3f %10.3f %10.3f",
+                        entry.getKey(), phase.getKey(), latency.getCount(), latency.getFailureCount(),
+                        toMillis(latency.getMeanNanos()), toMillis(latency.getPercentileNanos(99)),
+                        toMillis(latency.getMaxNanos())));
+            }
+        }
+        return result.toString();
+    }
+
+    private static double toMillis(double nanos) { return nanos / TimeUnit.MILLISECONDS.toNanos(1); }
+}
@@ -2,6 +2,8 @@ package com.jgcomptech.tools.pluginsystem;
 
 import java.security.*;
 
+//Policy is deprecated for removal since Java 17, the class stays until the sandbox is replaced
+@SuppressWarnings("removal")
 public class PluginSecurityPolicy extends Policy {
     /*@Override
     public PermissionCollection getPermissions(ProtectionDomain domain) {
@@ -0,0 +1,42 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.util.*;
+
+/** Result of one batch update check, see {@link PluginManager#checkForUpdates()}. */
+public class PluginUpdateSnapshot {
+    private final Map<String, Boolean> updateNeeded;
+    private final Set<String> unchecked;
+    private final long checkTimeMillis = System.currentTimeMillis();
+    private final long checkTimeNanos = System.nanoTime();
+
+    PluginUpdateSnapshot(Map<String, Boolean> updateNeeded, Set<String> unchecked) {
+        this.updateNeeded = Collections.unmodifiableMap(new TreeMap<>(updateNeeded));
+        this.unchecked = Collections.unmodifiableSet(new TreeSet<>(unchecked));
+    }
+
+    /** Returns true or false if the plugin answered in time, null if it did not or was not loaded at the time. */
+    public Boolean isUpdateNeeded(String pluginName) { return updateNeeded.get(pluginName); }
+
+    public String getUpdateStatus(String pluginName) {
+        final Boolean result = updateNeeded.get(pluginName);
+        return result == null ? "Unknown" : result ? "Needs Update" : "Current";
+    }
+
+    public Set<String> getPluginsNeedingUpdate() {
+        final Set<String> result = new TreeSet<>();
+        for(final Map.Entry<String, Boolean> entry : updateNeeded.entrySet()) {
+            if(entry.getValue()) result.add(entry.getKey());
+        }
+        return result;
+    }
+
+    /** Returns the names of all plugins whose check failed or did not finish before the deadline. */
+    public Set<String> getUncheckedPlugins() { return unchecked; }
+
+    public Map<String, Boolean> getUpdateStatuses() { return updateNeeded; }
+
+    /** Wall clock time of the check in milliseconds since the epoch. */
+    public long getCheckTime() { return checkTimeMillis; }
+
+    boolean isOlderThan(long ageMillis) { return System.nanoTime() - checkTimeNanos > ageMillis * 1_000_000L; }
+}
@@ -0,0 +1,17 @@
+package com.jgcomptech.tools.pluginsystem.events;
+
+/** What an asynchronous subscription does with a new event while its queue is full. */
+public enum OverflowPolicy {
+    /** The publisher waits until the listener made room. */
+    BLOCK,
+    /** The oldest queued event is discarded. */
+    DROP_OLDEST,
+    /** The new event is discarded. */
+    DROP_NEWEST,
+    /**
+     * An event is discarded if an event of the same type for the same plugin is still queued,
+     * if the queue is full anyway the oldest queued event is discarded.
+     * Events without a plugin name, like {@link UpdateLoadedBatchEvent}, are never merged.
+     */
+    COALESCE
+}
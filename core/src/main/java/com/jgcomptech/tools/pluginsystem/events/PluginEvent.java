@@ -3,9 +3,11 @@ package com.jgcomptech.tools.pluginsystem.events;
 import java.util.EventObject;
 
 public class PluginEvent extends EventObject {
+    private static final long serialVersionUID = 1L;
+
     private final String _pluginName;
 
-    PluginEvent(Object source, String pluginName) {
+    protected PluginEvent(Object source, String pluginName) {
         super(source);
         _pluginName = pluginName;
     }
@@ -0,0 +1,131 @@
+package com.jgcomptech.tools.pluginsystem.events;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers plugin events, including events that plugins define themselves by extending {@link PluginEvent}.
+ * A listener receives the events of the type it subscribed to and of all subtypes of it.
+ * The listener arrays are copied on write, publishing never takes a lock.
+ */
+public final class PluginEventBus {
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private static final PluginEventSubscription[] NO_SUBSCRIPTIONS = new PluginEventSubscription[0];
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final ConcurrentHashMap<Class<?>, PluginEventSubscription[]> subscriptions = new ConcurrentHashMap<>();
+
+    private PluginEventBus() { /*Exists only to defeat instantiation.*/ }
+
+    private static final class InstanceHolder {
+        private static final PluginEventBus INSTANCE = new PluginEventBus();
+    }
+
+    public static PluginEventBus getInstance() { return InstanceHolder.INSTANCE; }
+
+    //The pool is only started once the first asynchronous listener subscribes
+    private static final class ExecutorHolder {
+        private static final ExecutorService EXECUTOR =
+                Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+                    final Thread thread = new Thread(r, "PluginEventBus-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /** Subscribes a listener that is called on the publishing thread. */
+    public <E extends PluginEvent> PluginEventSubscription subscribe(Class<E> eventType,
+                                                                     PluginEventListener<? super E> listener) {
+        return add(new PluginEventSubscription(this, eventType, listener, 0, null, null));
+    }
+
+    public <E extends PluginEvent> PluginEventSubscription subscribeAsync(Class<E> eventType,
+                                                                          PluginEventListener<? super E> listener) {
+        return subscribeAsync(eventType, listener, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Subscribes a listener that is called on a pool thread. Events wait in a queue of the specified capacity,
+     * a publisher blocks while the queue is full.
+     */
+    public <E extends PluginEvent> PluginEventSubscription subscribeAsync(Class<E> eventType,
+                                                                          PluginEventListener<? super E> listener,
+                                                                          int capacity) {
+        return subscribeAsync(eventType, listener, capacity, OverflowPolicy.BLOCK);
+    }
+
+    /** Subscribes a listener that is called on a pool thread, the policy decides what happens if its queue is full. */
+    public <E extends PluginEvent> PluginEventSubscription subscribeAsync(Class<E> eventType,
+                                                                          PluginEventListener<? super E> listener,
+                                                                          int capacity, OverflowPolicy overflowPolicy) {
+        if(capacity <= 0) throw new IllegalArgumentException("Capacity must be greater than zero!");
+        if(overflowPolicy == null) throw new IllegalArgumentException("Overflow policy must not be null!");
+        return add(new PluginEventSubscription(this, eventType, listener, capacity, overflowPolicy,
+                ExecutorHolder.EXECUTOR));
+    }
+
+    private PluginEventSubscription add(PluginEventSubscription subscription) {
+        subscriptions.compute(subscription.getEventType(), (type, current) -> {
+            if(current == null) return new PluginEventSubscription[] { subscription };
+            final PluginEventSubscription[] result = Arrays.copyOf(current, current.length + 1);
+            result[current.length] = subscription;
+            return result;
+        });
+        return subscription;
+    }
+
+    /** Removes the first subscription of the listener for the event type. */
+    public boolean unsubscribe(Class<? extends PluginEvent> eventType, PluginEventListener<?> listener) {
+        for(final PluginEventSubscription subscription : subscriptions.getOrDefault(eventType, NO_SUBSCRIPTIONS)) {
+            if(subscription.getListener() == listener) return unsubscribe(subscription);
+        }
+        return false;
+    }
+
+    boolean unsubscribe(PluginEventSubscription subscription) {
+        final boolean[] removed = { false };
+        subscriptions.computeIfPresent(subscription.getEventType(), (type, current) -> {
+            final List<PluginEventSubscription> result = new ArrayList<>(Arrays.asList(current));
+            removed[0] = result.remove(subscription);
+            return result.isEmpty() ? null : result.toArray(NO_SUBSCRIPTIONS);
+        });
+        return removed[0];
+    }
+
+    /** Returns true if an event of the type would reach a listener, publishers use it to skip creating events. */
+    public boolean hasListeners(Class<? extends PluginEvent> eventType) {
+        if(subscriptions.isEmpty()) return false;
+        for(Class<?> type = eventType; type != PluginEvent.class.getSuperclass(); type = type.getSuperclass()) {
+            if(subscriptions.containsKey(type)) return true;
+        }
+        return false;
+    }
+
+    public void publish(PluginEvent event) {
+        final List<PluginEvent> events = Collections.singletonList(event);
+        for(Class<?> type = event.getClass(); type != PluginEvent.class.getSuperclass(); type = type.getSuperclass()) {
+            for(final PluginEventSubscription subscription : subscriptions.getOrDefault(type, NO_SUBSCRIPTIONS)) {
+                subscription.deliver(events);
+            }
+        }
+    }
+
+    /** Publishes the events as one batch, every listener receives all matching events in a single call. */
+    public void publishAll(Collection<? extends PluginEvent> events) {
+        final Map<PluginEventSubscription, List<PluginEvent>> batches = new LinkedHashMap<>();
+        for(final PluginEvent event : events) {
+            for(Class<?> type = event.getClass(); type != PluginEvent.class.getSuperclass(); type = type.getSuperclass()) {
+                for(final PluginEventSubscription subscription : subscriptions.getOrDefault(type, NO_SUBSCRIPTIONS)) {
+                    batches.computeIfAbsent(subscription, k -> new ArrayList<>()).add(event);
+                }
+            }
+        }
+        for(final Map.Entry<PluginEventSubscription, List<PluginEvent>> batch : batches.entrySet()) {
+            batch.getKey().deliver(batch.getValue());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.jgcomptech.tools.pluginsystem.events;
+
+import com.jgcomptech.tools.pluginsystem.jfr.PluginFlightRecorder;
+
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/** Fires the built-in plugin events through the {@link PluginEventBus}. */
+public class PluginEventGenerator {
+    //The bus only knows typed listeners, the adapters are kept so the listeners can be removed again
+    private final ConcurrentHashMap<InstallPluginListener, PluginEventSubscription> _installListeners = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UninstallPluginListener, PluginEventSubscription> _uninstallListeners = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UpdateLoadedListener, PluginEventSubscription> _updateLoadedListeners = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UpdateLoadedBatchListener, PluginEventSubscription> _updateLoadedBatchListeners = new ConcurrentHashMap<>();
+    private volatile UpdateLoadedCoalescer _updateLoadedCoalescer;
+
+    private PluginEventGenerator() { /*Exists only to defeat instantiation.*/ }
+
+    private static final class InstanceHolder {
+        private static final PluginEventGenerator INSTANCE = new PluginEventGenerator();
+    }
+
+    public static PluginEventGenerator getInstance() { return InstanceHolder.INSTANCE; }
+
+    private static PluginEventBus getBus() { return PluginEventBus.getInstance(); }
+
+    public void installPlugin(Object source, String pluginName) {
+        final Object flightEvent = PluginFlightRecorder.beginEventDispatch();
+        boolean success = false;
+        try {
+            //Only create the event if someone listens for it
+            if(getBus().hasListeners(InstallPluginEvent.class)) getBus().publish(new InstallPluginEvent(this, pluginName));
+            success = true;
+        } finally {
+            PluginFlightRecorder.endEventDispatch(flightEvent, "InstallPluginEvent", pluginName, success);
+        }
+    }
+
+    public void uninstallPlugin(Object source, String pluginName) {
+        final Object flightEvent = PluginFlightRecorder.beginEventDispatch();
+        boolean success = false;
+        try {
+            if(getBus().hasListeners(UninstallPluginEvent.class)) getBus().publish(new UninstallPluginEvent(this, pluginName));
+            success = true;
+        } finally {
+            PluginFlightRecorder.endEventDispatch(flightEvent, "UninstallPluginEvent", pluginName, success);
+        }
+    }
+
+    public void updatePluginLoaded(Object source, String pluginName) throws IllegalAccessException {
+        final Object flightEvent = PluginFlightRecorder.beginEventDispatch();
+        boolean success = false;
+        try {
+            if(getBus().hasListeners(UpdateLoadedEvent.class)) getBus().publish(new UpdateLoadedEvent(this, pluginName));
+
+            if(getBus().hasListeners(UpdateLoadedBatchEvent.class)) {
+                final UpdateLoadedCoalescer coalescer = _updateLoadedCoalescer;
+                if(coalescer != null) coalescer.add(pluginName);
+                else getBus().publish(new UpdateLoadedBatchEvent(this, Collections.singleton(pluginName), 1));
+            }
+            success = true;
+        } finally {
+            PluginFlightRecorder.endEventDispatch(flightEvent, "UpdateLoadedEvent", pluginName, success);
+        }
+    }
+
+    /**
+     * Merges the update loaded events for the batch listeners, a batch is delivered once the window elapsed after
+     * its first event or once it names the maximum number of plugins. The single event listeners are not affected.
+     */
+    public void setUpdateLoadedCoalescing(long window, TimeUnit unit, int maxBatchSize) {
+        if(window < 0 || maxBatchSize <= 0) throw new IllegalArgumentException("Invalid coalescing window or batch size!");
+        final UpdateLoadedCoalescer previous = _updateLoadedCoalescer;
+        _updateLoadedCoalescer = new UpdateLoadedCoalescer(this, window, unit, maxBatchSize);
+        if(previous != null) previous.flush();
+    }
+
+    /** Delivers the pending batch and sends every following update as a batch of its own. */
+    public void disableUpdateLoadedCoalescing() {
+        final UpdateLoadedCoalescer previous = _updateLoadedCoalescer;
+        _updateLoadedCoalescer = null;
+        if(previous != null) previous.flush();
+    }
+
+    public boolean isUpdateLoadedCoalescingEnabled() { return _updateLoadedCoalescer != null; }
+
+    /** Delivers the pending batch right away, for example once startup finished. */
+    public void flushUpdateLoaded() {
+        final UpdateLoadedCoalescer coalescer = _updateLoadedCoalescer;
+        if(coalescer != null) coalescer.flush();
+    }
+
+    public void addInstallListener(InstallPluginListener l) {
+        _installListeners.computeIfAbsent(l, k -> getBus().subscribe(InstallPluginEvent.class, k::InstallRequestReceived));
+    }
+    /**
+     * Adds a listener that is called on a pool thread through its own queue, so a slow listener can not hold back
+     * the plugin manager. Returns the subscription that exposes the queue metrics.
+     */
+    public PluginEventSubscription addInstallListener(InstallPluginListener l, int capacity, OverflowPolicy policy) {
+        return _installListeners.computeIfAbsent(l,
+                k -> getBus().subscribeAsync(InstallPluginEvent.class, k::InstallRequestReceived, capacity, policy));
+    }
+    public void removeInstallListener(InstallPluginListener l) {
+        final PluginEventSubscription subscription = _installListeners.remove(l);
+        if(subscription != null) subscription.cancel();
+    }
+    public void addUninstallListener(UninstallPluginListener l) {
+        _uninstallListeners.computeIfAbsent(l, k -> getBus().subscribe(UninstallPluginEvent.class, k::UninstallRequestReceived));
+    }
+    public PluginEventSubscription addUninstallListener(UninstallPluginListener l, int capacity, OverflowPolicy policy) {
+        return _uninstallListeners.computeIfAbsent(l,
+                k -> getBus().subscribeAsync(UninstallPluginEvent.class, k::UninstallRequestReceived, capacity, policy));
+    }
+    public void removeUninstallListener(UninstallPluginListener l) {
+        final PluginEventSubscription subscription = _uninstallListeners.remove(l);
+        if(subscription != null) subscription.cancel();
+    }
+    public void addUpdateLoadedListener(UpdateLoadedListener l) {
+        _updateLoadedListeners.computeIfAbsent(l, k -> getBus().subscribe(UpdateLoadedEvent.class, k::UpdateLoadedReceived));
+    }
+    public PluginEventSubscription addUpdateLoadedListener(UpdateLoadedListener l, int capacity, OverflowPolicy policy) {
+        return _updateLoadedListeners.computeIfAbsent(l,
+                k -> getBus().subscribeAsync(UpdateLoadedEvent.class, k::UpdateLoadedReceived, capacity, policy));
+    }
+    public void removeUpdateLoadedListener(UpdateLoadedListener l) {
+        final PluginEventSubscription subscription = _updateLoadedListeners.remove(l);
+        if(subscription != null) subscription.cancel();
+    }
+    public void addUpdateLoadedBatchListener(UpdateLoadedBatchListener l) {
+        _updateLoadedBatchListeners.computeIfAbsent(l,
+                k -> getBus().subscribe(UpdateLoadedBatchEvent.class, k::UpdateLoadedBatchReceived));
+    }
+    public void removeUpdateLoadedBatchListener(UpdateLoadedBatchListener l) {
+        final PluginEventSubscription subscription = _updateLoadedBatchListeners.remove(l);
+        if(subscription != null) subscription.cancel();
+    }
+}
@@ -0,0 +1,13 @@
+package com.jgcomptech.tools.pluginsystem.events;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface PluginEventListener<E extends PluginEvent> {
+    void onEvent(E event);
+
+    /** Receives events that were published or queued together, by default they are delivered one by one. */
+    default void onEvents(List<E> events) {
+        for(final E event : events) { onEvent(event); }
+    }
+}
@@ -0,0 +1,181 @@
+package com.jgcomptech.tools.pluginsystem.events;
+
+import com.jgcomptech.tools.pluginsystem.PluginError;
+import com.jgcomptech.tools.pluginsystem.PluginManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A listener registered on the {@link PluginEventBus}. Asynchronous subscriptions have their own bounded queue
+ * that is drained by one pool thread at a time, so events reach the listener in the order they were published.
+ * What happens when the queue is full is decided by the {@link OverflowPolicy} of the subscription.
+ * A listener that throws is reported to the error reporter of the {@link PluginManager} and keeps receiving events.
+ */
+public class PluginEventSubscription {
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final int MAX_BATCHES_PER_RUN = 16;
+
+    private final PluginEventBus bus;
+    private final Class<? extends PluginEvent> eventType;
+    private final PluginEventListener<PluginEvent> listener;
+    private final BlockingQueue<PluginEvent> queue;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    //Type and plugin name of the queued events, only used by the coalesce policy
+    private final Set<List<Object>> pendingKeys;
+    private final Executor executor;
+    private final AtomicBoolean isScheduled = new AtomicBoolean();
+    private final LongAdder deliveredCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    PluginEventSubscription(PluginEventBus bus, Class<? extends PluginEvent> eventType, PluginEventListener<?> listener,
+                            int capacity, OverflowPolicy overflowPolicy, Executor executor) {
+        this.bus = bus;
+        this.eventType = eventType;
+        this.listener = (PluginEventListener<PluginEvent>) listener;
+        this.queue = capacity > 0 ? new ArrayBlockingQueue<>(capacity) : null;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.pendingKeys = overflowPolicy == OverflowPolicy.COALESCE ? ConcurrentHashMap.newKeySet() : null;
+        this.executor = executor;
+    }
+
+    public Class<? extends PluginEvent> getEventType() { return eventType; }
+    public PluginEventListener<?> getListener() { return listener; }
+    public boolean isAsync() { return queue != null; }
+    /** Returns the number of events waiting for the listener, always zero for synchronous subscriptions. */
+    public int getQueueDepth() { return queue == null ? 0 : queue.size(); }
+    public int getQueueCapacity() { return capacity; }
+    /** Returns the overflow policy of the queue or null for synchronous subscriptions. */
+    public OverflowPolicy getOverflowPolicy() { return overflowPolicy; }
+    /** Number of events that were handed to the listener. */
+    public long getDeliveredCount() { return deliveredCount.sum(); }
+    /** Number of events that were discarded because the queue was full. */
+    public long getDroppedCount() { return droppedCount.sum(); }
+    /** Number of events that were merged into an event that was already queued. */
+    public long getCoalescedCount() { return coalescedCount.sum(); }
+
+    /** Removes the listener from the bus, events that are already queued are still delivered. */
+    public boolean cancel() { return bus.unsubscribe(this); }
+
+    void deliver(List<PluginEvent> events) {
+        if(queue == null) {
+            if(events.size() == 1) listener.onEvent(events.get(0));
+            else listener.onEvents(events);
+            deliveredCount.add(events.size());
+            return;
+        }
+
+        for(final PluginEvent event : events) {
+            if(!enqueue(event)) {
+                if(Thread.currentThread().isInterrupted()) break;
+                continue;
+            }
+            //Schedule after every event so a full queue is always being drained while the publisher waits
+            schedule();
+        }
+    }
+
+    @SuppressWarnings("fallthrough")
+    private boolean enqueue(PluginEvent event) {
+        switch(overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(event);
+                    return true;
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            case DROP_NEWEST:
+                if(queue.offer(event)) return true;
+                droppedCount.increment();
+                return false;
+            case COALESCE:
+                //Events without a plugin, like the update loaded batches, would all share one key and are never merged
+                if(event.getPluginName() != null && !pendingKeys.add(getKey(event))) {
+                    coalescedCount.increment();
+                    return false;
+                }
+                //Without a queued duplicate the event is queued like with drop oldest
+                //fall through
+            case DROP_OLDEST:
+                while(!queue.offer(event)) {
+                    final PluginEvent dropped = queue.poll();
+                    if(dropped != null) {
+                        if(pendingKeys != null) pendingKeys.remove(getKey(dropped));
+                        droppedCount.increment();
+                    }
+                }
+                return true;
+            //This should never happen
+            default: throw new IllegalStateException("Unknown Overflow Policy!");
+        }
+    }
+
+    private static List<Object> getKey(PluginEvent event) { return Arrays.asList(event.getClass(), event.getPluginName()); }
+
+    private void schedule() {
+        if(isScheduled.compareAndSet(false, true)) executor.execute(this::drain);
+    }
+
+    private void drain() {
+        final List<PluginEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        for(int run = 0; ; run++) {
+            //Give the pool thread back now and then so one busy listener does not starve the others
+            if(run == MAX_BATCHES_PER_RUN) {
+                try {
+                    executor.execute(this::drain);
+                    return;
+                } catch(RejectedExecutionException e) {
+                    //The pool is shutting down, so this thread keeps draining
+                    run = 0;
+                }
+            }
+
+            queue.drainTo(batch, MAX_BATCH_SIZE);
+            if(batch.isEmpty()) {
+                isScheduled.set(false);
+                //An event may have been queued after the queue was found empty but before the flag was cleared
+                if(queue.isEmpty() || !isScheduled.compareAndSet(false, true)) return;
+                continue;
+            }
+
+            //The keys are released before the delivery, a new event must not be merged into one already handed out
+            if(pendingKeys != null) {
+                for(final PluginEvent event : batch) { pendingKeys.remove(getKey(event)); }
+            }
+            deliveredCount.add(batch.size());
+            try {
+                if(batch.size() == 1) listener.onEvent(batch.get(0));
+                else listener.onEvents(new ArrayList<>(batch));
+            } catch(Throwable e) {
+                //A failing listener must not stop the delivery of the events that follow, nor leave the flag set
+                reportError(batch, e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void reportError(List<PluginEvent> batch, Throwable error) {
+        try {
+            final PluginManager manager = PluginManager.getInstance();
+            manager.getErrorReporter().report(new PluginError(batch.size() == 1 ? batch.get(0).getPluginName() : null,
+                    manager.getErrorTitle(), "Listener of " + eventType.getSimpleName() + " failed!", error.toString()));
+        } catch(RuntimeException e) {
+            //Reporting is best effort, the queue has to be drained either way
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.jgcomptech.tools.pluginsystem.events;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Merges the update loaded events of one coalescing window, the plugin name of the event itself is null.
+ * A subscription with {@link OverflowPolicy#COALESCE} never merges two batches.
+ */
+public class UpdateLoadedBatchEvent extends PluginEvent {
+    private static final long serialVersionUID = 1L;
+
+    private final Set<String> _pluginNames;
+    private final int _eventCount;
+
+    public UpdateLoadedBatchEvent(Object source, Set<String> pluginNames, int eventCount) {
+        super(source, null);
+        _pluginNames = Collections.unmodifiableSet(new LinkedHashSet<>(pluginNames));
+        _eventCount = eventCount;
+    }
+
+    /** Returns the names of all plugins that were updated, in the order they were first updated. */
+    public Set<String> getPluginNames() { return _pluginNames; }
+    /** Returns the number of update loaded events that were merged into this one. */
+    public int getEventCount() { return _eventCount; }
+}
@@ -0,0 +1,5 @@
+package com.jgcomptech.tools.pluginsystem.events;
+
+public interface UpdateLoadedBatchListener {
+    void UpdateLoadedBatchReceived(UpdateLoadedBatchEvent e);
+}
@@ -0,0 +1,70 @@
+package com.jgcomptech.tools.pluginsystem.events;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Collects the names of updated plugins and publishes them as one {@link UpdateLoadedBatchEvent} once the window
+ * elapsed after the first update or once the batch reached its maximum size, whatever happens first.
+ */
+final class UpdateLoadedCoalescer {
+    private final Object source;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private Set<String> pending = new LinkedHashSet<>();
+    private int pendingEvents = 0;
+    private ScheduledFuture<?> scheduledFlush;
+
+    private static final class SchedulerHolder {
+        private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "UpdateLoadedCoalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        static { SCHEDULER.setRemoveOnCancelPolicy(true); }
+    }
+
+    UpdateLoadedCoalescer(Object source, long window, TimeUnit unit, int maxBatchSize) {
+        this.source = source;
+        this.windowNanos = unit.toNanos(window);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    void add(String pluginName) {
+        final UpdateLoadedBatchEvent event;
+        synchronized(this) {
+            pending.add(pluginName);
+            pendingEvents++;
+            if(pending.size() < maxBatchSize) {
+                if(scheduledFlush == null) {
+                    scheduledFlush = SchedulerHolder.SCHEDULER.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+                }
+                return;
+            }
+            event = takeBatch();
+        }
+        //Listeners are called outside of the lock so updates can be collected while they run
+        PluginEventBus.getInstance().publish(event);
+    }
+
+    void flush() {
+        final UpdateLoadedBatchEvent event;
+        synchronized(this) {
+            if(pending.isEmpty()) return;
+            event = takeBatch();
+        }
+        PluginEventBus.getInstance().publish(event);
+    }
+
+    private UpdateLoadedBatchEvent takeBatch() {
+        final UpdateLoadedBatchEvent event = new UpdateLoadedBatchEvent(source, pending, pendingEvents);
+        pending = new LinkedHashSet<>();
+        pendingEvents = 0;
+        if(scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return event;
+    }
+}
@@ -1,5 +1,7 @@
 package com.jgcomptech.tools.pluginsystem.events;
 
 public class UpdateLoadedEvent extends PluginEvent {
+    private static final long serialVersionUID = 1L;
+
     public UpdateLoadedEvent(Object source, String pluginName) { super(source, pluginName); }
 }
@@ -0,0 +1,23 @@
+package com.jgcomptech.tools.pluginsystem.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("com.jgcomptech.tools.pluginsystem.ClassScan")
+@Label("Plugin Class Scan")
+@Description("Reading the header of one class while scanning a jar, only slow classes are recorded by default")
+@Threshold("1 ms")
+final class ClassScanEvent extends PluginFlightEvent {
+    @Label("Jar")
+    String jar;
+
+    @Label("Class")
+    String className;
+
+    @Label("Size")
+    @DataAmount
+    int size;
+}
@@ -0,0 +1,13 @@
+package com.jgcomptech.tools.pluginsystem.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.jgcomptech.tools.pluginsystem.EventDispatch")
+@Label("Plugin Event Dispatch")
+@Description("Publishing a plugin event to its listeners")
+final class EventDispatchEvent extends PluginFlightEvent {
+    @Label("Event Type")
+    String eventType;
+}
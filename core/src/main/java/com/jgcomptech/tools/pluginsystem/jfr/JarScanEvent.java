@@ -0,0 +1,19 @@
+package com.jgcomptech.tools.pluginsystem.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.jgcomptech.tools.pluginsystem.JarScan")
+@Label("Plugin Jar Scan")
+@Description("Scanning one jar for plugins, the plugin name lists all plugins found in it")
+final class JarScanEvent extends PluginFlightEvent {
+    @Label("Jar")
+    String jar;
+
+    @Label("Classes Scanned")
+    int classesScanned;
+
+    @Label("Plugin Count")
+    int pluginCount;
+}
@@ -0,0 +1,10 @@
+package com.jgcomptech.tools.pluginsystem.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.jgcomptech.tools.pluginsystem.Load")
+@Label("Plugin Load")
+@Description("Checking a plugin and adding it to the pool")
+final class LoadEvent extends PluginFlightEvent {}
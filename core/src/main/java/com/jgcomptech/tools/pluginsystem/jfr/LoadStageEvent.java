@@ -0,0 +1,10 @@
+package com.jgcomptech.tools.pluginsystem.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.jgcomptech.tools.pluginsystem.LoadStage")
+@Label("Plugin Load Stage")
+@Description("Running one load stage of a plugin")
+final class LoadStageEvent extends PluginFlightEvent {}
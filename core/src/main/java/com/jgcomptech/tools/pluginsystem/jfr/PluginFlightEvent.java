@@ -0,0 +1,18 @@
+package com.jgcomptech.tools.pluginsystem.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/** The fields every plugin system event has, the duration is recorded by the event itself. */
+@Category("Plugin System")
+abstract class PluginFlightEvent extends Event {
+    @Label("Plugin Name")
+    String pluginName;
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,158 @@
+package com.jgcomptech.tools.pluginsystem.jfr;
+
+import com.jgcomptech.tools.pluginsystem.LoadStageType;
+import jdk.jfr.EventType;
+
+/**
+ * Emits the Java Flight Recorder events of the plugin system. Every begin method returns the started event or null,
+ * the matching end method commits it. If no recording is running or the runtime has no flight recorder, begin
+ * returns null without creating anything and end does nothing, begin only checks the cached event type then.
+ * The events are only referenced from here, so the plugin system still runs on a Java 8 runtime without
+ * {@code jdk.jfr}.
+ */
+public final class PluginFlightRecorder {
+    private static final String SUCCESS = "SUCCESS";
+    private static final String FAILURE = "FAILURE";
+    private static final boolean isAvailable = detect();
+
+    private PluginFlightRecorder() { /*Exists only to defeat instantiation.*/ }
+
+    private static boolean detect() {
+        try {
+            Class.forName("jdk.jfr.Event", false, PluginFlightRecorder.class.getClassLoader());
+            return true;
+        } catch(ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /** Looked up on first use, only after the runtime was found to have a flight recorder. */
+    private static final class EventTypes {
+        private static final EventType JAR_SCAN = EventType.getEventType(JarScanEvent.class);
+        private static final EventType CLASS_SCAN = EventType.getEventType(ClassScanEvent.class);
+        private static final EventType LOAD_STAGE = EventType.getEventType(LoadStageEvent.class);
+        private static final EventType LOAD = EventType.getEventType(LoadEvent.class);
+        private static final EventType UNLOAD = EventType.getEventType(UnloadEvent.class);
+        private static final EventType EVENT_DISPATCH = EventType.getEventType(EventDispatchEvent.class);
+    }
+
+    /** Returns true if the runtime has a flight recorder. */
+    public static boolean isAvailable() { return isAvailable; }
+
+    private static String toOutcome(boolean success) { return success ? SUCCESS : FAILURE; }
+
+    public static Object beginJarScan() {
+        if(!isAvailable || !EventTypes.JAR_SCAN.isEnabled()) return null;
+        final JarScanEvent event = new JarScanEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void endJarScan(Object started, String jar, String pluginNames, int pluginCount,
+                                  int classesScanned, boolean success) {
+        if(started == null) return;
+        final JarScanEvent event = (JarScanEvent) started;
+        event.end();
+        if(!event.shouldCommit()) return;
+        event.pluginName = pluginNames;
+        event.stage = "DISCOVERY";
+        event.outcome = toOutcome(success);
+        event.jar = jar;
+        event.pluginCount = pluginCount;
+        event.classesScanned = classesScanned;
+        event.commit();
+    }
+
+    public static Object beginClassScan() {
+        if(!isAvailable || !EventTypes.CLASS_SCAN.isEnabled()) return null;
+        final ClassScanEvent event = new ClassScanEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void endClassScan(Object started, String jar, String className, int size, boolean success) {
+        if(started == null) return;
+        final ClassScanEvent event = (ClassScanEvent) started;
+        event.end();
+        if(!event.shouldCommit()) return;
+        event.stage = "DISCOVERY";
+        event.outcome = toOutcome(success);
+        event.jar = jar;
+        event.className = className;
+        event.size = size;
+        event.commit();
+    }
+
+    public static Object beginLoadStage() {
+        if(!isAvailable || !EventTypes.LOAD_STAGE.isEnabled()) return null;
+        final LoadStageEvent event = new LoadStageEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void endLoadStage(Object started, String pluginName, LoadStageType stage, boolean success) {
+        if(started == null) return;
+        final LoadStageEvent event = (LoadStageEvent) started;
+        event.end();
+        if(!event.shouldCommit()) return;
+        event.pluginName = pluginName;
+        event.stage = stage.name();
+        event.outcome = toOutcome(success);
+        event.commit();
+    }
+
+    public static Object beginLoad() {
+        if(!isAvailable || !EventTypes.LOAD.isEnabled()) return null;
+        final LoadEvent event = new LoadEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void endLoad(Object started, String pluginName, boolean success) {
+        if(started == null) return;
+        final LoadEvent event = (LoadEvent) started;
+        event.end();
+        if(!event.shouldCommit()) return;
+        event.pluginName = pluginName;
+        event.stage = "LOAD";
+        event.outcome = toOutcome(success);
+        event.commit();
+    }
+
+    public static Object beginUnload() {
+        if(!isAvailable || !EventTypes.UNLOAD.isEnabled()) return null;
+        final UnloadEvent event = new UnloadEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void endUnload(Object started, String pluginName, boolean success) {
+        if(started == null) return;
+        final UnloadEvent event = (UnloadEvent) started;
+        event.end();
+        if(!event.shouldCommit()) return;
+        event.pluginName = pluginName;
+        event.stage = "UNLOAD";
+        event.outcome = toOutcome(success);
+        event.commit();
+    }
+
+    public static Object beginEventDispatch() {
+        if(!isAvailable || !EventTypes.EVENT_DISPATCH.isEnabled()) return null;
+        final EventDispatchEvent event = new EventDispatchEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void endEventDispatch(Object started, String eventType, String pluginName, boolean success) {
+        if(started == null) return;
+        final EventDispatchEvent event = (EventDispatchEvent) started;
+        event.end();
+        if(!event.shouldCommit()) return;
+        event.pluginName = pluginName;
+        event.stage = "DISPATCH";
+        event.outcome = toOutcome(success);
+        event.eventType = eventType;
+        event.commit();
+    }
+}
@@ -0,0 +1,10 @@
+package com.jgcomptech.tools.pluginsystem.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.jgcomptech.tools.pluginsystem.Unload")
+@Label("Plugin Unload")
+@Description("Unloading a plugin")
+final class UnloadEvent extends PluginFlightEvent {}
@@ -0,0 +1,55 @@
+package com.jgcomptech.testplugins;
+
+import com.jgcomptech.tools.pluginsystem.IPlugin;
+import com.jgcomptech.tools.pluginsystem.PluginInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * The plugin the tests package into jars. It lives outside of the plugin system packages so each jar defines
+ * its own copy of the class, and it takes its name, version and optional download URL from the plugin.properties
+ * of its jar. A plugin with a download URL always needs an update.
+ */
+public class JarPlugin implements IPlugin {
+    public static final String PROPERTIES_NAME = "plugin.properties";
+
+    private final PluginInfo info = new PluginInfo();
+    private final String downloadURL;
+
+    public JarPlugin() {
+        final Properties properties = new Properties();
+        try(InputStream in = JarPlugin.class.getClassLoader().getResourceAsStream(PROPERTIES_NAME)) {
+            if(in != null) properties.load(in);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        info.setName(properties.getProperty("name", ""));
+        info.setVersion(properties.getProperty("version", "1.0"));
+        info.setType("Jar");
+        info.setAuthor("Test");
+        info.setCompany("Test");
+        info.setLicense("MIT");
+        downloadURL = properties.getProperty("downloadURL");
+    }
+
+    @Override public PluginInfo getPluginInfo() { return info; }
+
+    @Override public boolean unloadPlugin() { return true; }
+    @Override public boolean useUnload() { return true; }
+
+    @Override public boolean loadPreStage() { return true; }
+    @Override public boolean loadNormalStage() { return true; }
+    @Override public boolean loadPostStage() { return true; }
+
+    @Override public boolean hasError() { return false; }
+    @Override public String getErrorMessage() { return null; }
+
+    @Override public boolean isUpdateNeeded() { return downloadURL != null; }
+    @Override public String getDownloadURL() { return downloadURL; }
+
+    @Override public void setMainAppIconPath(String path) { }
+    @Override public String getMainAppIconPath() { return null; }
+}
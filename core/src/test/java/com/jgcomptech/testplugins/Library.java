@@ -0,0 +1,8 @@
+package com.jgcomptech.testplugins;
+
+/** Stands in for the library classes a plugin jar ships next to the plugin, it is never loaded. */
+public class Library {
+    public static final long CREATED = System.nanoTime();
+
+    public String describe() { return "Library created at " + CREATED; }
+}
@@ -0,0 +1,118 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+public class AsyncPluginErrorReporterTest {
+    private static final long DELAY_MILLIS = 50;
+
+    private final BlockingQueue<PluginErrorReport> reports = new LinkedBlockingQueue<>();
+    private final AsyncPluginErrorReporter reporter =
+            new AsyncPluginErrorReporter(reports::add, DELAY_MILLIS, TimeUnit.MILLISECONDS);
+
+    private static PluginError error(String pluginName) { return new PluginError(pluginName, "Title", null, "Failed"); }
+
+    private PluginErrorReport awaitReport() throws InterruptedException {
+        final PluginErrorReport result = reports.poll(10, TimeUnit.SECONDS);
+        assertNotNull("No report within 10 seconds", result);
+        return result;
+    }
+
+    @Test
+    public void batchIsDeliveredWhenItEnds() throws Exception {
+        reporter.beginBatch();
+        reporter.report(error("First"));
+        reporter.beginBatch();
+        reporter.report(error("Second"));
+        reporter.endBatch();
+        //Well past the delay, the timer must not cut the batch in two
+        assertNull(reports.poll(DELAY_MILLIS * 4, TimeUnit.MILLISECONDS));
+        assertTrue(reporter.isInBatch());
+
+        reporter.endBatch();
+        assertEquals(2, awaitReport().getErrorCount());
+        assertFalse(reporter.isInBatch());
+    }
+
+    @Test
+    public void errorOutsideOfBatchIsDeliveredAfterDelay() throws Exception {
+        reporter.report(error("Alone"));
+        assertEquals("Alone", awaitReport().getErrors().get(0).getPluginName());
+    }
+
+    @Test
+    public void batchStartedBeforeTimerHoldsErrorsBack() throws Exception {
+        reporter.report(error("Before"));
+        reporter.beginBatch();
+        reporter.report(error("During"));
+        assertNull(reports.poll(DELAY_MILLIS * 4, TimeUnit.MILLISECONDS));
+        reporter.endBatch();
+        assertEquals(2, awaitReport().getErrorCount());
+    }
+
+    @Test
+    public void failingHandlerIsLoggedAndLaterReportsArrive() throws Exception {
+        final BlockingQueue<LogRecord> records = new LinkedBlockingQueue<>();
+        final Handler handler = new Handler() {
+            @Override public void publish(LogRecord record) { records.add(record); }
+            @Override public void flush() { }
+            @Override public void close() { }
+        };
+        final Logger logger = Logger.getLogger(AsyncPluginErrorReporter.class.getName());
+        logger.addHandler(handler);
+        try {
+            final AsyncPluginErrorReporter failing = new AsyncPluginErrorReporter(report -> {
+                if(report.getPluginNames().contains("Broken")) throw new IllegalStateException("Handler failed on purpose");
+                reports.add(report);
+            }, DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            failing.beginBatch();
+            failing.report(error("Broken"));
+            failing.endBatch();
+            final LogRecord record = records.poll(10, TimeUnit.SECONDS);
+            assertNotNull("The failing handler was not logged", record);
+            assertEquals("Handler failed on purpose", record.getThrown().getMessage());
+            assertTrue(record.getMessage().contains("1 plugin error"));
+
+            failing.beginBatch();
+            failing.report(error("Fine"));
+            failing.endBatch();
+            assertEquals("Fine", awaitReport().getErrors().get(0).getPluginName());
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+
+    @Test
+    public void lifecycleRunIsOneReport() throws Exception {
+        PluginManager.getInstance().setErrorReporter(reporter);
+        final PluginLifecycleExecutor executor = new PluginLifecycleExecutor(2);
+        try {
+            final PluginInstance first = new PluginInstance(new TestPlugin("FailingFirst").setStageAction(() -> {
+                try {
+                    //Longer than the delay, a timer would deliver the first error alone
+                    Thread.sleep(DELAY_MILLIS * 4);
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return false;
+            }));
+            final PluginInstance second = new PluginInstance(new TestPlugin("FailingSecond").setStageAction(() -> false));
+            assertTrue(first.readPluginDetails());
+            assertTrue(second.readPluginDetails());
+
+            executor.run(Arrays.asList(first, second), LoadStageType.NORMAL_LOAD);
+            assertEquals(2, awaitReport().getErrorCount());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import com.jgcomptech.testplugins.Library;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.Assert.*;
+
+public class ExternalPluginDiscoveryTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ConcurrentLinkedQueue<PluginError> errors = new ConcurrentLinkedQueue<>();
+
+    @Before
+    public void setUp() throws Exception {
+        PluginManager.getInstance().setErrorReporter(errors::add);
+        PluginManager.getInstance().initializePluginDirectory(folder.getRoot().getPath(), "plugins");
+    }
+
+    @Test
+    public void sequentialDiscoverySkipsBrokenJars() throws Exception {
+        TestJars.writePluginJar(folder.getRoot().toPath().resolve("plugins/a.jar"), "Alpha", "1.0");
+        Files.write(folder.getRoot().toPath().resolve("plugins/b.jar"), new byte[] { 1, 2, 3 });
+        TestJars.writePluginJar(folder.getRoot().toPath().resolve("plugins/c.jar"), "Gamma", "1.0");
+
+        assertTrue(PluginManager.PluginLoader.getInstance().loadExternalPlugins());
+
+        assertTrue(PluginManager.PluginPool.getInstance().pluginExists("Alpha"));
+        assertTrue(PluginManager.PluginPool.getInstance().pluginExists("Gamma"));
+        assertEquals(1, errors.size());
+        assertTrue(errors.peek().getHeaderText().contains("b.jar"));
+    }
+
+    @Test
+    public void parallelDiscoveryReportsBrokenJarsPerJar() throws Exception {
+        TestJars.writePluginJar(folder.getRoot().toPath().resolve("plugins/a.jar"), "Alpha", "1.0");
+        Files.write(folder.getRoot().toPath().resolve("plugins/b.jar"), new byte[] { 1, 2, 3 });
+        TestJars.writePluginJar(folder.getRoot().toPath().resolve("plugins/c.jar"), "Gamma", "1.0");
+
+        final PluginDiscoveryResult result = PluginManager.PluginLoader.getInstance().searchExternalPlugins(
+                PluginManager.getInstance().getPluginsDirectory(), 4);
+
+        assertEquals(2, result.getPlugins().size());
+        assertEquals("Alpha", result.getPlugins().get(0).getPluginName());
+        assertEquals("Gamma", result.getPlugins().get(1).getPluginName());
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().keySet().iterator().next().endsWith("b.jar"));
+    }
+
+    @Test
+    public void onlyPluginClassesAreLoaded() throws Exception {
+        PluginManager.PluginLoader.getInstance().setDiscoveryIndexUsed(false);
+        TestJars.writePluginJar(folder.getRoot().toPath().resolve("plugins/a.jar"), "Alpha", "1.0", Library.class);
+        TestJars.writePluginJar(folder.getRoot().toPath().resolve("plugins/b.jar"), "Beta", "1.0", Library.class);
+
+        assertTrue(PluginManager.PluginLoader.getInstance().loadExternalPlugins());
+
+        //The sequential load reports the same numbers as the parallel discovery
+        final PluginDiscoveryResult result = PluginManager.PluginLoader.getInstance().getLastDiscoveryResult();
+        assertTrue(result.getPlugins().isEmpty());
+        assertEquals(4, result.getClassesScanned());
+        assertEquals(2, result.getClassesLoaded());
+        for(final PluginInstance plugin : PluginManager.PluginPool.getInstance().getPluginsByType("Jar")) {
+            assertEquals(1, plugin.getPluginClassLoader().getDefinedClassCount());
+        }
+    }
+}
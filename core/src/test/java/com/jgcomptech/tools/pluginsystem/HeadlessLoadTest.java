@@ -0,0 +1,53 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.Assert.*;
+
+/**
+ * Loads plugins, one of them without a name, without JavaFX on the class path. Before the core module the invalid
+ * plugin initialized the JavaFX toolkit to show its error. HeadlessStartupBenchmark measures the startup time and
+ * resident memory of the core module in a JVM of its own.
+ */
+public class HeadlessLoadTest {
+    private static final int PLUGIN_COUNT = 50;
+
+    private final ConcurrentLinkedQueue<PluginError> errors = new ConcurrentLinkedQueue<>();
+    private String headless;
+
+    @Before
+    public void setUp() { headless = System.setProperty("java.awt.headless", "true"); }
+
+    @After
+    public void tearDown() {
+        if(headless == null) System.clearProperty("java.awt.headless");
+        else System.setProperty("java.awt.headless", headless);
+    }
+
+    @Test
+    public void loadsWithoutJavaFX() {
+        assertNull("JavaFX must not be on the class path of the core module",
+                ClassLoader.getSystemClassLoader().getResource("javafx/application/Platform.class"));
+        PluginManager.getInstance().setErrorReporter(errors::add);
+
+        final List<PluginInstance> plugins = new ArrayList<>();
+        for(int i = 0; i < PLUGIN_COUNT; i++) {
+            final PluginInstance plugin = new PluginInstance(new TestPlugin("Headless" + i));
+            plugin.loadPlugin();
+            plugins.add(plugin);
+        }
+        new PluginInstance(new TestPlugin("")).loadPlugin();
+        for(final PluginInstance plugin : plugins) { assertTrue(plugin.loadStage(LoadStageType.NORMAL_LOAD)); }
+
+        //The error of the invalid plugin went to the error reporter instead of a dialog
+        assertEquals(1, errors.size());
+        assertEquals("Plugin name not defined!", errors.peek().getMessage());
+        assertEquals(PLUGIN_COUNT, PluginManager.getInstance().getLoadedPlugins().size());
+    }
+}
@@ -0,0 +1,131 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import com.jgcomptech.tools.pluginsystem.events.PluginEventGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Installs many plugins at once whose normal load stage is slow and measures when each install completes
+ * after its pane reported that it is loaded.
+ */
+public class InstallLatencyTest {
+    private static final int PLUGIN_COUNT = 16;
+    private static final long STAGE_MILLIS = 200;
+
+    private final ConcurrentLinkedQueue<PluginError> errors = new ConcurrentLinkedQueue<>();
+
+    @Before
+    public void setUp() { PluginManager.getInstance().setErrorReporter(errors::add); }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static TestPlugin load(String name, long stageMillis) {
+        final TestPlugin plugin = new TestPlugin(name, "Latency");
+        new PluginInstance(plugin).loadPlugin();
+        //Set afterwards, only the normal load stage of the install is slow
+        plugin.setStageAction(() -> {
+            sleep(stageMillis);
+            return true;
+        });
+        return plugin;
+    }
+
+    @Test
+    public void concurrentInstallsDoNotWaitForEachOther() throws Exception {
+        final PluginManager manager = PluginManager.getInstance();
+        final List<CompletableFuture<Messages.ErrorStatus>> installs = new ArrayList<>();
+        for(int i = 0; i < PLUGIN_COUNT; i++) {
+            load("Latency" + i, STAGE_MILLIS);
+            installs.add(manager.installPluginAsync(this, "Latency" + i));
+        }
+
+        final long[] latencies = new long[PLUGIN_COUNT];
+        final long start = System.nanoTime();
+        for(int i = 0; i < PLUGIN_COUNT; i++) {
+            final int index = i;
+            installs.get(i).thenRun(() -> latencies[index] = System.nanoTime());
+            PluginEventGenerator.getInstance().updatePluginLoaded(this, "Latency" + i);
+        }
+        final long publishMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        for(final CompletableFuture<Messages.ErrorStatus> install : installs) {
+            assertEquals(Messages.ErrorStatus.NO_ERROR, install.get(10, TimeUnit.SECONDS));
+        }
+        for(int i = 0; i < PLUGIN_COUNT; i++) { latencies[i] = TimeUnit.NANOSECONDS.toMillis(latencies[i] - start); }
+        Arrays.sort(latencies);
+
+        //One after the other the installs would take PLUGIN_COUNT * STAGE_MILLIS
+        assertTrue("Publishing took " + publishMillis + " ms", publishMillis < STAGE_MILLIS);
+        assertTrue("Slowest install took " + latencies[PLUGIN_COUNT - 1] + " ms",
+                latencies[PLUGIN_COUNT - 1] < PLUGIN_COUNT * STAGE_MILLIS / 2);
+        assertTrue("Errors: " + errors, errors.isEmpty());
+    }
+
+    @Test
+    public void slowInstallDoesNotDelayOthers() throws Exception {
+        final PluginManager manager = PluginManager.getInstance();
+        load("Slow", 3000);
+        load("Fast", 0);
+        final CompletableFuture<Messages.ErrorStatus> slow = manager.installPluginAsync(this, "Slow");
+        final CompletableFuture<Messages.ErrorStatus> fast = manager.installPluginAsync(this, "Fast");
+
+        final long start = System.nanoTime();
+        PluginEventGenerator.getInstance().updatePluginLoaded(this, "Slow");
+        PluginEventGenerator.getInstance().updatePluginLoaded(this, "Fast");
+        assertEquals(Messages.ErrorStatus.NO_ERROR, fast.get(10, TimeUnit.SECONDS));
+        final long fastMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertFalse(slow.isDone());
+        assertTrue("Fast install took " + fastMillis + " ms", fastMillis < 1000);
+        assertEquals(Messages.ErrorStatus.NO_ERROR, slow.get(10, TimeUnit.SECONDS));
+    }
+
+    private static PluginInstance.PluginState getState(String pluginName) {
+        return PluginManager.PluginPool.getInstance().findPlugin(pluginName).getState();
+    }
+
+    //A plugin that went back to the loaded state can be installed again
+    private void assertInstallable(String pluginName) throws Exception {
+        final CompletableFuture<Messages.ErrorStatus> install = PluginManager.getInstance().installPluginAsync(this, pluginName);
+        PluginEventGenerator.getInstance().updatePluginLoaded(this, pluginName);
+        assertEquals(Messages.ErrorStatus.NO_ERROR, install.get(10, TimeUnit.SECONDS));
+        assertEquals(PluginInstance.PluginState.INSTALLED, getState(pluginName));
+    }
+
+    @Test
+    public void cancelledInstallReturnsToLoaded() throws Exception {
+        load("Cancelled", 0);
+        final CompletableFuture<Messages.ErrorStatus> install =
+                PluginManager.getInstance().installPluginAsync(this, "Cancelled");
+        assertEquals(PluginInstance.PluginState.INSTALLING, getState("Cancelled"));
+
+        assertTrue(install.cancel(false));
+        assertEquals(PluginInstance.PluginState.LOADED, getState("Cancelled"));
+        assertInstallable("Cancelled");
+    }
+
+    @Test
+    public void timedOutInstallReturnsToLoaded() throws Exception {
+        load("TimedOut", 0);
+        final CompletableFuture<Messages.ErrorStatus> install =
+                PluginManager.getInstance().installPluginAsync(this, "TimedOut", 100, TimeUnit.MILLISECONDS);
+
+        assertEquals(Messages.ErrorStatus.LOADING_ERROR, install.get(10, TimeUnit.SECONDS));
+        assertEquals(PluginInstance.PluginState.LOADED, getState("TimedOut"));
+        assertInstallable("TimedOut");
+    }
+}
@@ -0,0 +1,80 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.Assert.*;
+
+/** Unloaded external plugins must not keep their class loader, and with it all of their classes, alive. */
+public class PluginClassLoaderCollectionTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ConcurrentLinkedQueue<PluginError> errors = new ConcurrentLinkedQueue<>();
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        PluginManager.getInstance().setErrorReporter(errors::add);
+        PluginManager.getInstance().initializePluginDirectory(folder.getRoot().getPath(), "plugins");
+        directory = folder.getRoot().toPath().resolve("plugins");
+    }
+
+    private static void awaitCollected(WeakReference<?> reference) throws InterruptedException {
+        for(int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            //Some collectors only clear weak references once there is pressure on the heap
+            final byte[][] garbage = new byte[16][];
+            for(int j = 0; j < garbage.length; j++) { garbage[j] = new byte[1024 * 1024]; }
+            Thread.sleep(20);
+        }
+        assertNull("The plugin class loader was not garbage collected", reference.get());
+    }
+
+    //Kept out of the test method so no local variable of its frame keeps the plugin reachable
+    private WeakReference<ClassLoader> installAndUninstall(String pluginName) throws Exception {
+        final PluginManager manager = PluginManager.getInstance();
+        final PluginInstance plugin = manager.getLoadedPlugin(pluginName);
+        final WeakReference<ClassLoader> result = new WeakReference<>(plugin.getPluginClassLoader());
+        //There is no application to load a pane in the tests
+        plugin.setPaneLoaded(true);
+        assertEquals(Messages.ErrorStatus.NO_ERROR, manager.installPlugin(this, pluginName));
+        assertEquals(Messages.ErrorStatus.NO_ERROR, manager.uninstallPlugin(this, pluginName));
+        return result;
+    }
+
+    private WeakReference<ClassLoader> unloadExternal(String pluginName) {
+        final PluginInstance plugin = PluginManager.getInstance().getLoadedPlugin(pluginName);
+        final WeakReference<ClassLoader> result = new WeakReference<>(plugin.getPluginClassLoader());
+        assertEquals(Messages.ErrorStatus.NO_ERROR, PluginManager.getInstance().unloadExternalPlugin(plugin));
+        return result;
+    }
+
+    @Test
+    public void loaderIsCollectedAfterUninstall() throws Exception {
+        TestJars.writePluginJar(directory.resolve("a.jar"), "Alpha", "1.0");
+        assertTrue(PluginManager.PluginLoader.getInstance().loadExternalPlugins());
+
+        final WeakReference<ClassLoader> loader = installAndUninstall("Alpha");
+        assertFalse(PluginManager.PluginPool.getInstance().pluginExists("Alpha"));
+        awaitCollected(loader);
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void loaderIsCollectedAfterUnloadExternalPlugin() throws Exception {
+        TestJars.writePluginJar(directory.resolve("b.jar"), "Beta", "1.0");
+        assertTrue(PluginManager.PluginLoader.getInstance().loadExternalPlugins());
+
+        final WeakReference<ClassLoader> loader = unloadExternal("Beta");
+        assertFalse(PluginManager.PluginPool.getInstance().pluginExists("Beta"));
+        awaitCollected(loader);
+        assertTrue(errors.isEmpty());
+    }
+}
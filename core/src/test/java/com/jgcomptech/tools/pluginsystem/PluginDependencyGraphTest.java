@@ -0,0 +1,65 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class PluginDependencyGraphTest {
+    private static PluginInstance create(String name, String... dependencies) {
+        final PluginInstance result = new PluginInstance(new TestPlugin(name));
+        assertTrue(result.readPluginDetails());
+        result.addDependencies(Arrays.asList(dependencies));
+        return result;
+    }
+
+    @Test
+    public void dependenciesComeFirstInTheLoadOrder() {
+        final PluginInstance app = create("App", "Library", "Logging");
+        final PluginInstance library = create("Library", "Logging");
+        final PluginInstance logging = create("Logging");
+
+        final PluginDependencyGraph graph = new PluginDependencyGraph(Arrays.asList(app, library, logging));
+
+        assertEquals(Arrays.asList(logging, library, app), graph.getLoadOrder());
+        assertEquals(Arrays.asList(library, logging), graph.getDependencies(app));
+        assertFalse(graph.hasCycle());
+        assertTrue(graph.getUnresolved().isEmpty());
+    }
+
+    @Test
+    public void missingDependencyIsUnresolvedWithItsDependents() {
+        final PluginInstance orphan = create("Orphan", "Missing");
+        final PluginInstance user = create("User", "Orphan");
+        final PluginInstance fine = create("Fine");
+
+        final PluginDependencyGraph graph = new PluginDependencyGraph(Arrays.asList(orphan, user, fine));
+
+        assertEquals(Collections.singletonList(fine), graph.getLoadOrder());
+        assertEquals("Missing dependency \"Missing\"!", graph.getUnresolved().get("Orphan"));
+        assertEquals("Dependency \"Orphan\" can not be loaded!", graph.getUnresolved().get("User"));
+        assertFalse(graph.hasCycle());
+    }
+
+    @Test
+    public void cycleIsDetected() {
+        final PluginInstance first = create("First", "Second");
+        final PluginInstance second = create("Second", "Third");
+        final PluginInstance third = create("Third", "First");
+        final PluginInstance dependent = create("Dependent", "First");
+        final PluginInstance fine = create("Fine");
+
+        final PluginDependencyGraph graph = new PluginDependencyGraph(Arrays.asList(first, second, third, dependent, fine));
+
+        assertTrue(graph.hasCycle());
+        //A plugin that depends on a cycle can not be loaded either
+        assertEquals(new HashSet<>(Arrays.asList("First", "Second", "Third", "Dependent")), graph.getCyclicPlugins());
+        assertEquals(Collections.singletonList(fine), graph.getLoadOrder());
+        for(final String name : graph.getCyclicPlugins()) {
+            assertTrue(graph.getUnresolved().get(name).startsWith("Dependency cycle between"));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/** Drops, replaces and removes jars in a watched temporary plugins directory. */
+public class PluginDirectoryWatcherTest {
+    private static final long DEBOUNCE_MILLIS = 100;
+    //What a reload of one small jar may take on top of the debounce, even on a slow build machine
+    private static final long RELOAD_MILLIS = 1000;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ConcurrentLinkedQueue<PluginError> errors = new ConcurrentLinkedQueue<>();
+    private final BlockingQueue<File> reloads = new LinkedBlockingQueue<>();
+    private Path directory;
+    private PluginDirectoryWatcher watcher;
+
+    @Before
+    public void setUp() throws Exception {
+        PluginManager.getInstance().setErrorReporter(errors::add);
+        PluginManager.getInstance().initializePluginDirectory(folder.getRoot().getPath(), "plugins");
+        directory = folder.getRoot().toPath().resolve("plugins");
+        watcher = new PluginDirectoryWatcher(directory.toString(), DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @After
+    public void tearDown() throws Exception { watcher.close(); }
+
+    //Jars are written next to the directory and moved in, like a copy that completes at once
+    private void drop(String fileName, String pluginName, String version) throws Exception {
+        final Path temp = TestJars.writePluginJar(folder.getRoot().toPath().resolve(fileName + ".tmp"), pluginName, version);
+        Files.move(temp, directory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private File awaitReload() throws InterruptedException {
+        final File result = reloads.poll(10, TimeUnit.SECONDS);
+        assertNotNull("No reload within 10 seconds", result);
+        return result;
+    }
+
+    @Test
+    public void droppedReplacedAndRemovedJarsAreFollowed() throws Exception {
+        watcher.setReloadListener((jar, result) -> reloads.add(jar));
+        watcher.start();
+
+        drop("a.jar", "Watched", "1.0");
+        assertEquals("a.jar", awaitReload().getName());
+        assertEquals("1.0", PluginManager.getInstance().getLoadedPlugin("Watched").getPluginInfo().getVersion());
+
+        drop("a.jar", "Watched", "2.0.0");
+        awaitReload();
+        assertEquals("2.0.0", PluginManager.getInstance().getLoadedPlugin("Watched").getPluginInfo().getVersion());
+
+        Files.delete(directory.resolve("a.jar"));
+        awaitReload();
+        assertFalse(PluginManager.PluginPool.getInstance().pluginExists("Watched"));
+        assertTrue("Errors: " + errors, errors.isEmpty());
+    }
+
+    @Test
+    public void replacedJarIsLiveShortlyAfterTheDebounce() throws Exception {
+        final BlockingQueue<Long> reloadTimes = new LinkedBlockingQueue<>();
+        watcher.setReloadListener((jar, result) -> reloadTimes.add(System.nanoTime()));
+        watcher.start();
+        //The first reload also loads the classes of the reload itself
+        drop("a.jar", "Timed", "1.0");
+        assertNotNull(reloadTimes.poll(10, TimeUnit.SECONDS));
+
+        final Path temp = TestJars.writePluginJar(folder.getRoot().toPath().resolve("a.jar.tmp"), "Timed", "2.0.0");
+        final long written = System.nanoTime();
+        Files.move(temp, directory.resolve("a.jar"), StandardCopyOption.REPLACE_EXISTING);
+        final Long reloaded = reloadTimes.poll(10, TimeUnit.SECONDS);
+        assertNotNull("No reload within 10 seconds", reloaded);
+
+        final long millis = TimeUnit.NANOSECONDS.toMillis(reloaded - written);
+        assertEquals("2.0.0", PluginManager.getInstance().getLoadedPlugin("Timed").getPluginInfo().getVersion());
+        assertTrue("Reloaded after " + millis + " ms, before the debounce elapsed", millis >= DEBOUNCE_MILLIS);
+        assertTrue("Reloaded after " + millis + " ms", millis < DEBOUNCE_MILLIS + RELOAD_MILLIS);
+    }
+
+    @Test
+    public void failingReloadIsReportedAndTheWatcherKeepsRunning() throws Exception {
+        watcher.setReloadListener((jar, result) -> {
+            reloads.add(jar);
+            if(jar.getName().equals("broken.jar")) throw new IllegalStateException("Listener failed on purpose");
+        });
+        watcher.start();
+
+        drop("broken.jar", "First", "1.0");
+        awaitReload();
+        drop("b.jar", "Second", "1.0");
+        assertEquals("b.jar", awaitReload().getName());
+
+        assertTrue(watcher.isRunning());
+        assertTrue(PluginManager.PluginPool.getInstance().pluginExists("Second"));
+        assertEquals(1, errors.size());
+        assertTrue(errors.peek().getHeaderText().contains("broken.jar"));
+    }
+
+    @Test
+    public void invalidJarIsReportedWithoutListener() throws Exception {
+        watcher.start();
+        Files.write(folder.getRoot().toPath().resolve("c.tmp"), new byte[] { 1, 2, 3 });
+        Files.move(folder.getRoot().toPath().resolve("c.tmp"), directory.resolve("c.jar"));
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while(errors.isEmpty() && System.nanoTime() < deadline) { Thread.sleep(20); }
+        assertEquals(1, errors.size());
+        assertTrue(errors.peek().getHeaderText().contains("c.jar"));
+        assertTrue(watcher.isRunning());
+    }
+}
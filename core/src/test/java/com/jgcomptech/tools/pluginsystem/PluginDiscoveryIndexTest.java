@@ -0,0 +1,143 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.Assert.*;
+
+public class PluginDiscoveryIndexTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ConcurrentLinkedQueue<PluginError> errors = new ConcurrentLinkedQueue<>();
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        PluginManager.getInstance().setErrorReporter(errors::add);
+        PluginManager.getInstance().initializePluginDirectory(folder.getRoot().getPath(), "plugins");
+        directory = folder.getRoot().toPath().resolve("plugins");
+        PluginManager.PluginLoader.getInstance().setDiscoveryIndexUsed(true);
+    }
+
+    @After
+    public void tearDown() { PluginManager.PluginLoader.getInstance().setLazyInstantiationUsed(false); }
+
+    private PluginDiscoveryResult discover() {
+        return PluginManager.PluginLoader.getInstance().searchExternalPlugins(directory.toString(), 1);
+    }
+
+    @Test
+    public void warmStartDoesNotOpenUnchangedJars() throws Exception {
+        PluginManager.PluginLoader.getInstance().setLazyInstantiationUsed(true);
+        TestJars.writePluginJar(directory.resolve("a.jar"), "Alpha", "1.0");
+        TestJars.writePluginJar(directory.resolve("b.jar"), "Beta", "1.0");
+
+        final PluginDiscoveryResult cold = discover();
+        assertEquals(2, cold.getClassesScanned());
+        assertTrue(Files.isRegularFile(directory.resolve(PluginDiscoveryIndex.INDEX_FILE_NAME)));
+
+        final PluginDiscoveryResult warm = discover();
+        assertEquals(2, warm.getPlugins().size());
+        assertEquals(0, warm.getClassesScanned());
+        assertEquals(0, warm.getClassesLoaded());
+        for(final PluginInstance plugin : warm.getPlugins()) {
+            assertFalse(plugin.isInstantiated());
+            assertFalse("Jar of " + plugin.getPluginName() + " was opened", plugin.getPluginClassLoader().isJarOpen());
+        }
+        assertEquals("Alpha", warm.getPlugins().get(0).getPluginName());
+
+        //The jar is only opened once the plugin is needed
+        final PluginInstance alpha = warm.getPlugins().get(0);
+        assertEquals("1.0", alpha.call(p -> p.getPluginInfo().getVersion()));
+        assertTrue(alpha.getPluginClassLoader().isJarOpen());
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void warmStartOfEagerPluginsSkipsTheScan() throws Exception {
+        TestJars.writePluginJar(directory.resolve("a.jar"), "Alpha", "1.0");
+        discover();
+
+        final PluginDiscoveryResult warm = discover();
+        assertEquals(1, warm.getPlugins().size());
+        assertEquals(0, warm.getClassesScanned());
+        assertEquals(1, warm.getClassesLoaded());
+    }
+
+    @Test
+    public void touchedJarIsNotScannedAgain() throws Exception {
+        final File jar = TestJars.writePluginJar(directory.resolve("a.jar"), "Alpha", "1.0").toFile();
+        discover();
+        assertTrue(jar.setLastModified(jar.lastModified() - 60000));
+
+        assertEquals(0, discover().getClassesScanned());
+        //The new time was written back, so the next start does not even hash the jar
+        assertNotNull(PluginDiscoveryIndex.load(directory.toString()).getUnchanged(jar));
+    }
+
+    @Test
+    public void reloadUpdatesTheIndex() throws Exception {
+        final File jar = TestJars.writePluginJar(directory.resolve("a.jar"), "Alpha", "1.0").toFile();
+        assertTrue(PluginManager.PluginLoader.getInstance().loadExternalPlugins());
+        assertNotNull(PluginDiscoveryIndex.load(directory.toString()).getUnchanged(jar));
+
+        TestJars.writePluginJar(jar.toPath(), "Alpha", "2.0.0");
+        assertTrue(jar.setLastModified(jar.lastModified() + 60000));
+        assertNull(PluginDiscoveryIndex.load(directory.toString()).getUnchanged(jar));
+
+        final PluginDiscoveryResult result = PluginManager.PluginLoader.getInstance().reloadExternalPlugins(jar);
+        assertFalse(result.getErrors().toString(), result.hasErrors());
+        assertNotNull(PluginDiscoveryIndex.load(directory.toString()).getUnchanged(jar));
+        assertEquals(0, discover().getClassesScanned());
+
+        //A removed jar leaves the index
+        assertTrue(jar.delete());
+        PluginManager.PluginLoader.getInstance().reloadExternalPlugins(jar);
+        assertFalse(PluginManager.PluginPool.getInstance().pluginExists("Alpha"));
+        final String index = new String(Files.readAllBytes(directory.resolve(PluginDiscoveryIndex.INDEX_FILE_NAME)), "UTF-8");
+        assertTrue(index.contains("jar.count=0"));
+    }
+
+    @Test
+    public void savedEntriesAreReadBackUnmixed() throws Exception {
+        //More than ten entries, so the keys of jar.1 share their start with those of jar.10
+        final PluginDiscoveryIndex index = PluginDiscoveryIndex.load(directory.toString());
+        final List<File> jars = new ArrayList<>();
+        for(int i = 0; i < 12; i++) {
+            final File jar = Files.write(directory.resolve("plugin" + i + ".jar"), new byte[i + 1]).toFile();
+            jars.add(jar);
+            final String className = "com.example.Plugin" + i;
+            index.put(new PluginDiscoveryIndex.Entry(jar.getAbsolutePath(), jar.length(), jar.lastModified(),
+                    "hash" + i, Collections.singletonList(className),
+                    Collections.singletonMap(className, EnumSet.of(LoadStageType.NORMAL_LOAD)),
+                    Collections.singletonMap(className, Collections.singleton("Dependency" + i)),
+                    Collections.singletonMap("Plugin-Dependencies", "Dependency" + i),
+                    Collections.singletonMap(className, Collections.singletonMap("name", "Plugin" + i))));
+        }
+        index.save();
+
+        final PluginDiscoveryIndex loaded = PluginDiscoveryIndex.load(directory.toString());
+        for(int i = 0; i < jars.size(); i++) {
+            final PluginDiscoveryIndex.Entry entry = loaded.getUnchanged(jars.get(i));
+            final String className = "com.example.Plugin" + i;
+            assertNotNull(entry);
+            assertEquals("hash" + i, entry.sha256);
+            assertEquals(Collections.singletonList(className), entry.classNames);
+            assertEquals(EnumSet.of(LoadStageType.NORMAL_LOAD), entry.stages.get(className));
+            assertEquals(Collections.singleton("Dependency" + i), entry.dependencies.get(className));
+            assertEquals("Dependency" + i, entry.manifest.get("Plugin-Dependencies"));
+            assertEquals(Collections.singletonMap(className, Collections.singletonMap("name", "Plugin" + i)),
+                    entry.descriptors);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/** Downloads jars from a local HTTP server that can be told to answer range requests wrongly. */
+public class PluginDownloaderTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ConcurrentLinkedQueue<String> ranges = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<PluginError> errors = new ConcurrentLinkedQueue<>();
+    private HttpServer server;
+    private volatile byte[] jar;
+    private volatile String checksum;
+    //Answers every range request with the whole jar, but still as a partial response
+    private volatile boolean misplacedRange;
+
+    @Before
+    public void setUp() throws Exception {
+        PluginManager.getInstance().setErrorReporter(errors::add);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        setJar(TestJars.createPluginJar("Downloaded", "2.0"));
+    }
+
+    @After
+    public void tearDown() { server.stop(0); }
+
+    private void setJar(byte[] bytes) throws Exception {
+        jar = bytes;
+        checksum = PluginDiscoveryIndex.toHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    private URL getURL(String fileName) throws IOException {
+        return new URL("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/" + fileName);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        byte[] body = path.endsWith(PluginDownloader.CHECKSUM_SUFFIX)
+                ? (checksum + "  plugin.jar\n").getBytes(StandardCharsets.US_ASCII) : jar;
+        int status = 200;
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+        if(range != null) {
+            ranges.add(range);
+            final int start = misplacedRange ? 0 : Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + (body.length - 1) + "/" + body.length);
+            body = Arrays.copyOfRange(body, start, body.length);
+            status = 206;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try(OutputStream out = exchange.getResponseBody()) { out.write(body); }
+    }
+
+    private Path writePartFile(Path target, int length) throws IOException {
+        return Files.write(target.resolveSibling(target.getFileName() + PluginDownloader.PART_SUFFIX),
+                Arrays.copyOf(jar, length));
+    }
+
+    @Test
+    public void downloadIsVerifiedAndRenamed() throws Exception {
+        final Path target = folder.getRoot().toPath().resolve("plugin.jar");
+        PluginDownloader.download(getURL("plugin.jar"), target);
+
+        assertArrayEquals(jar, Files.readAllBytes(target));
+        assertFalse(Files.exists(target.resolveSibling("plugin.jar" + PluginDownloader.PART_SUFFIX)));
+        assertTrue(ranges.isEmpty());
+    }
+
+    @Test
+    public void partFileIsResumed() throws Exception {
+        final Path target = folder.getRoot().toPath().resolve("plugin.jar");
+        writePartFile(target, jar.length / 2);
+        PluginDownloader.download(getURL("plugin.jar"), target);
+
+        assertArrayEquals(jar, Files.readAllBytes(target));
+        assertEquals("bytes=" + jar.length / 2 + "-", ranges.peek());
+    }
+
+    @Test
+    public void misplacedRangeStartsOver() throws Exception {
+        final Path target = folder.getRoot().toPath().resolve("plugin.jar");
+        writePartFile(target, jar.length / 2);
+        misplacedRange = true;
+        PluginDownloader.download(getURL("plugin.jar"), target);
+
+        //Appended to the part file the jar would be half as long again and fail the checksum
+        assertArrayEquals(jar, Files.readAllBytes(target));
+        assertEquals(1, ranges.size());
+    }
+
+    @Test
+    public void checksumMismatchDeletesPartFile() throws Exception {
+        final Path target = folder.getRoot().toPath().resolve("plugin.jar");
+        checksum = PluginDiscoveryIndex.toHex(MessageDigest.getInstance("SHA-256").digest(new byte[1]));
+        try {
+            PluginDownloader.download(getURL("plugin.jar"), target);
+            fail("The checksum mismatch was not detected");
+        } catch(IOException e) {
+            assertTrue(e.getMessage().contains("Checksum mismatch"));
+        }
+        assertFalse(Files.exists(target));
+        assertFalse(Files.exists(target.resolveSibling("plugin.jar" + PluginDownloader.PART_SUFFIX)));
+    }
+
+    @Test
+    public void rangeStartIsParsed() {
+        assertEquals(100, PluginDownloader.getRangeStart("bytes 100-199/200"));
+        assertEquals(0, PluginDownloader.getRangeStart("bytes 0-199/*"));
+        assertEquals(-1, PluginDownloader.getRangeStart("bytes */200"));
+        assertEquals(-1, PluginDownloader.getRangeStart(null));
+    }
+
+    @Test
+    public void updatedJarIsReloadedOnlyOnce() throws Exception {
+        final PluginManager manager = PluginManager.getInstance();
+        manager.initializePluginDirectory(folder.getRoot().getPath(), "plugins");
+        final Path directory = folder.getRoot().toPath().resolve("plugins");
+        Files.write(directory.resolve("plugin.jar"),
+                TestJars.createUpdatablePluginJar("Downloaded", "1.0", getURL("plugin.jar").toString()));
+        assertTrue(PluginManager.PluginLoader.getInstance().loadExternalPlugins());
+
+        final BlockingQueue<File> reloads = new LinkedBlockingQueue<>();
+        try(PluginDirectoryWatcher watcher = new PluginDirectoryWatcher(directory.toString(), 100, TimeUnit.MILLISECONDS)) {
+            watcher.setReloadListener((file, result) -> reloads.add(file));
+            watcher.start();
+
+            assertEquals("Update Succeeded", manager.updatePluginAsync("Downloaded").get(10, TimeUnit.SECONDS));
+            assertEquals("2.0", manager.getLoadedPlugin("Downloaded").getPluginInfo().getVersion());
+            //Well past the debounce, the watcher saw the new jar by now
+            assertNull(reloads.poll(1, TimeUnit.SECONDS));
+            assertTrue(watcher.isRunning());
+            assertEquals(0, manager.getUpdatedJarCount());
+        }
+        assertTrue("Errors: " + errors, errors.isEmpty());
+    }
+
+    @Test
+    public void unwatchedUpdateIsNotRemembered() throws Exception {
+        final PluginManager manager = PluginManager.getInstance();
+        manager.initializePluginDirectory(folder.getRoot().getPath(), "plugins");
+        final Path directory = folder.getRoot().toPath().resolve("plugins");
+        Files.write(directory.resolve("unwatched.jar"),
+                TestJars.createUpdatablePluginJar("Unwatched", "1.0", getURL("unwatched.jar").toString()));
+        assertTrue(PluginManager.PluginLoader.getInstance().loadExternalPlugins());
+        setJar(TestJars.createPluginJar("Unwatched", "2.0"));
+
+        //No watcher would ever take the entry out again
+        assertEquals("Update Succeeded", manager.updatePluginAsync("Unwatched").get(10, TimeUnit.SECONDS));
+        assertEquals(0, manager.getUpdatedJarCount());
+        assertTrue("Errors: " + errors, errors.isEmpty());
+    }
+}
@@ -0,0 +1,135 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import com.jgcomptech.tools.pluginsystem.events.PluginEventGenerator;
+import com.jgcomptech.tools.pluginsystem.jfr.PluginFlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/** Records the plugin system events with a flight recording and reads them back from the dumped file. */
+public class PluginFlightRecorderTest {
+    private static final String PREFIX = "com.jgcomptech.tools.pluginsystem.";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ConcurrentLinkedQueue<PluginError> errors = new ConcurrentLinkedQueue<>();
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("The runtime has no flight recorder", PluginFlightRecorder.isAvailable());
+        PluginManager.getInstance().setErrorReporter(errors::add);
+        PluginManager.getInstance().initializePluginDirectory(folder.getRoot().getPath(), "plugins");
+        directory = folder.getRoot().toPath().resolve("plugins");
+    }
+
+    private List<RecordedEvent> record(Runnable action) throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("plugins.jfr");
+        try(Recording recording = new Recording()) {
+            recording.enable(PREFIX + "LoadStage");
+            recording.enable(PREFIX + "JarScan");
+            recording.enable(PREFIX + "EventDispatch");
+            recording.enable(PREFIX + "ClassScan").withoutThreshold();
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> filter(List<RecordedEvent> events, String name, String pluginName) {
+        final List<RecordedEvent> result = new ArrayList<>();
+        for(final RecordedEvent event : events) {
+            if(event.getEventType().getName().equals(PREFIX + name)
+                    && (pluginName == null || pluginName.equals(event.getString("pluginName")))) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void lifecycleEventsAreRecorded() throws Exception {
+        TestJars.writePluginJar(directory.resolve("recorded.jar"), "Recorded", "1.0");
+        final PluginInstance fine = new PluginInstance(new TestPlugin("Fine"));
+        final PluginInstance failing = new PluginInstance(new TestPlugin("Failing").setStageAction(() -> false));
+
+        final List<RecordedEvent> events = record(() -> {
+            assertFalse(PluginManager.PluginLoader.getInstance().loadExternalPlugins(1).hasErrors());
+            assertTrue(fine.loadStage(LoadStageType.NORMAL_LOAD));
+            assertFalse(failing.loadStage(LoadStageType.NORMAL_LOAD));
+            PluginEventGenerator.getInstance().installPlugin(this, "Fine");
+        });
+
+        final List<RecordedEvent> jarScans = filter(events, "JarScan", "Recorded");
+        assertEquals(1, jarScans.size());
+        assertEquals("SUCCESS", jarScans.get(0).getString("outcome"));
+        assertEquals(1, jarScans.get(0).getInt("pluginCount"));
+        assertTrue(jarScans.get(0).getString("jar").endsWith("recorded.jar"));
+
+        final List<RecordedEvent> fineStages = filter(events, "LoadStage", "Fine");
+        assertEquals(1, fineStages.size());
+        assertEquals("NORMAL_LOAD", fineStages.get(0).getString("stage"));
+        assertEquals("SUCCESS", fineStages.get(0).getString("outcome"));
+        assertEquals("FAILURE", filter(events, "LoadStage", "Failing").get(0).getString("outcome"));
+
+        final List<RecordedEvent> dispatches = filter(events, "EventDispatch", "Fine");
+        assertEquals(1, dispatches.size());
+        assertEquals("InstallPluginEvent", dispatches.get(0).getString("eventType"));
+        assertFalse(filter(events, "ClassScan", null).isEmpty());
+    }
+
+    @Test
+    public void beginCreatesEventsOnlyWhileTheyAreRecorded() {
+        assertNull(PluginFlightRecorder.beginLoadStage());
+        try(Recording recording = new Recording()) {
+            recording.enable(PREFIX + "LoadStage");
+            recording.disable(PREFIX + "Unload");
+            recording.start();
+            final Object started = PluginFlightRecorder.beginLoadStage();
+            assertNotNull(started);
+            PluginFlightRecorder.endLoadStage(started, "Recorded", LoadStageType.NORMAL_LOAD, true);
+            //Event types the recording disabled are still skipped
+            assertNull(PluginFlightRecorder.beginUnload());
+            recording.stop();
+        }
+        assertNull(PluginFlightRecorder.beginLoadStage());
+    }
+
+    @Test
+    public void unreadableClassIsRecordedAsFailure() throws Exception {
+        try(OutputStream out = Files.newOutputStream(directory.resolve("broken.jar"));
+            JarOutputStream jar = new JarOutputStream(out)) {
+            jar.putNextEntry(new JarEntry("Broken.class"));
+            jar.write(new byte[] { 1, 2, 3, 4 });
+            jar.closeEntry();
+        }
+
+        final List<RecordedEvent> events = record(() ->
+                assertTrue(PluginManager.PluginLoader.getInstance().loadExternalPlugins(1).hasErrors()));
+
+        final List<RecordedEvent> classScans = filter(events, "ClassScan", null);
+        assertEquals(1, classScans.size());
+        assertEquals("Broken.class", classScans.get(0).getString("className"));
+        assertEquals("FAILURE", classScans.get(0).getString("outcome"));
+        assertEquals("FAILURE", filter(events, "JarScan", null).get(0).getString("outcome"));
+    }
+}
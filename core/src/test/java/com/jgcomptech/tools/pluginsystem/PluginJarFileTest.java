@@ -0,0 +1,72 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import com.jgcomptech.testplugins.JarPlugin;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class PluginJarFileTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static String read(URL url) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(InputStream in = url.openStream()) { TestJars.copy(in, bytes); }
+        return new String(bytes.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    public void readsEntriesAgainAfterClose() throws Exception {
+        final File file = TestJars.writePluginJar(folder.getRoot().toPath().resolve("a.jar"), "Alpha", "1.0").toFile();
+        final PluginJarFile jar = PluginJarFile.open(file);
+        assertTrue(jar.hasEntry(JarPlugin.PROPERTIES_NAME));
+        assertNotNull(jar.getManifest());
+
+        jar.close();
+        final String properties = new String(jar.getEntryBytes(JarPlugin.PROPERTIES_NAME), StandardCharsets.ISO_8859_1);
+        assertTrue(properties.contains("name=Alpha"));
+        assertNull(jar.getEntryBytes("missing.txt"));
+        jar.close();
+    }
+
+    @Test
+    public void replacedJarIsNotReadThroughTheOldDirectory() throws Exception {
+        final File file = TestJars.writePluginJar(folder.getRoot().toPath().resolve("a.jar"), "Alpha", "1.0").toFile();
+        final PluginJarFile jar = PluginJarFile.open(file);
+        jar.close();
+
+        TestJars.writePluginJar(file.toPath(), "Alpha", "2.0.0");
+        assertTrue(file.setLastModified(file.lastModified() + 60000));
+        try {
+            jar.getEntryBytes(JarPlugin.PROPERTIES_NAME);
+            fail("The replaced jar was read with the offsets of the old one");
+        } catch(IOException e) {
+            assertTrue(e.getMessage().contains("changed"));
+        }
+    }
+
+    @Test
+    public void resourcesAreServedByTheLoader() throws Exception {
+        final File file = TestJars.writePluginJar(folder.getRoot().toPath().resolve("a.jar"), "Alpha", "1.0").toFile();
+        final PluginClassLoader first = new PluginClassLoader(file, null, getClass().getClassLoader());
+        final URL url = first.getResource(JarPlugin.PROPERTIES_NAME);
+        assertTrue(read(url).contains("version=1.0"));
+        assertNull(first.getResource("missing.txt"));
+        first.closeJar();
+
+        //A loader of the overwritten jar must not get the contents of the old file from a cache
+        TestJars.writePluginJar(file.toPath(), "Alpha", "2.0.0");
+        final PluginClassLoader second = new PluginClassLoader(file, null, getClass().getClassLoader());
+        assertTrue(read(second.getResource(JarPlugin.PROPERTIES_NAME)).contains("version=2.0.0"));
+        second.closeJar();
+    }
+}
@@ -0,0 +1,114 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PluginLifecycleExecutorTest {
+    private final ConcurrentLinkedQueue<PluginError> errors = new ConcurrentLinkedQueue<>();
+    private final PluginLifecycleExecutor executor = new PluginLifecycleExecutor(2);
+
+    @Before
+    public void setUp() { PluginManager.getInstance().setErrorReporter(errors::add); }
+
+    @After
+    public void tearDown() { executor.shutdown(); }
+
+    //Reads the stages without adding the plugin to the pool
+    private static PluginInstance create(TestPlugin plugin) {
+        final PluginInstance result = new PluginInstance(plugin);
+        assertTrue(result.readPluginDetails());
+        return result;
+    }
+
+    private static TestPlugin recording(String name, AtomicBoolean ran) {
+        return new TestPlugin(name).setStageAction(() -> {
+            ran.set(true);
+            return true;
+        });
+    }
+
+    @Test
+    public void stuckStageIsInterruptedAndReported() throws Exception {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final PluginInstance stuck = create(new TestPlugin("Stuck").setStageAction(() -> {
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch(InterruptedException e) {
+                interrupted.countDown();
+            }
+            return true;
+        }));
+        final PluginInstance fine = create(new TestPlugin("Fine"));
+        executor.setStageTimeout(LoadStageType.NORMAL_LOAD, 200, TimeUnit.MILLISECONDS);
+
+        final PluginLifecycleResult result = executor.run(Arrays.asList(stuck, fine), LoadStageType.NORMAL_LOAD);
+
+        assertEquals(Messages.ErrorStatus.TIMED_OUT, result.getStatus("Stuck", LoadStageType.NORMAL_LOAD));
+        assertEquals(Messages.ErrorStatus.NO_ERROR, result.getStatus("Fine", LoadStageType.NORMAL_LOAD));
+        assertTrue("The stuck stage was not interrupted", interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(1, errors.size());
+        assertEquals("Stuck", errors.peek().getPluginName());
+    }
+
+    @Test
+    public void failedStageIsReported() {
+        final PluginInstance failing = create(new TestPlugin("Failing")
+                .setStageAction(() -> false).setErrorMessage("Broken on purpose"));
+
+        final PluginLifecycleResult result = executor.run(Arrays.asList(failing), LoadStageType.NORMAL_LOAD);
+
+        assertEquals(Messages.ErrorStatus.LOADING_ERROR, result.getStatus("Failing", LoadStageType.NORMAL_LOAD));
+        assertEquals(1, errors.size());
+        assertEquals("Broken on purpose", errors.peek().getMessage());
+    }
+
+    @Test
+    public void failedPluginFailsItsDependents() {
+        final AtomicBoolean dependentRan = new AtomicBoolean();
+        final PluginInstance failing = create(new TestPlugin("Base").setStageAction(() -> false));
+        final PluginInstance direct = create(recording("Direct", dependentRan));
+        direct.addDependencies(Arrays.asList("Base"));
+        final PluginInstance transitive = create(recording("Transitive", dependentRan));
+        transitive.addDependencies(Arrays.asList("Direct"));
+        final PluginInstance fine = create(new TestPlugin("Fine"));
+
+        final PluginLifecycleResult result = executor.run(Arrays.asList(transitive, direct, failing, fine),
+                LoadStageType.NORMAL_LOAD);
+
+        assertEquals(Messages.ErrorStatus.LOADING_ERROR, result.getStatus("Base", LoadStageType.NORMAL_LOAD));
+        assertEquals(Messages.ErrorStatus.DEPENDENCY_ERROR, result.getStatus("Direct", LoadStageType.NORMAL_LOAD));
+        assertEquals(Messages.ErrorStatus.DEPENDENCY_ERROR, result.getStatus("Transitive", LoadStageType.NORMAL_LOAD));
+        assertEquals(Messages.ErrorStatus.NO_ERROR, result.getStatus("Fine", LoadStageType.NORMAL_LOAD));
+        assertFalse("A dependent of the failed plugin ran its stage", dependentRan.get());
+        assertEquals(3, errors.size());
+    }
+
+    @Test
+    public void unresolvedPluginsFailWithoutRunning() {
+        final AtomicBoolean ran = new AtomicBoolean();
+        final PluginInstance orphan = create(recording("Orphan", ran));
+        orphan.addDependencies(Arrays.asList("Missing"));
+        final PluginInstance first = create(recording("First", ran));
+        first.addDependencies(Arrays.asList("Second"));
+        final PluginInstance second = create(recording("Second", ran));
+        second.addDependencies(Arrays.asList("First"));
+
+        final PluginLifecycleResult result = executor.run(Arrays.asList(orphan, first, second), LoadStageType.NORMAL_LOAD);
+
+        for(final String name : Arrays.asList("Orphan", "First", "Second")) {
+            assertEquals(Messages.ErrorStatus.DEPENDENCY_ERROR, result.getStatus(name, LoadStageType.NORMAL_LOAD));
+        }
+        assertEquals("Missing dependency \"Missing\"!", result.getErrorMessage("Orphan"));
+        assertFalse("An unresolved plugin ran its stage", ran.get());
+        assertEquals(3, errors.size());
+    }
+}
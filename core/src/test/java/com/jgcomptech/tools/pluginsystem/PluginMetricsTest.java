@@ -0,0 +1,145 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PluginMetricsTest {
+    private final PluginMetrics metrics = PluginMetrics.getInstance();
+
+    @Before
+    public void setUp() {
+        metrics.setEnabled(true);
+        metrics.reset();
+    }
+
+    @After
+    public void tearDown() throws JMException {
+        metrics.setEnabled(true);
+        metrics.reset();
+        metrics.unregisterMBean();
+    }
+
+    /** Returns a start that lies the given milliseconds in the past. */
+    private static long startedAgo(long millis) { return System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(millis); }
+
+    @Test
+    public void recordedRunsAreInTheSnapshot() {
+        metrics.record("Counted", PluginMetrics.Phase.PRE_LOAD, metrics.start(), true);
+        metrics.record("Counted", PluginMetrics.Phase.PRE_LOAD, metrics.start(), false);
+        metrics.record("Counted", PluginMetrics.Phase.PRE_LOAD, startedAgo(5), true);
+        metrics.record("Counted", PluginMetrics.Phase.UNLOAD, metrics.start(), false);
+
+        final PluginMetricsSnapshot snapshot = metrics.getSnapshot();
+        final PluginMetricsSnapshot.Latency preLoad = snapshot.getLatency("Counted", PluginMetrics.Phase.PRE_LOAD);
+        assertEquals(3, preLoad.getCount());
+        assertEquals(1, preLoad.getFailureCount());
+        assertTrue(preLoad.getMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(preLoad.getTotalNanos() >= preLoad.getMaxNanos());
+        assertEquals(1, snapshot.getLatency("Counted", PluginMetrics.Phase.UNLOAD).getFailureCount());
+        //Phases that never ran are left out
+        assertNull(snapshot.getLatency("Counted", PluginMetrics.Phase.POST_LOAD));
+        assertNull(snapshot.getLatency("Missing", PluginMetrics.Phase.PRE_LOAD));
+
+        assertEquals(3, metrics.getCount("Counted", "PRE_LOAD"));
+        assertEquals(1, metrics.getFailureCount("Counted", "PRE_LOAD"));
+        assertArrayEquals(new String[] {"Counted"}, metrics.getPluginNames());
+    }
+
+    @Test
+    public void percentilesAreTheUpperBoundOfTheirBucket() {
+        final PluginMetrics.Timer timer = new PluginMetrics.Timer();
+        for(int i = 0; i < 90; i++) { timer.record(100, true); }
+        for(int i = 0; i < 9; i++) { timer.record(3000, true); }
+        timer.record(1000000, true);
+
+        final PluginMetricsSnapshot.Latency latency = new PluginMetricsSnapshot.Latency(timer);
+        //100 is in the bucket from 64 to 127, 3000 in the one from 2048 to 4095
+        assertEquals(127, latency.getPercentileNanos(50));
+        assertEquals(127, latency.getPercentileNanos(90));
+        assertEquals(4095, latency.getPercentileNanos(99));
+        //The bucket of the maximum ends at 2^20 - 1, the result is capped at the maximum
+        assertEquals(1000000, latency.getPercentileNanos(100));
+        assertEquals(1000000, latency.getMaxNanos());
+        assertEquals((90 * 100 + 9 * 3000 + 1000000) / 100.0, latency.getMeanNanos(), 0);
+        assertEquals(0, new PluginMetricsSnapshot.Latency(new PluginMetrics.Timer()).getPercentileNanos(50));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void percentileOutOfRangeIsRejected() {
+        new PluginMetricsSnapshot.Latency(new PluginMetrics.Timer()).getPercentileNanos(101);
+    }
+
+    @Test
+    public void slowestPluginHasTheLongestTotal() {
+        metrics.record("Fast", PluginMetrics.Phase.NORMAL_LOAD, metrics.start(), true);
+        metrics.record("Fast", PluginMetrics.Phase.NORMAL_LOAD, metrics.start(), true);
+        metrics.record("Slow", PluginMetrics.Phase.NORMAL_LOAD, startedAgo(50), true);
+        metrics.record("Other", PluginMetrics.Phase.UNLOAD, startedAgo(100), true);
+
+        assertEquals("Slow", metrics.getSnapshot().getSlowestPlugin(PluginMetrics.Phase.NORMAL_LOAD));
+        assertEquals("Slow", metrics.getSlowestPlugin("NORMAL_LOAD"));
+        assertNull(metrics.getSnapshot().getSlowestPlugin(PluginMetrics.Phase.PANE_LOAD));
+    }
+
+    @Test
+    public void disabledMetricsRecordNothing() {
+        metrics.setEnabled(false);
+        final long start = metrics.start();
+        assertEquals(PluginMetrics.DISABLED, start);
+        metrics.record("Disabled", PluginMetrics.Phase.PRE_LOAD, start, true);
+        assertTrue(metrics.getSnapshot().getLatencies().isEmpty());
+
+        //A start taken while enabled is still recorded, a zero start is a valid time
+        metrics.setEnabled(true);
+        metrics.record("Enabled", PluginMetrics.Phase.PRE_LOAD, 0, true);
+        assertEquals(1, metrics.getCount("Enabled", "PRE_LOAD"));
+    }
+
+    @Test
+    public void resetForgetsThePlugin() {
+        metrics.record("First", PluginMetrics.Phase.UNLOAD, metrics.start(), true);
+        metrics.record("Second", PluginMetrics.Phase.UNLOAD, metrics.start(), true);
+
+        metrics.reset("First");
+        assertArrayEquals(new String[] {"Second"}, metrics.getPluginNames());
+        metrics.reset();
+        assertEquals(0, metrics.getPluginNames().length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownPluginIsRejected() { metrics.getCount("Missing", "PRE_LOAD"); }
+
+    @Test
+    public void mbeanCanBeRegisteredAndUnregistered() throws JMException {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = metrics.registerMBean();
+        assertEquals(new ObjectName(PluginMetrics.OBJECT_NAME), name);
+        assertTrue(server.isRegistered(name));
+        //Registering twice does nothing
+        assertEquals(name, metrics.registerMBean());
+
+        metrics.record("Managed", PluginMetrics.Phase.POST_LOAD, metrics.start(), true);
+        assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled"));
+        assertArrayEquals(new String[] {"Managed"}, (String[]) server.getAttribute(name, "PluginNames"));
+        assertEquals(1L, server.invoke(name, "getCount", new Object[] {"Managed", "POST_LOAD"},
+                new String[] {String.class.getName(), String.class.getName()}));
+
+        server.setAttribute(name, new Attribute("Enabled", false));
+        assertFalse(metrics.isEnabled());
+
+        metrics.unregisterMBean();
+        assertFalse(server.isRegistered(name));
+        //Unregistering twice does nothing
+        metrics.unregisterMBean();
+    }
+}
@@ -0,0 +1,101 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/** Reads the registry from many threads while other threads install, uninstall, add and remove plugins. */
+public class PluginRegistryStressTest {
+    private static final int PLUGIN_COUNT = 200;
+    private static final int READERS = 4;
+    private static final int INSTALLERS = 2;
+    private static final long DURATION_MILLIS = 2000;
+
+    private final ConcurrentLinkedQueue<PluginError> errors = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    private final List<PluginInstance> plugins = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        PluginManager.getInstance().setErrorReporter(errors::add);
+        for(int i = 0; i < PLUGIN_COUNT; i++) {
+            final PluginInstance plugin = new PluginInstance(new TestPlugin("Stable" + i, "Stable"));
+            plugin.loadPlugin();
+            plugin.setPaneLoaded(true);
+            plugins.add(plugin);
+        }
+    }
+
+    @Test
+    public void readsNeverFailWhileInstallsRun() throws InterruptedException {
+        final PluginManager manager = PluginManager.getInstance();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+        final AtomicLong reads = new AtomicLong();
+        final AtomicLong installs = new AtomicLong();
+        final List<Thread> threads = new ArrayList<>();
+
+        for(int t = 0; t < READERS; t++) {
+            threads.add(new Thread(() -> {
+                long count = 0;
+                while(System.nanoTime() < deadline) {
+                    final int i = ThreadLocalRandom.current().nextInt(PLUGIN_COUNT);
+                    assertSame(plugins.get(i), manager.getLoadedPlugin("Stable" + i));
+                    assertTrue(manager.isPluginLoaded("Stable" + i));
+                    assertEquals(PLUGIN_COUNT, PluginManager.PluginPool.getInstance().getPluginsByType("Stable").size());
+                    for(final PluginInstance plugin : manager.getInstalledPlugins()) { assertNotNull(plugin.getPluginName()); }
+                    count++;
+                }
+                reads.addAndGet(count);
+            }));
+        }
+
+        //Each installer owns its own plugins, so every install and uninstall has to succeed
+        for(int t = 0; t < INSTALLERS; t++) {
+            final int installer = t;
+            threads.add(new Thread(() -> {
+                while(System.nanoTime() < deadline) {
+                    final int i = ThreadLocalRandom.current().nextInt(PLUGIN_COUNT / INSTALLERS) * INSTALLERS + installer;
+                    try {
+                        assertEquals(Messages.ErrorStatus.NO_ERROR, manager.installPluginAsync(this, "Stable" + i).get());
+                    } catch(Exception e) {
+                        throw new AssertionError(e);
+                    }
+                    assertTrue(manager.isPluginInstalled("Stable" + i));
+                    assertEquals(Messages.ErrorStatus.NO_ERROR, manager.uninstallPlugin(this, "Stable" + i));
+                    installs.incrementAndGet();
+                }
+            }));
+        }
+
+        //Plugins of another type come and go, the readers must never see the stable plugins change
+        threads.add(new Thread(() -> {
+            for(int n = 0; System.nanoTime() < deadline; n++) {
+                final PluginInstance plugin = new PluginInstance(new TestPlugin("Churn" + n, "Churn"));
+                plugin.loadPlugin();
+                PluginManager.PluginPool.getInstance().removePlugin(plugin);
+            }
+        }));
+
+        for(final Thread thread : threads) {
+            thread.setUncaughtExceptionHandler((th, e) -> failures.add(e));
+            thread.start();
+        }
+        for(final Thread thread : threads) { thread.join(); }
+
+        assertTrue("Failures: " + failures, failures.isEmpty());
+        assertTrue("Errors: " + errors, errors.isEmpty());
+        assertTrue(reads.get() > 0);
+        assertTrue(installs.get() > 0);
+        assertEquals(PluginManager.filterPlugins(PluginInstance::isInstalled), manager.getInstalledPlugins());
+        assertEquals(new HashSet<>(plugins), PluginManager.PluginPool.getInstance().getPluginsByType("Stable"));
+    }
+}
@@ -0,0 +1,167 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.*;
+
+/**
+ * Swaps a plugin over and over while other threads keep calling it, partly through instances they hold on to
+ * after they were replaced. No call may run on a plugin that was already unloaded, and no caller may wait for a swap.
+ */
+public class PluginSwapStressTest {
+    private static final int CALLERS = 4;
+    private static final int SWAPS = 500;
+    private static final int SLOW_SWAPS = 10;
+    private static final long UNLOAD_MILLIS = 100;
+    //Far below the unload of the replaced plugin, a caller that waited for a swap would take longer
+    private static final long MAX_P99_MILLIS = 20;
+
+    private final ConcurrentLinkedQueue<PluginError> errors = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+
+    @Before
+    public void setUp() { PluginManager.getInstance().setErrorReporter(errors::add); }
+
+    /** Remembers when it was unloaded, so a call that reaches it afterwards is seen. */
+    private static class UnloadedPlugin extends TestPlugin {
+        private volatile boolean unloaded;
+
+        UnloadedPlugin() {
+            super("Swapped");
+            setUnload(true, true);
+        }
+
+        @Override
+        public boolean unloadPlugin() {
+            unloaded = true;
+            return super.unloadPlugin();
+        }
+    }
+
+    private boolean checkNotUnloaded(IPlugin plugin) {
+        if(((UnloadedPlugin) plugin).unloaded) violations.add("Called after unload");
+        Thread.yield();
+        if(((UnloadedPlugin) plugin).unloaded) violations.add("Unloaded during call");
+        return true;
+    }
+
+    @Test
+    public void callsNeverReachUnloadedPlugin() throws Exception {
+        final PluginManager manager = PluginManager.getInstance();
+        new PluginInstance(new UnloadedPlugin()).loadPlugin();
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger calls = new AtomicInteger();
+        final List<Thread> callers = new ArrayList<>();
+        for(int i = 0; i < CALLERS; i++) {
+            final Thread caller = new Thread(() -> {
+                PluginInstance stale = manager.getLoadedPlugin("Swapped");
+                while(running.get()) {
+                    //Every other call goes through an instance that may have been replaced long ago
+                    final PluginInstance plugin = calls.get() % 2 == 0 ? manager.getLoadedPlugin("Swapped") : stale;
+                    try {
+                        plugin.call(this::checkNotUnloaded);
+                    } catch(RuntimeException e) {
+                        violations.add(e.toString());
+                    }
+                    if(calls.incrementAndGet() % 64 == 0) stale = manager.getLoadedPlugin("Swapped");
+                }
+            }, "PluginSwapStressTest-Caller-" + i);
+            callers.add(caller);
+            caller.start();
+        }
+
+        try {
+            for(int i = 0; i < SWAPS; i++) {
+                assertEquals(Messages.ErrorStatus.NO_ERROR, manager.swapPlugin(this,
+                        new PluginInstance(new UnloadedPlugin())).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            running.set(false);
+            for(final Thread caller : callers) { caller.join(TimeUnit.SECONDS.toMillis(10)); }
+        }
+
+        assertTrue("Violations: " + violations, violations.isEmpty());
+        assertTrue("Errors: " + errors, errors.isEmpty());
+        assertTrue(calls.get() > 0);
+        final PluginInstance current = manager.getLoadedPlugin("Swapped");
+        assertFalse(current.isRetired());
+        assertEquals(0, current.getInFlightCalls());
+    }
+
+    /** A plugin that takes long to unload, like one that closes its connections. */
+    private static class SlowUnloadPlugin extends TestPlugin {
+        SlowUnloadPlugin() {
+            super("SlowSwapped");
+            setUnload(true, true);
+        }
+
+        @Override
+        public boolean unloadPlugin() {
+            try {
+                Thread.sleep(UNLOAD_MILLIS);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.unloadPlugin();
+        }
+    }
+
+    @Test
+    public void callLatencyStaysLowDuringSwaps() throws Exception {
+        final PluginManager manager = PluginManager.getInstance();
+        new PluginInstance(new SlowUnloadPlugin()).loadPlugin();
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final long[][] latencies = new long[CALLERS][1 << 18];
+        final int[] counts = new int[CALLERS];
+        final List<Thread> callers = new ArrayList<>();
+        for(int i = 0; i < CALLERS; i++) {
+            final int caller = i;
+            final Thread thread = new Thread(() -> {
+                while(running.get() && counts[caller] < latencies[caller].length) {
+                    final long start = System.nanoTime();
+                    manager.getLoadedPlugin("SlowSwapped").call(IPlugin::hasError);
+                    latencies[caller][counts[caller]++] = System.nanoTime() - start;
+                    //Keeps the samples spread over all swaps
+                    LockSupport.parkNanos(50000);
+                }
+            }, "PluginSwapStressTest-Caller-" + i);
+            callers.add(thread);
+            thread.start();
+        }
+
+        try {
+            for(int i = 0; i < SLOW_SWAPS; i++) {
+                assertEquals(Messages.ErrorStatus.NO_ERROR, manager.swapPlugin(this,
+                        new PluginInstance(new SlowUnloadPlugin())).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            running.set(false);
+            for(final Thread caller : callers) { caller.join(TimeUnit.SECONDS.toMillis(10)); }
+        }
+
+        int total = 0;
+        for(final int count : counts) { total += count; }
+        final long[] all = new long[total];
+        for(int i = 0, offset = 0; i < CALLERS; offset += counts[i++]) {
+            System.arraycopy(latencies[i], 0, all, offset, counts[i]);
+        }
+        Arrays.sort(all);
+        assertTrue(total > 0);
+        final long p99 = all[(int) (total * 0.99)];
+        assertTrue("99th percentile of " + total + " calls was " + TimeUnit.NANOSECONDS.toMicros(p99) + " us",
+                p99 < TimeUnit.MILLISECONDS.toNanos(MAX_P99_MILLIS));
+        assertTrue("Errors: " + errors, errors.isEmpty());
+    }
+}
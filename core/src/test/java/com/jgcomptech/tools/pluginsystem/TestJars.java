@@ -0,0 +1,68 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import com.jgcomptech.testplugins.JarPlugin;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/** Writes plugin jars that contain a {@link JarPlugin} named by the test, with a descriptor for lazy instantiation. */
+final class TestJars {
+    private TestJars() { /*Exists only to defeat instantiation.*/ }
+
+    static Path writePluginJar(Path jar, String pluginName, String version, Class<?>... libraryClasses)
+            throws IOException {
+        Files.write(jar, createPluginJar(pluginName, version, libraryClasses));
+        return jar;
+    }
+
+    static byte[] createPluginJar(String pluginName, String version, Class<?>... libraryClasses) throws IOException {
+        return createJar("name=" + pluginName + "\nversion=" + version + "\n", libraryClasses);
+    }
+
+    /** The plugin of the jar asks to be updated from the URL. */
+    static byte[] createUpdatablePluginJar(String pluginName, String version, String downloadURL) throws IOException {
+        return createJar("name=" + pluginName + "\nversion=" + version + "\ndownloadURL=" + downloadURL + "\n");
+    }
+
+    private static byte[] createJar(String properties, Class<?>... libraryClasses) throws IOException {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(JarOutputStream out = new JarOutputStream(bytes, manifest)) {
+            addClass(out, JarPlugin.class);
+            for(final Class<?> type : libraryClasses) { addClass(out, type); }
+            final byte[] content = properties.getBytes(StandardCharsets.ISO_8859_1);
+            out.putNextEntry(new JarEntry(JarPlugin.PROPERTIES_NAME));
+            out.write(content);
+            out.closeEntry();
+            //The descriptor is only read by lazy instantiation, it names the plugin without creating it
+            out.putNextEntry(new JarEntry(PluginDescriptor.getDescriptorName(JarPlugin.class.getName())));
+            out.write(content);
+            out.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void addClass(JarOutputStream out, Class<?> type) throws IOException {
+        final String entryName = type.getName().replace('.', '/') + ".class";
+        out.putNextEntry(new JarEntry(entryName));
+        try(InputStream in = type.getClassLoader().getResourceAsStream(entryName)) { copy(in, out); }
+        out.closeEntry();
+    }
+
+    static void copy(InputStream in, OutputStream out) throws IOException {
+        final byte[] buffer = new byte[8192];
+        int read;
+        while((read = in.read(buffer)) != -1) { out.write(buffer, 0, read); }
+    }
+}
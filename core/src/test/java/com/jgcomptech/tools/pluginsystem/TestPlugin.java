@@ -0,0 +1,70 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import java.util.function.BooleanSupplier;
+
+/** A plugin the tests set up as needed, by default every stage succeeds and nothing needs an update. */
+public class TestPlugin implements IPlugin {
+    private final PluginInfo info = new PluginInfo();
+    private volatile BooleanSupplier stageAction = () -> true;
+    private volatile boolean useUnload = false;
+    private volatile boolean unloadResult = true;
+    private volatile boolean isUpdateNeeded = false;
+    private volatile String downloadURL;
+    private volatile String errorMessage;
+
+    public TestPlugin(String name) { this(name, "Test"); }
+
+    public TestPlugin(String name, String type) {
+        info.setName(name);
+        info.setVersion("1.0");
+        info.setType(type);
+        info.setAuthor("Test");
+        info.setCompany("Test");
+        info.setLicense("MIT");
+    }
+
+    /** Runs for every stage, the result is the result of the stage. */
+    public TestPlugin setStageAction(BooleanSupplier action) {
+        stageAction = action;
+        return this;
+    }
+    public TestPlugin setUnload(boolean use, boolean result) {
+        useUnload = use;
+        unloadResult = result;
+        return this;
+    }
+    public TestPlugin setUpdate(boolean needed, String url) {
+        isUpdateNeeded = needed;
+        downloadURL = url;
+        return this;
+    }
+    public TestPlugin setErrorMessage(String message) {
+        errorMessage = message;
+        return this;
+    }
+
+    /** Registers the plugin in the pool, for the tests outside of this package. */
+    public PluginInstance load() {
+        final PluginInstance result = new PluginInstance(this);
+        result.loadPlugin();
+        return result;
+    }
+
+    @Override public PluginInfo getPluginInfo() { return info; }
+
+    @Override public boolean unloadPlugin() { return unloadResult; }
+    @Override public boolean useUnload() { return useUnload; }
+
+    @Override public boolean loadPreStage() { return stageAction.getAsBoolean(); }
+    @Override public boolean loadNormalStage() { return stageAction.getAsBoolean(); }
+    @Override public boolean loadPostStage() { return stageAction.getAsBoolean(); }
+
+    @Override public boolean hasError() { return errorMessage != null; }
+    @Override public String getErrorMessage() { return errorMessage; }
+
+    @Override public boolean isUpdateNeeded() { return isUpdateNeeded; }
+    @Override public String getDownloadURL() { return downloadURL; }
+
+    @Override public void setMainAppIconPath(String path) { }
+    @Override public String getMainAppIconPath() { return null; }
+}
@@ -0,0 +1,71 @@
+package com.jgcomptech.tools.pluginsystem;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/** Reads the update status of every plugin like a status screen does, the plugins take a while to answer. */
+public class UpdateCheckTest {
+    private static final int PLUGIN_COUNT = 20;
+    private static final long CHECK_MILLIS = 200;
+
+    private final AtomicInteger checks = new AtomicInteger();
+
+    private TestPlugin create(String name, boolean updateNeeded) {
+        final TestPlugin result = new TestPlugin(name, "Update") {
+            @Override
+            public boolean isUpdateNeeded() {
+                checks.incrementAndGet();
+                try {
+                    Thread.sleep(CHECK_MILLIS);
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.isUpdateNeeded();
+            }
+        };
+        return result.setUpdate(updateNeeded, null);
+    }
+
+    @Test
+    public void statusesComeFromOneSharedCheck() {
+        final PluginManager manager = PluginManager.getInstance();
+        for(int i = 0; i < PLUGIN_COUNT; i++) { new PluginInstance(create("Update" + i, i % 2 == 0)).loadPlugin(); }
+
+        final long start = System.nanoTime();
+        for(int i = 0; i < PLUGIN_COUNT; i++) {
+            assertEquals(i % 2 == 0 ? "Needs Update" : "Current", manager.getPluginUpdateStatus("Update" + i));
+        }
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        //Asked one after the other this would take PLUGIN_COUNT * CHECK_MILLIS
+        assertTrue("Reading the statuses took " + millis + " ms", millis < PLUGIN_COUNT * CHECK_MILLIS / 2);
+        assertEquals(PLUGIN_COUNT, checks.get());
+    }
+
+    @Test
+    public void pluginLoadedAfterTheCheckJoinsANewCheck() {
+        final PluginManager manager = PluginManager.getInstance();
+        new PluginInstance(create("Early", false)).loadPlugin();
+        assertEquals("Current", manager.getPluginUpdateStatus("Early"));
+
+        new PluginInstance(create("Late", true)).loadPlugin();
+        assertEquals("Needs Update", manager.getPluginUpdateStatus("Late"));
+        assertNotNull(manager.getUpdateSnapshot().isUpdateNeeded("Late"));
+    }
+
+    @Test
+    public void pluginThatDoesNotAnswerInTimeIsUnknown() {
+        final PluginManager manager = PluginManager.getInstance();
+        manager.setUpdateCheckTimeout(CHECK_MILLIS / 4, TimeUnit.MILLISECONDS);
+        try {
+            new PluginInstance(create("Slow", true)).loadPlugin();
+            assertEquals("Unknown", manager.getPluginUpdateStatus("Slow"));
+        } finally {
+            manager.setUpdateCheckTimeout(10, TimeUnit.SECONDS);
+        }
+    }
+}
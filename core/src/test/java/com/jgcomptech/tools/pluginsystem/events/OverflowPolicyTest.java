@@ -0,0 +1,128 @@
+package com.jgcomptech.tools.pluginsystem.events;
+
+import com.jgcomptech.tools.pluginsystem.PluginManager;
+import com.jgcomptech.tools.pluginsystem.events.PluginEventSubscriptionTest.TestEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Fills the queue of a subscription whose listener is held on the first event, then checks which events
+ * the policy kept once the listener is released.
+ */
+public class OverflowPolicyTest {
+    private static final int CAPACITY = 2;
+
+    private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PluginEventSubscription subscription;
+    private volatile CountDownLatch done;
+
+    @Before
+    public void setUp() { PluginManager.getInstance().setErrorReporter(error -> { }); }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        if(subscription != null) subscription.cancel();
+    }
+
+    private void subscribe(OverflowPolicy policy, int expected) throws InterruptedException {
+        done = new CountDownLatch(expected);
+        subscription = PluginEventBus.getInstance().subscribeAsync(TestEvent.class, event -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(event.getPluginName());
+            done.countDown();
+        }, CAPACITY, policy);
+
+        //The listener holds the first event, so the queue is empty and every following event waits in it
+        publish("Held");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void publish(String... pluginNames) {
+        for(final String name : pluginNames) { PluginEventBus.getInstance().publish(new TestEvent(name)); }
+    }
+
+    private void releaseAndAwait() throws InterruptedException {
+        release.countDown();
+        assertTrue("Received only " + received, done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void dropNewestDiscardsTheNewEvent() throws Exception {
+        subscribe(OverflowPolicy.DROP_NEWEST, 3);
+        publish("A", "B", "C");
+        releaseAndAwait();
+
+        assertEquals(Arrays.asList("Held", "A", "B"), received);
+        assertEquals(1, subscription.getDroppedCount());
+    }
+
+    @Test
+    public void dropOldestDiscardsTheOldestQueuedEvent() throws Exception {
+        subscribe(OverflowPolicy.DROP_OLDEST, 3);
+        publish("A", "B", "C");
+        releaseAndAwait();
+
+        assertEquals(Arrays.asList("Held", "B", "C"), received);
+        assertEquals(1, subscription.getDroppedCount());
+    }
+
+    @Test
+    public void coalesceMergesQueuedDuplicatesAndThenDropsTheOldest() throws Exception {
+        subscribe(OverflowPolicy.COALESCE, 3);
+        publish("A", "A", "B", "C");
+        releaseAndAwait();
+
+        assertEquals(Arrays.asList("Held", "B", "C"), received);
+        assertEquals(1, subscription.getCoalescedCount());
+        assertEquals(1, subscription.getDroppedCount());
+        //A was dropped, so a new A is queued again instead of being merged into it
+        final CountDownLatch again = new CountDownLatch(1);
+        done = again;
+        publish("A");
+        assertTrue(again.await(5, TimeUnit.SECONDS));
+        assertEquals("A", received.get(3));
+    }
+
+    @Test
+    public void coalesceKeepsEventsWithoutPlugin() throws Exception {
+        subscribe(OverflowPolicy.COALESCE, 3);
+        publish(null, null);
+        releaseAndAwait();
+
+        assertEquals(Arrays.asList("Held", null, null), received);
+        assertEquals(0, subscription.getCoalescedCount());
+    }
+
+    @Test
+    public void blockWaitsForTheListener() throws Exception {
+        subscribe(OverflowPolicy.BLOCK, 4);
+        publish("A", "B");
+        final Thread publisher = new Thread(() -> publish("C"));
+        publisher.start();
+        publisher.join(200);
+        assertTrue("The publisher did not wait for a full queue", publisher.isAlive());
+
+        releaseAndAwait();
+        publisher.join(5000);
+        assertEquals(Arrays.asList("Held", "A", "B", "C"), received);
+        assertEquals(0, subscription.getDroppedCount());
+    }
+}
@@ -0,0 +1,53 @@
+package com.jgcomptech.tools.pluginsystem.events;
+
+import com.jgcomptech.tools.pluginsystem.PluginError;
+import com.jgcomptech.tools.pluginsystem.PluginManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PluginEventSubscriptionTest {
+    private final ConcurrentLinkedQueue<PluginError> errors = new ConcurrentLinkedQueue<>();
+    private final List<PluginEventSubscription> subscriptions = new ArrayList<>();
+
+    /** An event type of its own so the listeners of the tests never see the events of the plugin system. */
+    public static class TestEvent extends PluginEvent {
+        private static final long serialVersionUID = 1L;
+
+        public TestEvent(String pluginName) { super(PluginEventSubscriptionTest.class, pluginName); }
+    }
+
+    @Before
+    public void setUp() { PluginManager.getInstance().setErrorReporter(errors::add); }
+
+    @After
+    public void tearDown() { for(final PluginEventSubscription subscription : subscriptions) { subscription.cancel(); } }
+
+    @Test
+    public void failingListenerKeepsReceivingEvents() throws Exception {
+        final CountDownLatch received = new CountDownLatch(2);
+        subscriptions.add(PluginEventBus.getInstance().subscribeAsync(TestEvent.class, event -> {
+            received.countDown();
+            //An error, not an exception, used to leave the subscription scheduled forever
+            if(event.getPluginName().equals("First")) throw new AssertionError("Broken on purpose");
+        }));
+
+        PluginEventBus.getInstance().publish(new TestEvent("First"));
+        //Published on its own once the first one failed, so it needs a new drain
+        Thread.sleep(100);
+        PluginEventBus.getInstance().publish(new TestEvent("Second"));
+
+        assertTrue("The second event was not delivered", received.await(5, TimeUnit.SECONDS));
+        assertEquals(1, errors.size());
+        assertEquals("First", errors.peek().getPluginName());
+        assertTrue(errors.peek().getMessage().contains("Broken on purpose"));
+    }
+}
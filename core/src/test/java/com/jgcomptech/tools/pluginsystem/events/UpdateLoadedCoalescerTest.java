@@ -0,0 +1,91 @@
+package com.jgcomptech.tools.pluginsystem.events;
+
+import com.jgcomptech.tools.pluginsystem.PluginManager;
+import com.jgcomptech.tools.pluginsystem.TestPlugin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class UpdateLoadedCoalescerTest {
+    private final LinkedBlockingQueue<UpdateLoadedBatchEvent> batches = new LinkedBlockingQueue<>();
+    private final UpdateLoadedBatchListener listener = batches::add;
+
+    @Before
+    public void setUp() {
+        PluginManager.getInstance().setErrorReporter(error -> { });
+        //The plugin manager listens for the updates too and needs to know the plugins
+        for(final String name : Arrays.asList("A", "B", "C", "D")) { new TestPlugin(name).load(); }
+        PluginEventGenerator.getInstance().addUpdateLoadedBatchListener(listener);
+    }
+
+    @After
+    public void tearDown() {
+        PluginEventGenerator.getInstance().disableUpdateLoadedCoalescing();
+        PluginEventGenerator.getInstance().removeUpdateLoadedBatchListener(listener);
+    }
+
+    private static void update(String... pluginNames) throws IllegalAccessException {
+        for(final String name : pluginNames) { PluginEventGenerator.getInstance().updatePluginLoaded(UpdateLoadedCoalescerTest.class, name); }
+    }
+
+    private static void assertBatch(UpdateLoadedBatchEvent batch, int eventCount, String... pluginNames) {
+        assertNotNull("No batch was delivered", batch);
+        assertEquals(new LinkedHashSet<>(Arrays.asList(pluginNames)), batch.getPluginNames());
+        assertEquals(eventCount, batch.getEventCount());
+        assertNull(batch.getPluginName());
+    }
+
+    @Test
+    public void batchIsDeliveredOnceTheWindowElapsed() throws Exception {
+        PluginEventGenerator.getInstance().setUpdateLoadedCoalescing(200, TimeUnit.MILLISECONDS, 100);
+        final long start = System.nanoTime();
+        update("A", "B", "A");
+        assertTrue("Delivered before the window elapsed", batches.isEmpty());
+
+        assertBatch(batches.poll(5, TimeUnit.SECONDS), 3, "A", "B");
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("Delivered after " + millis + " ms", millis >= 150);
+        //The window starts again with the next update
+        update("C");
+        assertBatch(batches.poll(5, TimeUnit.SECONDS), 1, "C");
+    }
+
+    @Test
+    public void fullBatchIsDeliveredRightAway() throws Exception {
+        PluginEventGenerator.getInstance().setUpdateLoadedCoalescing(1, TimeUnit.MINUTES, 2);
+        update("A", "A", "B", "C");
+
+        //Delivered by the publisher itself, the window of a minute has not elapsed
+        assertBatch(batches.poll(), 3, "A", "B");
+        assertTrue(batches.isEmpty());
+        PluginEventGenerator.getInstance().flushUpdateLoaded();
+        assertBatch(batches.poll(), 1, "C");
+    }
+
+    @Test
+    public void pendingBatchIsDeliveredWhenCoalescingStops() throws Exception {
+        PluginEventGenerator.getInstance().setUpdateLoadedCoalescing(1, TimeUnit.MINUTES, 100);
+        update("A", "B");
+        assertTrue(batches.isEmpty());
+
+        PluginEventGenerator.getInstance().disableUpdateLoadedCoalescing();
+        assertBatch(batches.poll(), 2, "A", "B");
+        //Without coalescing every update is a batch of its own
+        update("C");
+        assertBatch(batches.poll(), 1, "C");
+
+        //Replacing the settings delivers what the old window collected
+        PluginEventGenerator.getInstance().setUpdateLoadedCoalescing(1, TimeUnit.MINUTES, 100);
+        update("D");
+        PluginEventGenerator.getInstance().setUpdateLoadedCoalescing(2, TimeUnit.MINUTES, 100);
+        assertBatch(batches.poll(), 1, "D");
+        assertTrue(batches.isEmpty());
+    }
+}
@@ -0,0 +1,387 @@
+package com.jgcomptech.tools.dialogs;
+
+import javafx.application.Platform;
+import javafx.scene.control.*;
+
+import java.util.EnumMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Displays message box with specified options
+ */
+public class MessageBox {
+    //The buttons of every mode and the results they stand for, built once instead of for every message box
+    private static final EnumMap<MessageBoxButtons, ButtonType[]> buttonTypes = new EnumMap<>(MessageBoxButtons.class);
+    private static final EnumMap<MessageBoxButtons, DialogResult[]> buttonResults = new EnumMap<>(MessageBoxButtons.class);
+
+    static {
+        addButtons(MessageBoxButtons.AbortRetryIgnore,
+                new ButtonType[] { MessageBoxButtonType.ABORT, MessageBoxButtonType.RETRY, MessageBoxButtonType.IGNORE },
+                DialogResult.ABORT, DialogResult.RETRY, DialogResult.IGNORE);
+        addButtons(MessageBoxButtons.Apply,
+                new ButtonType[] { MessageBoxButtonType.APPLY },
+                DialogResult.APPLY);
+        addButtons(MessageBoxButtons.ApplyCancel,
+                new ButtonType[] { MessageBoxButtonType.APPLY, MessageBoxButtonType.CANCEL },
+                DialogResult.APPLY, DialogResult.CANCEL);
+        addButtons(MessageBoxButtons.CancelTryAgainContinue,
+                new ButtonType[] { MessageBoxButtonType.CANCEL, MessageBoxButtonType.TRYAGAIN, MessageBoxButtonType.CONTINUE },
+                DialogResult.CANCEL, DialogResult.TRYAGAIN, DialogResult.CONTINUE);
+        addButtons(MessageBoxButtons.Close,
+                new ButtonType[] { MessageBoxButtonType.CLOSE },
+                DialogResult.CLOSE);
+        addButtons(MessageBoxButtons.Finish,
+                new ButtonType[] { MessageBoxButtonType.FINISH },
+                DialogResult.FINISH);
+        addButtons(MessageBoxButtons.FinishCancel,
+                new ButtonType[] { MessageBoxButtonType.FINISH, MessageBoxButtonType.CANCEL },
+                DialogResult.FINISH, DialogResult.CANCEL);
+        addButtons(MessageBoxButtons.NextPrevious,
+                new ButtonType[] { MessageBoxButtonType.NEXT, MessageBoxButtonType.PREVIOUS },
+                DialogResult.NEXT, DialogResult.PREVIOUS);
+        addButtons(MessageBoxButtons.NextPreviousCancel,
+                new ButtonType[] { MessageBoxButtonType.NEXT, MessageBoxButtonType.PREVIOUS, MessageBoxButtonType.CANCEL },
+                DialogResult.NEXT, DialogResult.PREVIOUS, DialogResult.CANCEL);
+        addButtons(MessageBoxButtons.OK,
+                new ButtonType[] { MessageBoxButtonType.OK },
+                DialogResult.OK);
+        addButtons(MessageBoxButtons.OKCancel,
+                new ButtonType[] { MessageBoxButtonType.OK, MessageBoxButtonType.CANCEL },
+                DialogResult.OK, DialogResult.CANCEL);
+        addButtons(MessageBoxButtons.RetryCancel,
+                new ButtonType[] { MessageBoxButtonType.RETRY, MessageBoxButtonType.CANCEL },
+                DialogResult.RETRY, DialogResult.CANCEL);
+        addButtons(MessageBoxButtons.SubmitCancel,
+                new ButtonType[] { MessageBoxButtonType.SUBMIT, MessageBoxButtonType.CANCEL },
+                DialogResult.SUBMIT, DialogResult.CANCEL);
+        addButtons(MessageBoxButtons.YesNo,
+                new ButtonType[] { MessageBoxButtonType.YES, MessageBoxButtonType.NO },
+                DialogResult.YES, DialogResult.NO);
+        addButtons(MessageBoxButtons.YesNoCancel,
+                new ButtonType[] { MessageBoxButtonType.YES, MessageBoxButtonType.NO, MessageBoxButtonType.CANCEL },
+                DialogResult.YES, DialogResult.NO, DialogResult.CANCEL);
+    }
+
+    private static void addButtons(MessageBoxButtons buttons, ButtonType[] types, DialogResult... results) {
+        buttonTypes.put(buttons, types);
+        buttonResults.put(buttons, results);
+    }
+
+    /**
+     * Displays message box with specified text, title, header text, buttons, icon and default button
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param headerText The text to display in the header section of the message box
+     * @param buttons One of the MessageBoxButtons values that specifies which buttons to display in the message box
+     * @param icon One of the MessageBoxIcons values that specifies which icon to display in the message box
+     * @param defaultButton One of the MessageBoxDefaultButton values that specifies the default button for the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text, String title, String headerText, MessageBoxButtons buttons,
+                                    MessageBoxIcon icon, MessageBoxDefaultButton defaultButton) {
+        final Alert alert = createAlert(text, title, headerText, buttons, icon, defaultButton);
+        return toDialogResult(buttons, alert.showAndWait().orElse(null));
+    }
+
+    /**
+     * Displays message box with specified text, title, header text, buttons and icon
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param headerText The text to display in the header section of the message box
+     * @param buttons One of the MessageBoxButtons values that specifies which buttons to display in the message box
+     * @param icon One of the MessageBoxIcons values that specifies which icon to display in the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text, String title, String headerText, MessageBoxButtons buttons,
+                                    MessageBoxIcon icon) {
+        return show(text, title, headerText, buttons, icon, MessageBoxDefaultButton.Button1);
+    }
+
+    /**
+     * Displays message box with specified text, title, header text, buttons and default button
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param headerText The text to display in the header section of the message box
+     * @param buttons One of the MessageBoxButtons values that specifies which buttons to display in the message box
+     * @param defaultButton One of the MessageBoxDefaultButton values that specifies the default button for the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text, String title, String headerText, MessageBoxButtons buttons,
+                                    MessageBoxDefaultButton defaultButton) {
+        return show(text, title, headerText, buttons, MessageBoxIcon.NONE, defaultButton);
+    }
+
+    /**
+     * Displays message box with specified text, title, header text, icon and default button
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param headerText The text to display in the header section of the message box
+     * @param icon One of the MessageBoxIcons values that specifies which icon to display in the message box
+     * @param defaultButton One of the MessageBoxDefaultButton values that specifies the default button for the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text, String title, String headerText, MessageBoxIcon icon,
+                                    MessageBoxDefaultButton defaultButton) {
+        final MessageBoxButtons buttons = getDefaultButtons(icon);
+        return show(text, title, headerText, buttons, icon, defaultButton);
+    }
+
+    /**
+     * Displays message box with specified text, title, buttons, icon and default button
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param buttons One of the MessageBoxButtons values that specifies which buttons to display in the message box
+     * @param icon One of the MessageBoxIcons values that specifies which icon to display in the message box
+     * @param defaultButton One of the MessageBoxDefaultButton values that specifies the default button for the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text, String title, MessageBoxButtons buttons,
+                                    MessageBoxIcon icon, MessageBoxDefaultButton defaultButton) {
+        return show(text, title, "", buttons, icon, defaultButton);
+    }
+
+    /**
+     * Displays message box with specified text, title, buttons and default button
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param buttons One of the MessageBoxButtons values that specifies which buttons to display in the message box
+     * @param defaultButton One of the MessageBoxDefaultButton values that specifies the default button for the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text, String title, MessageBoxButtons buttons,
+                                    MessageBoxDefaultButton defaultButton) {
+        return show(text, title, buttons, MessageBoxIcon.NONE, defaultButton);
+    }
+
+    /**
+     * Displays message box with specified text, title, icon and default button
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param icon One of the MessageBoxIcons values that specifies which icon to display in the message box
+     * @param defaultButton One of the MessageBoxDefaultButton values that specifies the default button for the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text, String title, MessageBoxIcon icon,
+                                    MessageBoxDefaultButton defaultButton) {
+        final MessageBoxButtons buttons = getDefaultButtons(icon);
+        return show(text, title, buttons, icon, defaultButton);
+    }
+
+    /**
+     * Displays message box with specified text, title, header text and buttons
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param headerText The text to display in the header section of the message box
+     * @param buttons One of the MessageBoxButtons values that specifies which buttons to display in the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text, String title, String headerText, MessageBoxButtons buttons) {
+        return show(text, title, headerText, buttons, MessageBoxIcon.NONE, MessageBoxDefaultButton.Button1);
+    }
+
+    /**
+     * Displays message box with specified text, title, header text and icon
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param headerText The text to display in the header section of the message box
+     * @param icon One of the MessageBoxIcons values that specifies which icon to display in the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text, String title, String headerText, MessageBoxIcon icon) {
+        final MessageBoxButtons buttons = getDefaultButtons(icon);
+        return show(text, title, headerText, buttons, icon, MessageBoxDefaultButton.Button1);
+    }
+
+    /**
+     * Displays message box with specified text, title and buttons
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param buttons One of the MessageBoxButtons values that specifies which buttons to display in the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text, String title, MessageBoxButtons buttons) {
+        return show(text, title, "", buttons);
+    }
+
+    /**
+     * Displays message box with specified text, title and icon
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param icon One of the MessageBoxIcons values that specifies which icon to display in the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text, String title, MessageBoxIcon icon) {
+        return show(text, title, "", icon);
+    }
+
+    /**
+     * Displays message box with specified text, title and header text
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param headerText The text to display in the header section of the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text, String title, String headerText) {
+        return show(text, title, headerText, MessageBoxButtons.OK);
+    }
+
+    /**
+     * Displays message box with specified text and title
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text, String title) { return show(text, title, ""); }
+
+    /**
+     * Displays message box with specified text
+     * @param text The text to display in the message box
+     * @return DialogResult representing the return value of the message box
+     */
+    public static DialogResult show(String text) {
+        return show(text, "");
+    }
+
+    /**
+     * Displays message box with specified text, title, header text, buttons, icon and default button without
+     * waiting for it to be closed. Can be called from any thread, the message box is shown on the JavaFX
+     * application thread.
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param headerText The text to display in the header section of the message box
+     * @param buttons One of the MessageBoxButtons values that specifies which buttons to display in the message box
+     * @param icon One of the MessageBoxIcons values that specifies which icon to display in the message box
+     * @param defaultButton One of the MessageBoxDefaultButton values that specifies the default button for the message box
+     * @return Future that completes with the DialogResult once the message box was closed
+     */
+    public static CompletableFuture<DialogResult> showAsync(String text, String title, String headerText,
+                                                            MessageBoxButtons buttons, MessageBoxIcon icon,
+                                                            MessageBoxDefaultButton defaultButton) {
+        final CompletableFuture<DialogResult> result = new CompletableFuture<>();
+        final Runnable open = () -> {
+            try {
+                final Alert alert = createAlert(text, title, headerText, buttons, icon, defaultButton);
+                alert.setOnHidden(e -> result.complete(toDialogResult(buttons, alert.getResult())));
+                //Not showAndWait, the application thread must not be held up while the message box is open
+                alert.show();
+            } catch(RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        };
+
+        try {
+            if(Platform.isFxApplicationThread()) open.run();
+            else Platform.runLater(open);
+        } catch(IllegalStateException e) {
+            //The JavaFX toolkit is not running
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Displays message box with specified text, title, header text, buttons and icon without waiting for it
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param headerText The text to display in the header section of the message box
+     * @param buttons One of the MessageBoxButtons values that specifies which buttons to display in the message box
+     * @param icon One of the MessageBoxIcons values that specifies which icon to display in the message box
+     * @return Future that completes with the DialogResult once the message box was closed
+     */
+    public static CompletableFuture<DialogResult> showAsync(String text, String title, String headerText,
+                                                            MessageBoxButtons buttons, MessageBoxIcon icon) {
+        return showAsync(text, title, headerText, buttons, icon, MessageBoxDefaultButton.Button1);
+    }
+
+    /**
+     * Displays message box with specified text, title, header text and icon without waiting for it
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param headerText The text to display in the header section of the message box
+     * @param icon One of the MessageBoxIcons values that specifies which icon to display in the message box
+     * @return Future that completes with the DialogResult once the message box was closed
+     */
+    public static CompletableFuture<DialogResult> showAsync(String text, String title, String headerText,
+                                                            MessageBoxIcon icon) {
+        return showAsync(text, title, headerText, getDefaultButtons(icon), icon, MessageBoxDefaultButton.Button1);
+    }
+
+    /**
+     * Displays message box with specified text, title and icon without waiting for it
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @param icon One of the MessageBoxIcons values that specifies which icon to display in the message box
+     * @return Future that completes with the DialogResult once the message box was closed
+     */
+    public static CompletableFuture<DialogResult> showAsync(String text, String title, MessageBoxIcon icon) {
+        return showAsync(text, title, "", icon);
+    }
+
+    /**
+     * Displays message box with specified text and title without waiting for it
+     * @param text The text to display in the message box
+     * @param title The text to display in the title bar of the message box
+     * @return Future that completes with the DialogResult once the message box was closed
+     */
+    public static CompletableFuture<DialogResult> showAsync(String text, String title) {
+        return showAsync(text, title, "", MessageBoxButtons.OK, MessageBoxIcon.NONE);
+    }
+
+    private static Alert createAlert(String text, String title, String headerText, MessageBoxButtons buttons,
+                                     MessageBoxIcon icon, MessageBoxDefaultButton defaultButton) {
+        final Alert alert = new Alert(setAlertType(icon), text, buttonTypes.get(buttons));
+        alert.setHeaderText(headerText);
+        alert.setTitle(title);
+        final ButtonType defaultType = getDefaultButtonType(buttons, defaultButton);
+        if(defaultType != null) setDefaultButton(alert, defaultType);
+        return alert;
+    }
+
+    /** Returns the buttons of the mode in the order they are shown. */
+    static ButtonType[] getButtonTypes(MessageBoxButtons buttons) { return buttonTypes.get(buttons).clone(); }
+
+    /**
+     * Returns the button that is made the default button, a default button that the mode does not have falls back
+     * to the first one. Returns null for modes with a single button.
+     */
+    static ButtonType getDefaultButtonType(MessageBoxButtons buttons, MessageBoxDefaultButton defaultButton) {
+        final ButtonType[] types = buttonTypes.get(buttons);
+        if(types.length < 2) return null;
+        return types[defaultButton.ordinal() < types.length ? defaultButton.ordinal() : 0];
+    }
+
+    static DialogResult toDialogResult(MessageBoxButtons buttons, ButtonType result) {
+        final ButtonType[] types = buttonTypes.get(buttons);
+        for(int i = 0; i < types.length; i++) {
+            if(types[i] == result) return buttonResults.get(buttons)[i];
+        }
+        return DialogResult.NONE;
+    }
+
+    private static MessageBoxButtons getDefaultButtons(MessageBoxIcon icon) {
+        return icon == MessageBoxIcon.CONFIRMATION ? MessageBoxButtons.OKCancel : MessageBoxButtons.OK;
+    }
+
+    private static Alert.AlertType setAlertType(MessageBoxIcon icon) {
+        switch(icon) {
+            case NONE:
+                return Alert.AlertType.NONE;
+            case INFORMATION:
+                return Alert.AlertType.INFORMATION;
+            case WARNING:
+                return Alert.AlertType.WARNING;
+            case CONFIRMATION:
+                return Alert.AlertType.CONFIRMATION;
+            case ERROR:
+                return Alert.AlertType.ERROR;
+        }
+        return Alert.AlertType.NONE;
+    }
+
+    private static Alert setDefaultButton ( Alert alert, ButtonType type ) {
+        final DialogPane pane = alert.getDialogPane();
+        for ( final ButtonType t : alert.getButtonTypes() )
+            ( (Button) pane.lookupButton(t) ).setDefaultButton( t == type );
+        return alert;
+    }
+}
@@ -0,0 +1,171 @@
+package com.jgcomptech.tools.dialogs;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shows message boxes through {@link MessageBox#showAsync} while keeping storms of them in check.
+ * A message that is identical to one shown within the window is not shown again, and only a limited
+ * number of message boxes per title and icon are shown within the window. The rest is folded into one
+ * summary message box saying how many more there were, shown when the window ends.
+ */
+public class MessageBoxDispatcher {
+    /** Shows a message box, {@link MessageBox#showAsync} unless a dispatcher is created for testing. */
+    @FunctionalInterface
+    interface Sink {
+        CompletableFuture<DialogResult> show(String text, String title, String headerText, MessageBoxIcon icon);
+    }
+
+    private static final int MAX_SUMMARY_LINES = 10;
+    private static final int PURGE_THRESHOLD = 256;
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final Sink sink;
+    private final long windowNanos;
+    private final int maxPerWindow;
+    private final Map<List<Object>, Shown> shown = new HashMap<>();
+    private final Map<List<Object>, Window> windows = new HashMap<>();
+    private final ScheduledThreadPoolExecutor scheduler;
+    private long shownCount;
+    private long deduplicatedCount;
+    private long suppressedCount;
+    private long summaryCount;
+    private int purgeThreshold = PURGE_THRESHOLD;
+
+    /** Creates a dispatcher that shows at most 3 message boxes per title and icon every 2 seconds. */
+    public MessageBoxDispatcher() { this(2, TimeUnit.SECONDS, 3); }
+
+    public MessageBoxDispatcher(long window, TimeUnit unit, int maxPerWindow) {
+        this(window, unit, maxPerWindow, (text, title, headerText, icon) ->
+                MessageBox.showAsync(text, title, headerText, icon));
+    }
+
+    MessageBoxDispatcher(long window, TimeUnit unit, int maxPerWindow, Sink sink) {
+        if(window <= 0) throw new IllegalArgumentException("Window must be greater than zero!");
+        if(maxPerWindow <= 0) throw new IllegalArgumentException("Max per window must be greater than zero!");
+        this.sink = sink;
+        this.windowNanos = unit.toNanos(window);
+        this.maxPerWindow = maxPerWindow;
+        scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "MessageBoxDispatcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setKeepAliveTime(10, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+    }
+
+    private static final class Shown {
+        private final long time;
+        private final CompletableFuture<DialogResult> result;
+
+        private Shown(long time, CompletableFuture<DialogResult> result) {
+            this.time = time;
+            this.result = result;
+        }
+    }
+
+    private static final class Window {
+        private final long start;
+        private int shown;
+        private int suppressed;
+        private final List<String> suppressedTexts = new ArrayList<>();
+
+        private Window(long start) { this.start = start; }
+    }
+
+    /**
+     * Shows the message box unless it is a duplicate or the limit of its title and icon is reached.
+     * A duplicate gets the result of the message box already shown, a suppressed message box
+     * completes right away with {@link DialogResult#NONE}.
+     */
+    public CompletableFuture<DialogResult> show(String text, String title, String headerText, MessageBoxIcon icon) {
+        final List<Object> messageKey = Arrays.asList(text, title, headerText, icon);
+        final List<Object> windowKey = Arrays.asList(title, icon);
+        final CompletableFuture<DialogResult> result;
+
+        synchronized(this) {
+            final long now = System.nanoTime();
+            if(shown.size() > purgeThreshold) purge(now);
+
+            final Shown duplicate = shown.get(messageKey);
+            if(duplicate != null && now - duplicate.time < windowNanos) {
+                deduplicatedCount++;
+                return duplicate.result;
+            }
+
+            Window window = windows.get(windowKey);
+            if(window == null || now - window.start >= windowNanos) {
+                window = new Window(now);
+                windows.put(windowKey, window);
+            }
+            if(window.shown == maxPerWindow) {
+                suppressedCount++;
+                if(window.suppressed++ == 0) {
+                    final Window full = window;
+                    scheduler.schedule(() -> showSummary(full, title, icon),
+                            full.start + windowNanos - now, TimeUnit.NANOSECONDS);
+                }
+                if(window.suppressedTexts.size() < MAX_SUMMARY_LINES) window.suppressedTexts.add(text);
+                //Duplicates of a suppressed message are not counted twice in the summary
+                final CompletableFuture<DialogResult> none = CompletableFuture.completedFuture(DialogResult.NONE);
+                shown.put(messageKey, new Shown(now, none));
+                return none;
+            }
+            window.shown++;
+            shownCount++;
+
+            result = new CompletableFuture<>();
+            shown.put(messageKey, new Shown(now, result));
+        }
+
+        //Outside of the lock, the sink may run the message box right away if called on the application thread
+        sink.show(text, title, headerText, icon).whenComplete((value, error) -> {
+            if(error != null) result.completeExceptionally(error);
+            else result.complete(value);
+        });
+        return result;
+    }
+
+    public CompletableFuture<DialogResult> show(String text, String title, MessageBoxIcon icon) {
+        return show(text, title, "", icon);
+    }
+
+    private void showSummary(Window window, String title, MessageBoxIcon icon) {
+        final String text;
+        final int count;
+        synchronized(this) {
+            count = window.suppressed;
+            final String separator = System.getProperty("line.separator");
+            final StringBuilder builder = new StringBuilder();
+            for(final String line : window.suppressedTexts) {
+                if(builder.length() > 0) builder.append(separator);
+                builder.append(line);
+            }
+            if(count > window.suppressedTexts.size()) builder.append(separator).append("...");
+            text = builder.toString();
+            summaryCount++;
+        }
+        sink.show(text, title, count + (icon == MessageBoxIcon.ERROR ? " more errors" : " more messages"), icon);
+    }
+
+    //Forgets the messages that are outside of the window, they may be shown again
+    private void purge(long now) {
+        shown.values().removeIf(s -> now - s.time >= windowNanos);
+        //The summary of a window that ended is already scheduled and keeps its own reference
+        windows.values().removeIf(w -> now - w.start >= windowNanos);
+        //Grows with the messages still in the window so a long storm does not purge on every call
+        purgeThreshold = Math.max(PURGE_THRESHOLD, shown.size() * 2);
+    }
+
+    /** Number of message boxes that were shown, not counting summaries. */
+    public synchronized long getShownCount() { return shownCount; }
+    /** Number of message boxes that were not shown because an identical one was shown within the window. */
+    public synchronized long getDeduplicatedCount() { return deduplicatedCount; }
+    /** Number of message boxes that were folded into a summary. */
+    public synchronized long getSuppressedCount() { return suppressedCount; }
+    public synchronized long getSummaryCount() { return summaryCount; }
+}
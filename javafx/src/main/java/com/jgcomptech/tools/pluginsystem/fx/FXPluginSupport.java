@@ -0,0 +1,36 @@
+package com.jgcomptech.tools.pluginsystem.fx;
+
+import com.jgcomptech.tools.pluginsystem.PluginInstance;
+import com.jgcomptech.tools.pluginsystem.PluginManager;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.layout.BorderPane;
+
+/** Access to the JavaFX parts of plugins, plugins that do not implement {@link IFXPlugin} have none. */
+public final class FXPluginSupport {
+    private FXPluginSupport() { /*Exists only to defeat instantiation.*/ }
+
+    public static boolean isFXPlugin(PluginInstance plugin) { return plugin.call(p -> p instanceof IFXPlugin); }
+
+    /** Returns the FXML loader of the plugin or null if it has no user interface. */
+    public static FXMLLoader getFXMLLoader(PluginInstance plugin) {
+        return plugin.call(p -> p instanceof IFXPlugin ? ((IFXPlugin) p).getFXMLLoader() : null);
+    }
+
+    /** Returns the FXML path of the plugin or null if it has no user interface. */
+    public static String getFXMLPath(PluginInstance plugin) {
+        return plugin.call(p -> p instanceof IFXPlugin ? ((IFXPlugin) p).getFXMLPath() : null);
+    }
+
+    public static void addPluginBorderPane(String pluginNavString, BorderPane pane) {
+        PluginManager.PluginPool.getInstance().addPluginObjects(pluginNavString, pane);
+    }
+
+    public static BorderPane getPluginBorderPane(String pluginName) {
+        return PluginManager.PluginPool.getInstance().getPluginObject(pluginName, BorderPane.class);
+    }
+
+    /** Shows all plugin errors in a message box instead of printing them. */
+    public static void useMessageBoxErrors() {
+        PluginManager.getInstance().setErrorReporter(new MessageBoxErrorReporter());
+    }
+}
@@ -0,0 +1,10 @@
+package com.jgcomptech.tools.pluginsystem.fx;
+
+import com.jgcomptech.tools.pluginsystem.IPlugin;
+import javafx.fxml.FXMLLoader;
+
+/** A plugin that brings its own JavaFX user interface. */
+public interface IFXPlugin extends IPlugin {
+    FXMLLoader getFXMLLoader();
+    String getFXMLPath();
+}
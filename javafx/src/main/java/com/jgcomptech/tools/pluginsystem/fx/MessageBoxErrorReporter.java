@@ -0,0 +1,57 @@
+package com.jgcomptech.tools.pluginsystem.fx;
+
+import com.jgcomptech.tools.dialogs.DialogResult;
+import com.jgcomptech.tools.dialogs.MessageBoxDispatcher;
+import com.jgcomptech.tools.dialogs.MessageBoxIcon;
+import com.jgcomptech.tools.pluginsystem.AsyncPluginErrorReporter;
+import com.jgcomptech.tools.pluginsystem.PluginError;
+import com.jgcomptech.tools.pluginsystem.PluginErrorReport;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shows the errors of each load batch in one error message box. The dialog is shown through a
+ * {@link MessageBoxDispatcher}, so the plugin system never waits for it to be closed and a storm of failing
+ * batches does not open a storm of dialogs. If the message box can not be shown, for example because the JavaFX
+ * toolkit is not running, the errors are logged.
+ */
+public class MessageBoxErrorReporter extends AsyncPluginErrorReporter {
+    private static final Logger LOGGER = Logger.getLogger(MessageBoxErrorReporter.class.getName());
+
+    private final MessageBoxDispatcher dispatcher;
+
+    public MessageBoxErrorReporter() { this(new MessageBoxDispatcher()); }
+
+    public MessageBoxErrorReporter(MessageBoxDispatcher dispatcher) {
+        super(report -> show(dispatcher, report));
+        this.dispatcher = dispatcher;
+    }
+
+    public MessageBoxDispatcher getDispatcher() { return dispatcher; }
+
+    private static void show(MessageBoxDispatcher dispatcher, PluginErrorReport report) {
+        showMessageBox(dispatcher, report).whenComplete((result, error) -> {
+            if(error != null) LOGGER.log(Level.SEVERE, "Plugin errors could not be shown, " + report, error);
+        });
+    }
+
+    private static CompletableFuture<DialogResult> showMessageBox(MessageBoxDispatcher dispatcher, PluginErrorReport report) {
+        final PluginError first = report.getErrors().get(0);
+        if(report.getErrorCount() == 1) {
+            if(first.getHeaderText() == null) return dispatcher.show(first.getMessage(), first.getTitle(), MessageBoxIcon.ERROR);
+            else return dispatcher.show(first.getMessage(), first.getTitle(), first.getHeaderText(), MessageBoxIcon.ERROR);
+        }
+
+        final String separator = System.getProperty("line.separator");
+        final StringBuilder text = new StringBuilder();
+        for(final PluginError error : report.getErrors()) {
+            if(text.length() > 0) text.append(separator);
+            if(error.getHeaderText() != null) text.append(error.getHeaderText()).append(' ');
+            text.append(error.getMessage());
+        }
+        return dispatcher.show(text.toString(), first.getTitle(),
+                report.getErrorCount() + " plugin errors occurred!", MessageBoxIcon.ERROR);
+    }
+}
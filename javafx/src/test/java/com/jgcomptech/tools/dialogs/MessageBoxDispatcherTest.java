@@ -0,0 +1,80 @@
+package com.jgcomptech.tools.dialogs;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/** Runs the dispatcher against a sink that records the message boxes instead of showing them. */
+public class MessageBoxDispatcherTest {
+    private static final long WINDOW_MILLIS = 300;
+
+    private final BlockingQueue<List<Object>> shown = new LinkedBlockingQueue<>();
+    private final MessageBoxDispatcher dispatcher = new MessageBoxDispatcher(WINDOW_MILLIS, TimeUnit.MILLISECONDS, 2,
+            (text, title, headerText, icon) -> {
+                shown.add(Arrays.asList(text, title, headerText, icon));
+                return CompletableFuture.completedFuture(DialogResult.OK);
+            });
+
+    @Test
+    public void duplicateIsShownOnce() throws Exception {
+        final CompletableFuture<DialogResult> first = dispatcher.show("Failed", "Title", MessageBoxIcon.ERROR);
+        final CompletableFuture<DialogResult> second = dispatcher.show("Failed", "Title", MessageBoxIcon.ERROR);
+
+        assertEquals(DialogResult.OK, second.get(1, TimeUnit.SECONDS));
+        assertSame(first, second);
+        assertEquals(1, shown.size());
+        assertEquals(1, dispatcher.getDeduplicatedCount());
+    }
+
+    @Test
+    public void stormIsFoldedIntoSummary() throws Exception {
+        for(int i = 0; i < 10; i++) { dispatcher.show("Failed " + i, "Title", MessageBoxIcon.ERROR); }
+        assertEquals(2, shown.size());
+        assertEquals(DialogResult.NONE, dispatcher.show("Failed 10", "Title", MessageBoxIcon.ERROR).get(1, TimeUnit.SECONDS));
+
+        shown.clear();
+        final List<Object> summary = shown.poll(WINDOW_MILLIS * 10, TimeUnit.MILLISECONDS);
+        assertNotNull("No summary after the window", summary);
+        assertEquals("9 more errors", summary.get(2));
+        assertTrue(((String) summary.get(0)).startsWith("Failed 2"));
+        assertEquals(9, dispatcher.getSuppressedCount());
+        assertEquals(1, dispatcher.getSummaryCount());
+    }
+
+    @Test
+    public void otherTitleHasItsOwnLimit() {
+        dispatcher.show("Failed 1", "Title", MessageBoxIcon.ERROR);
+        dispatcher.show("Failed 2", "Title", MessageBoxIcon.ERROR);
+        dispatcher.show("Failed 3", "Other", MessageBoxIcon.ERROR);
+        dispatcher.show("Failed 4", "Title", MessageBoxIcon.WARNING);
+        assertEquals(4, shown.size());
+        assertEquals(0, dispatcher.getSuppressedCount());
+    }
+
+    @Test
+    public void messageIsShownAgainAfterWindow() throws Exception {
+        dispatcher.show("Failed", "Title", MessageBoxIcon.ERROR);
+        Thread.sleep(WINDOW_MILLIS * 2);
+        dispatcher.show("Failed", "Title", MessageBoxIcon.ERROR);
+        assertEquals(2, shown.size());
+        assertEquals(0, dispatcher.getDeduplicatedCount());
+    }
+
+    @Test
+    public void failingSinkFailsTheResult() {
+        final MessageBoxDispatcher failing = new MessageBoxDispatcher(WINDOW_MILLIS, TimeUnit.MILLISECONDS, 2,
+                (text, title, headerText, icon) -> {
+                    final CompletableFuture<DialogResult> result = new CompletableFuture<>();
+                    result.completeExceptionally(new IllegalStateException("Toolkit not initialized"));
+                    return result;
+                });
+        assertTrue(failing.show("Failed", "Title", MessageBoxIcon.ERROR).isCompletedExceptionally());
+    }
+}
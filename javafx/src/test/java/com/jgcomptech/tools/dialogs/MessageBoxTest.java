@@ -0,0 +1,94 @@
+package com.jgcomptech.tools.dialogs;
+
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/** Checks the buttons and results of every mode without a display, nothing here starts the JavaFX toolkit. */
+public class MessageBoxTest {
+    //The buttons of every mode in the order they are shown, each one stands for the result of the same name
+    private static final Map<MessageBoxButtons, List<String>> EXPECTED = new EnumMap<>(MessageBoxButtons.class);
+
+    static {
+        EXPECTED.put(MessageBoxButtons.AbortRetryIgnore, Arrays.asList("ABORT", "RETRY", "IGNORE"));
+        EXPECTED.put(MessageBoxButtons.Apply, Arrays.asList("APPLY"));
+        EXPECTED.put(MessageBoxButtons.ApplyCancel, Arrays.asList("APPLY", "CANCEL"));
+        EXPECTED.put(MessageBoxButtons.CancelTryAgainContinue, Arrays.asList("CANCEL", "TRYAGAIN", "CONTINUE"));
+        EXPECTED.put(MessageBoxButtons.Close, Arrays.asList("CLOSE"));
+        EXPECTED.put(MessageBoxButtons.Finish, Arrays.asList("FINISH"));
+        EXPECTED.put(MessageBoxButtons.FinishCancel, Arrays.asList("FINISH", "CANCEL"));
+        EXPECTED.put(MessageBoxButtons.NextPrevious, Arrays.asList("NEXT", "PREVIOUS"));
+        EXPECTED.put(MessageBoxButtons.NextPreviousCancel, Arrays.asList("NEXT", "PREVIOUS", "CANCEL"));
+        EXPECTED.put(MessageBoxButtons.OK, Arrays.asList("OK"));
+        EXPECTED.put(MessageBoxButtons.OKCancel, Arrays.asList("OK", "CANCEL"));
+        EXPECTED.put(MessageBoxButtons.RetryCancel, Arrays.asList("RETRY", "CANCEL"));
+        EXPECTED.put(MessageBoxButtons.SubmitCancel, Arrays.asList("SUBMIT", "CANCEL"));
+        EXPECTED.put(MessageBoxButtons.YesNo, Arrays.asList("YES", "NO"));
+        EXPECTED.put(MessageBoxButtons.YesNoCancel, Arrays.asList("YES", "NO", "CANCEL"));
+    }
+
+    private static ButtonType getButtonType(String name) throws ReflectiveOperationException {
+        return (ButtonType) MessageBoxButtonType.class.getField(name).get(null);
+    }
+
+    @Test
+    public void everyButtonMapsToItsResult() throws Exception {
+        assertEquals("Every mode needs an expectation", EnumSet.allOf(MessageBoxButtons.class), EXPECTED.keySet());
+        for(final MessageBoxButtons buttons : MessageBoxButtons.values()) {
+            final ButtonType[] types = MessageBox.getButtonTypes(buttons);
+            final List<String> names = EXPECTED.get(buttons);
+            assertEquals(buttons.toString(), names.size(), types.length);
+            final Set<ButtonBar.ButtonData> data = EnumSet.noneOf(ButtonBar.ButtonData.class);
+            for(int i = 0; i < types.length; i++) {
+                assertSame(buttons + " button " + i, getButtonType(names.get(i)), types[i]);
+                assertEquals(buttons + " button " + i, DialogResult.class.getField(names.get(i)).get(null),
+                        MessageBox.toDialogResult(buttons, types[i]));
+                //The results used to be told apart by the button data, so it has to be unique within a mode
+                assertTrue(buttons + " has two buttons with " + types[i].getButtonData(), data.add(types[i].getButtonData()));
+            }
+        }
+    }
+
+    @Test
+    public void closedOrForeignButtonIsNone() {
+        for(final MessageBoxButtons buttons : MessageBoxButtons.values()) {
+            assertEquals(DialogResult.NONE, MessageBox.toDialogResult(buttons, null));
+            assertEquals(DialogResult.NONE, MessageBox.toDialogResult(buttons, MessageBoxButtonType.NONE));
+        }
+        //A button of the same kind from another mode is not a button of this one
+        assertEquals(DialogResult.NONE, MessageBox.toDialogResult(MessageBoxButtons.YesNo, MessageBoxButtonType.CANCEL));
+    }
+
+    @Test
+    public void defaultButtonFallsBackToTheFirst() {
+        for(final MessageBoxButtons buttons : MessageBoxButtons.values()) {
+            final ButtonType[] types = MessageBox.getButtonTypes(buttons);
+            for(final MessageBoxDefaultButton defaultButton : MessageBoxDefaultButton.values()) {
+                final ButtonType result = MessageBox.getDefaultButtonType(buttons, defaultButton);
+                if(types.length == 1) assertNull(buttons + " " + defaultButton, result);
+                else {
+                    final int index = defaultButton.ordinal();
+                    assertSame(buttons + " " + defaultButton, types[index < types.length ? index : 0], result);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void showAsyncFailsWithoutToolkit() throws Exception {
+        final CompletableFuture<DialogResult> result = MessageBox.showAsync("Text", "Title");
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            fail("Completed without a toolkit");
+        } catch(ExecutionException e) {
+            assertTrue(e.getCause().toString(), e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.jgcomptech.tools.pluginsystem.fx;
+
+import com.jgcomptech.tools.pluginsystem.PluginError;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.*;
+
+/** The JavaFX toolkit is never started in the tests, so every message box fails to show. */
+public class MessageBoxErrorReporterTest {
+    private final Logger logger = Logger.getLogger(MessageBoxErrorReporter.class.getName());
+    private final BlockingQueue<LogRecord> records = new LinkedBlockingQueue<>();
+    private final Handler handler = new Handler() {
+        @Override public void publish(LogRecord record) { records.add(record); }
+        @Override public void flush() { }
+        @Override public void close() { }
+    };
+
+    @Before
+    public void setUp() { logger.addHandler(handler); }
+
+    @After
+    public void tearDown() { logger.removeHandler(handler); }
+
+    @Test
+    public void errorsAreLoggedWithoutToolkit() throws Exception {
+        final MessageBoxErrorReporter reporter = new MessageBoxErrorReporter();
+        reporter.beginBatch();
+        reporter.report(new PluginError("First", "Title", "Header", "First failed"));
+        reporter.report(new PluginError("Second", "Title", null, "Second failed"));
+        reporter.endBatch();
+
+        final LogRecord record = records.poll(10, TimeUnit.SECONDS);
+        assertNotNull("The errors were not logged", record);
+        assertTrue(record.getMessage().contains("First failed"));
+        assertTrue(record.getMessage().contains("Second failed"));
+        assertTrue(record.getThrown() instanceof IllegalStateException);
+        assertNull("One batch is one report", records.poll(200, TimeUnit.MILLISECONDS));
+    }
+}